@@ -0,0 +1,111 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Client;
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Associations.*.link/unlink at scale: every invocation links and then
+ * unlinks N objects to the same owner, so the owner collections grow up
+ * to N elements and get back to empty. A quadratic link makes 40000 take
+ * 16 times 10000; a constant time one less, though larger sets also pay
+ * more cache misses and GC, so compare the trend over several runs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AssociationsBenchmark {
+
+	@Param({ "100", "10000", "40000" })
+	private int size;
+
+	private Client client;
+	private VehicleType vehicleType;
+	private Mechanic mechanic;
+	private List<Vehicle> vehicles = new ArrayList<>();
+	private List<WorkOrder> workOrders = new ArrayList<>();
+	private List<Intervention> interventions = new ArrayList<>();
+
+	@Setup
+	public void setUp() {
+		Fixtures fixtures = new Fixtures();
+		client = new Client("nif", "name", "surname");
+		vehicleType = new VehicleType("truck", 80.0);
+		mechanic = fixtures.newMechanic();
+
+		for (int i = 0; i < size; i++) {
+			vehicles.add(new Vehicle("V-" + i, "make", "model"));
+			WorkOrder wo = fixtures.newWorkOrder();
+			workOrders.add(wo);
+			interventions.add(
+					new Intervention(fixtures.nextDate(), 10, wo, mechanic));
+		}
+	}
+
+	@Benchmark
+	public Client owns() {
+		for (Vehicle v : vehicles) {
+			Associations.Owns.link(client, v);
+		}
+		for (Vehicle v : vehicles) {
+			Associations.Owns.unlink(client, v);
+		}
+		return client;
+	}
+
+	@Benchmark
+	public VehicleType classifies() {
+		for (Vehicle v : vehicles) {
+			Associations.Classifies.link(vehicleType, v);
+		}
+		for (Vehicle v : vehicles) {
+			Associations.Classifies.unlink(vehicleType, v);
+		}
+		return vehicleType;
+	}
+
+	@Benchmark
+	public Mechanic assigns() {
+		for (WorkOrder wo : workOrders) {
+			Associations.Assigns.link(mechanic, wo);
+		}
+		for (WorkOrder wo : workOrders) {
+			Associations.Assigns.unlink(mechanic, wo);
+		}
+		return mechanic;
+	}
+
+	@Benchmark
+	public Mechanic intervenes() {
+		for (Intervention i : interventions) {
+			WorkOrder wo = i.getWorkOrder();
+			Associations.Intervenes.unlink(i);
+			Associations.Intervenes.link(wo, i, mechanic);
+		}
+		return mechanic;
+	}
+
+}
@@ -0,0 +1,90 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.ChargeJournal;
+import uo.ri.cws.domain.Invoice;
+import uo.ri.cws.domain.Voucher;
+import uo.ri.util.math.Cents;
+
+/**
+ * Charge settlement: the invoice amount is split in N charges, each to a
+ * voucher of its own (a fleet invoice), and then the invoice is settled.
+ * The last charge takes the cents left by the split.
+ *
+ * chargeAndRollback makes the same charges through a ChargeJournal and
+ * then undoes them all, as a payment batch failing at its end would
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChargeBenchmark {
+
+	@Param({ "1", "10", "100" })
+	private int charges;
+
+	private Fixtures fixtures;
+	private Voucher[] vouchers;
+	private Invoice invoice;
+	private long number = 0;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		fixtures = new Fixtures();
+	}
+
+	/**
+	 * New vouchers every invocation, so they do not keep the charges of
+	 * the previous ones
+	 */
+	@Setup(Level.Invocation)
+	public void setUpInvocation() {
+		invoice = new Invoice(number++, fixtures.newFinishedWorkOrders(1));
+		vouchers = new Voucher[charges];
+		for (int i = 0; i < charges; i++) {
+			vouchers[i] = new Voucher("V-" + i, "fleet", 1e12);
+		}
+	}
+
+	@Benchmark
+	public Invoice chargeAndSettle() {
+		charge(new ChargeJournal());
+		invoice.settle();
+		return invoice;
+	}
+
+	@Benchmark
+	public Invoice chargeAndRollback() {
+		ChargeJournal journal = new ChargeJournal();
+		charge(journal);
+		journal.rollback();
+		return invoice;
+	}
+
+	private void charge(ChargeJournal journal) {
+		long total = Cents.of(invoice.getAmount());
+		long amount = total / charges;
+		for (int i = 0; i < charges - 1; i++) {
+			journal.charge(invoice, vouchers[i], Cents.toDouble(amount));
+		}
+		journal.charge(invoice, vouchers[charges - 1],
+				Cents.toDouble(total - amount * (charges - 1)));
+	}
+
+}
@@ -0,0 +1,66 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Iterating the interventions of a work order through the copying getter
+ * and through the read-only view. Run with -prof gc to see the allocation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollectionViewsBenchmark {
+
+	@Param({ "10", "1000" })
+	private int interventions;
+
+	private WorkOrder workOrder;
+
+	@Setup
+	public void setUp() {
+		Fixtures fixtures = new Fixtures();
+		Mechanic mechanic = fixtures.newMechanic();
+		workOrder = fixtures.newWorkOrder();
+		for (int i = 0; i < interventions; i++) {
+			new Intervention(fixtures.nextDate(), 10 + i, workOrder, mechanic);
+		}
+	}
+
+	@Benchmark
+	public long iterateCopy() {
+		long minutes = 0;
+		for (Intervention i : workOrder.getInterventions()) {
+			minutes += i.getMinutes();
+		}
+		return minutes;
+	}
+
+	@Benchmark
+	public long iterateView() {
+		long minutes = 0;
+		for (Intervention i : workOrder.getInterventionsView()) {
+			minutes += i.getMinutes();
+		}
+		return minutes;
+	}
+
+}
@@ -0,0 +1,111 @@
+package uo.ri.benchmarks.domain;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Contract;
+import uo.ri.cws.domain.ContractIndex;
+import uo.ri.cws.domain.ContractType;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.ProfessionalGroup;
+
+/**
+ * Staffing report of a day: the contracts in force on it, out of the
+ * history of N mechanics with five contracts each over ten years, for a
+ * different day of 2024 every call. scan checks every contract,
+ * perMechanic looks up each mechanic (Mechanic.getContractInForceOn) and
+ * index finds them in a ContractIndex.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContractIndexBenchmark {
+
+	private static final int CONTRACTS_PER_MECHANIC = 5;
+	private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+	@Param({ "1000", "10000" })
+	private int mechanics;
+
+	private List<Mechanic> staff;
+	private List<Contract> contracts;
+	private ContractIndex index;
+	private int day;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		Fixtures fixtures = new Fixtures();
+		ContractType type = new ContractType("INDEFINITE", 20);
+		ProfessionalGroup group = new ProfessionalGroup("oficial", 30.0, 0.05);
+		Random random = new Random(42);
+		staff = new ArrayList<>(mechanics);
+		contracts = new ArrayList<>(mechanics * CONTRACTS_PER_MECHANIC);
+		for (int m = 0; m < mechanics; m++) {
+			Mechanic mechanic = fixtures.newMechanic();
+			staff.add(mechanic);
+			YearMonth month = YearMonth.of(2015, 1 + random.nextInt(12));
+			for (int i = 0; i < CONTRACTS_PER_MECHANIC; i++) {
+				Contract c = new Contract(mechanic, type, group,
+						month.atDay(1), 20_000);
+				contracts.add(c);
+				YearMonth end = month.plusMonths(random.nextInt(24));
+				if (i < CONTRACTS_PER_MECHANIC - 1) {
+					c.terminate(end.atDay(1));
+				}
+				month = end.plusMonths(1 + random.nextInt(3));
+			}
+		}
+		index = new ContractIndex(contracts);
+	}
+
+	@Benchmark
+	public List<Contract> scan() {
+		LocalDate date = nextDay();
+		List<Contract> res = new ArrayList<>();
+		for (Contract c : contracts) {
+			if (c.isInForceOn(date)) res.add(c);
+		}
+		return res;
+	}
+
+	@Benchmark
+	public List<Contract> perMechanic() {
+		LocalDate date = nextDay();
+		List<Contract> res = new ArrayList<>();
+		for (Mechanic m : staff) {
+			m.getContractInForceOn(date).ifPresent(res::add);
+		}
+		return res;
+	}
+
+	@Benchmark
+	public List<Contract> index() {
+		return index.findInForceOn(nextDay());
+	}
+
+	private LocalDate nextDay() {
+		day = (day + 1) % 366;
+		return FIRST_DAY.plusDays(day);
+	}
+
+}
@@ -0,0 +1,95 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Hash sets of the work orders of a fleet vehicle and of the interventions
+ * of a mechanic, as Vehicle.workOrders and Mechanic.interventions: adding
+ * N of them to a new set and looking all of them up. The time is per set,
+ * divide by N for the time per element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityHashBenchmark {
+
+	@Param({ "1000", "100000" })
+	private int elements;
+
+	private List<WorkOrder> workOrders;
+	private List<Intervention> interventions;
+	private Set<WorkOrder> workOrderSet;
+	private Set<Intervention> interventionSet;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		Fixtures fixtures = new Fixtures();
+		Vehicle fleetVehicle = fixtures.newVehicle();
+		Mechanic mechanic = fixtures.newMechanic();
+		workOrders = new ArrayList<>(elements);
+		interventions = new ArrayList<>(elements);
+		for (int i = 0; i < elements; i++) {
+			WorkOrder wo = new WorkOrder(fleetVehicle, fixtures.nextDate(),
+					"description");
+			workOrders.add(wo);
+			interventions.add(
+					new Intervention(fixtures.nextDate(), 30, wo, mechanic));
+		}
+		workOrderSet = new HashSet<>(workOrders);
+		interventionSet = new HashSet<>(interventions);
+	}
+
+	@Benchmark
+	public Set<WorkOrder> addWorkOrders() {
+		return new HashSet<>(workOrders);
+	}
+
+	@Benchmark
+	public int containsWorkOrders() {
+		int found = 0;
+		for (WorkOrder wo : workOrders) {
+			if (workOrderSet.contains(wo)) found++;
+		}
+		return found;
+	}
+
+	@Benchmark
+	public Set<Intervention> addInterventions() {
+		return new HashSet<>(interventions);
+	}
+
+	@Benchmark
+	public int containsInterventions() {
+		int found = 0;
+		for (Intervention i : interventions) {
+			if (interventionSet.contains(i)) found++;
+		}
+		return found;
+	}
+
+}
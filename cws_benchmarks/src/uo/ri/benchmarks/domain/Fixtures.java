@@ -0,0 +1,73 @@
+package uo.ri.benchmarks.domain;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.SparePart;
+import uo.ri.cws.domain.Substitution;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Builds the object graphs the benchmarks work on. Every work order gets
+ * its own vehicle and every intervention its own timestamp, as both are
+ * part of their identity
+ */
+class Fixtures {
+
+	private static final LocalDateTime BASE_DATE =
+			LocalDateTime.of(2024, 1, 1, 8, 0);
+
+	private final VehicleType vehicleType = new VehicleType("car", 50.0);
+	private final SparePart sparePart =
+			new SparePart("R1001", "spare part", 12.35, 1000, 10, 2000);
+	private long sequence = 0;
+
+	Vehicle newVehicle() {
+		long n = sequence++;
+		Vehicle vehicle = new Vehicle("P-" + n, "make", "model");
+		Associations.Classifies.link(vehicleType, vehicle);
+		return vehicle;
+	}
+
+	Mechanic newMechanic() {
+		return new Mechanic("nif-" + sequence++, "surname", "name");
+	}
+
+	WorkOrder newWorkOrder() {
+		return new WorkOrder(newVehicle(), nextDate(), "description");
+	}
+
+	/**
+	 * @return a work order ASSIGNED to the mechanic with one intervention,
+	 * 	which in turn has one substitution
+	 */
+	WorkOrder newAssignedWorkOrder(Mechanic mechanic) {
+		WorkOrder wo = newWorkOrder();
+		wo.assignTo(mechanic);
+		Intervention i = new Intervention(nextDate(), 60, wo, mechanic);
+		new Substitution(sparePart, i, 2);
+		return wo;
+	}
+
+	List<WorkOrder> newFinishedWorkOrders(int qty) {
+		Mechanic mechanic = newMechanic();
+		List<WorkOrder> res = new ArrayList<>(qty);
+		for (int i = 0; i < qty; i++) {
+			WorkOrder wo = newAssignedWorkOrder(mechanic);
+			wo.markAsFinished();
+			res.add(wo);
+		}
+		return res;
+	}
+
+	LocalDateTime nextDate() {
+		return BASE_DATE.plusSeconds(sequence++);
+	}
+
+}
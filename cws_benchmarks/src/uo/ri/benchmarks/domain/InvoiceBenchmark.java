@@ -0,0 +1,69 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Invoice;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Invoice construction with N finished work orders. The work orders get
+ * invoiced by the constructor, so a fresh batch is built before every
+ * invocation (out of the measurement)
+ *
+ * The constructor bills the whole batch through addWorkOrders, compared
+ * with adding the work orders one by one
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InvoiceBenchmark {
+
+	@Param({ "10", "100", "1000", "5000" })
+	private int workOrders;
+
+	private Fixtures fixtures;
+	private List<WorkOrder> finished;
+	private long number = 0;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		fixtures = new Fixtures();
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpInvocation() {
+		finished = fixtures.newFinishedWorkOrders(workOrders);
+	}
+
+	@Benchmark
+	public Invoice newInvoice() {
+		return new Invoice(number++, finished);
+	}
+
+	@Benchmark
+	public Invoice addWorkOrderOneByOne() {
+		Invoice invoice = new Invoice(number++);
+		for (WorkOrder wo : finished) {
+			invoice.addWorkOrder(wo);
+		}
+		return invoice;
+	}
+
+}
@@ -0,0 +1,96 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.NaturalKeyIndex;
+import uo.ri.cws.domain.Vehicle;
+
+/**
+ * Finding a vehicle by plate number among N. The lookup does not depend
+ * on N, but once the table does not fit in the CPU caches every lookup
+ * misses them a few times: expect a step from 1K to 1M vehicles and about
+ * the same time from 1M to 10M.
+ *
+ * stored looks up the plates as they were registered, typed looks them up
+ * written as at the counter (lower case, with a blank instead of the
+ * hyphen); both are normalized on every lookup. The 10M case needs about
+ * 3 GB of heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class NaturalKeyIndexBenchmark {
+
+	private static final int QUERIES = 1 << 16;
+
+	@Param({ "1000", "1000000", "10000000" })
+	private int vehicles;
+
+	private NaturalKeyIndex<String, Vehicle> index;
+	private String[] stored;
+	private String[] typed;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		index = NaturalKeyIndex.ofVehicles(vehicles);
+		for (int i = 0; i < vehicles; i++) {
+			index.register(new Vehicle(plate(i), "make", "model"));
+		}
+
+		Random random = new Random(42);
+		stored = new String[QUERIES];
+		typed = new String[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			String plate = plate(random.nextInt(vehicles));
+			stored[i] = plate;
+			typed[i] = plate.toLowerCase().replace('-', ' ');
+		}
+	}
+
+	@Benchmark
+	public Vehicle stored() {
+		return index.find(stored[nextQuery()]).get();
+	}
+
+	@Benchmark
+	public Vehicle typed() {
+		return index.find(typed[nextQuery()]).get();
+	}
+
+	private int nextQuery() {
+		next = (next + 1) & (QUERIES - 1);
+		return next;
+	}
+
+	/*
+	 * Spanish plates: four digits and three letters, e.g. 0042-BCD
+	 */
+	private static String plate(int n) {
+		char[] letters = new char[3];
+		int rest = n / 10_000;
+		for (int i = 2; i >= 0; i--) {
+			letters[i] = (char) ('A' + rest % 26);
+			rest /= 26;
+		}
+		return String.format("%04d-%s", n % 10_000, new String(letters));
+	}
+
+}
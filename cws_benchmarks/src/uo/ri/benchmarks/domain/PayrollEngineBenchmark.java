@@ -0,0 +1,109 @@
+package uo.ri.benchmarks.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Contract;
+import uo.ri.cws.domain.ContractType;
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Invoice;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.Payroll;
+import uo.ri.cws.domain.PayrollEngine;
+import uo.ri.cws.domain.ProfessionalGroup;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Month-end payroll run for N mechanics, each with a career of MONTHS
+ * months and an invoiced work order per month. perContract builds every
+ * payroll with new Payroll(contract, date), which walks all the
+ * interventions of the mechanic; engine reads the monthly work of the
+ * mechanic and splits the contracts among the threads of the common pool.
+ * The payrolls are unlinked after every run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class PayrollEngineBenchmark {
+
+	private static final int MONTHS = 60;
+	private static final LocalDateTime START =
+			LocalDateTime.of(2019, 1, 7, 9, 0);
+	private static final LocalDate PAYROLL_DATE =
+			START.plusMonths(MONTHS - 1).toLocalDate();
+
+	@Param({ "1000", "4000" })
+	private int mechanics;
+
+	private PayrollEngine engine = new PayrollEngine();
+	private List<Contract> contracts;
+	private List<Payroll> generated;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		Fixtures fixtures = new Fixtures();
+		ContractType type = new ContractType("INDEFINITE", 20);
+		ProfessionalGroup group = new ProfessionalGroup("oficial", 30.0, 0.05);
+		contracts = new ArrayList<>(mechanics);
+		long invoiceNumber = 1;
+		for (int m = 0; m < mechanics; m++) {
+			Mechanic mechanic = fixtures.newMechanic();
+			Vehicle vehicle = fixtures.newVehicle();
+			contracts.add(new Contract(mechanic, type, group,
+					START.toLocalDate(), 30_000));
+			for (int month = 0; month < MONTHS; month++) {
+				LocalDateTime date = START.plusMonths(month);
+				WorkOrder wo = new WorkOrder(vehicle, date, "description");
+				wo.assignTo(mechanic);
+				new Intervention(date, 60, wo, mechanic);
+				wo.markAsFinished();
+				new Invoice(invoiceNumber++, date.toLocalDate(), List.of(wo));
+			}
+		}
+	}
+
+	@TearDown(Level.Invocation)
+	public void unlinkPayrolls() {
+		for (Payroll p : generated) {
+			Associations.Runs.unlink(p.getContract(), p);
+		}
+	}
+
+	@Benchmark
+	public List<Payroll> perContract() {
+		generated = new ArrayList<>(contracts.size());
+		for (Contract c : contracts) {
+			generated.add(new Payroll(c, PAYROLL_DATE));
+		}
+		return generated;
+	}
+
+	@Benchmark
+	public List<Payroll> engine() {
+		generated = engine.generate(contracts, PAYROLL_DATE);
+		return generated;
+	}
+
+}
@@ -0,0 +1,82 @@
+package uo.ri.benchmarks.domain;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.SettlementCalculator;
+import uo.ri.util.math.Cents;
+
+/**
+ * Settlement audit of N contracts of up to twenty years, given as columns
+ * of primitives. localDates builds the dates of every contract and counts
+ * the months with ChronoUnit, as Contract.terminate does; calculator is
+ * SettlementCalculator.settle over the same columns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SettlementCalculatorBenchmark {
+
+	private static final int FIRST_DAY = (int) LocalDate.of(2000, 1, 1)
+			.toEpochDay();
+
+	@Param({ "100000", "1000000" })
+	private int contracts;
+
+	private SettlementCalculator calculator = new SettlementCalculator();
+	private int[] starts;
+	private int[] ends;
+	private double[] salaries;
+	private double[] days;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		Random random = new Random(42);
+		starts = new int[contracts];
+		ends = new int[contracts];
+		salaries = new double[contracts];
+		days = new double[contracts];
+		for (int i = 0; i < contracts; i++) {
+			starts[i] = FIRST_DAY + random.nextInt(3_650);
+			ends[i] = starts[i] + random.nextInt(7_300);
+			salaries[i] = 15_000 + random.nextInt(40_000);
+			days[i] = 20 + random.nextInt(14);
+		}
+	}
+
+	@Benchmark
+	public long[] localDates() {
+		long[] res = new long[contracts];
+		for (int i = 0; i < contracts; i++) {
+			LocalDate start = LocalDate.ofEpochDay(starts[i]);
+			LocalDate end = LocalDate.ofEpochDay(ends[i]);
+			long years = ChronoUnit.MONTHS.between(start, end.plusDays(1)) / 12;
+			res[i] = Cents.of(years * salaries[i] / 365 * days[i]);
+		}
+		return res;
+	}
+
+	@Benchmark
+	public long[] calculator() {
+		return calculator.settle(starts, ends, salaries, days);
+	}
+
+}
@@ -0,0 +1,83 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Charge;
+import uo.ri.cws.domain.Invoice;
+import uo.ri.cws.domain.Voucher;
+import uo.ri.cws.domain.WorkOrder;
+import uo.ri.util.math.Cents;
+
+/**
+ * End-of-day settlement run: N invoices, each paid with CHARGES vouchers,
+ * settled one by one or as a batch with Invoice.settleAll, which splits
+ * them among the threads of the common fork-join pool
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SettlementRunBenchmark {
+
+	private static final int CHARGES = 20;
+
+	@Param({ "100", "10000" })
+	private int invoices;
+
+	private Fixtures fixtures;
+	private List<Invoice> charged;
+	private long number = 0;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		fixtures = new Fixtures();
+	}
+
+	@Setup(Level.Invocation)
+	public void setUpInvocation() {
+		Voucher[] vouchers = new Voucher[CHARGES];
+		for (int i = 0; i < CHARGES; i++) {
+			vouchers[i] = new Voucher("V-" + i, "fleet", 1e12);
+		}
+		charged = new ArrayList<>(invoices);
+		for (WorkOrder wo : fixtures.newFinishedWorkOrders(invoices)) {
+			Invoice invoice = new Invoice(number++, List.of(wo));
+			long amount = Cents.of(invoice.getAmount()) / CHARGES + 1;
+			for (Voucher voucher : vouchers) {
+				new Charge(invoice, voucher, Cents.toDouble(amount));
+			}
+			charged.add(invoice);
+		}
+	}
+
+	@Benchmark
+	public List<Invoice> settleOneByOne() {
+		for (Invoice invoice : charged) {
+			invoice.settle();
+		}
+		return charged;
+	}
+
+	@Benchmark
+	public List<Invoice> settleAll() {
+		return Invoice.settleAll(charged);
+	}
+
+}
@@ -0,0 +1,105 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.SparePart;
+import uo.ri.cws.domain.SparePartCatalogue;
+
+/**
+ * Looking up spare parts by code in a catalogue of N parts, against a
+ * HashMap keyed by code, and the cost of a reload. Every invocation looks
+ * up the next code of a shuffled list, so lookups miss the CPU caches as
+ * they would at the counter.
+ *
+ * The memory taken by the catalogue is the allocation of a reload: run
+ * with -prof gc and read gc.alloc.rate.norm of reload (bytes per reload)
+ * and hashMap (bytes to build the map, for comparison)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Thread)
+public class SparePartCatalogueBenchmark {
+
+	@Param({ "100000", "2000000" })
+	private int parts;
+
+	private List<SparePart> all;
+	private String[] codes;
+	private SparePartCatalogue catalogue;
+	private Map<String, SparePart> map;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		all = new ArrayList<>(parts);
+		codes = new String[parts];
+		map = new HashMap<>();
+		for (int i = 0; i < parts; i++) {
+			String code = String.format("R%07d", i);
+			SparePart part = new SparePart(code, "spare part " + i, 1.0);
+			all.add(part);
+			codes[i] = code;
+			map.put(code, part);
+		}
+		Collections.shuffle(Arrays.asList(codes), new Random(42));
+		catalogue = new SparePartCatalogue();
+		catalogue.reload(all);
+	}
+
+	@Benchmark
+	public SparePart catalogue() {
+		return catalogue.findByCode(nextCode()).get();
+	}
+
+	@Benchmark
+	public SparePart map() {
+		return map.get(nextCode());
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public SparePartCatalogue reload() {
+		catalogue.reload(all);
+		return catalogue;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Map<String, SparePart> hashMap() {
+		Map<String, SparePart> res = new HashMap<>();
+		for (SparePart part : all) {
+			res.put(part.getCode(), part);
+		}
+		return res;
+	}
+
+	private String nextCode() {
+		String code = codes[next];
+		next = (next + 1) % codes.length;
+		return code;
+	}
+
+}
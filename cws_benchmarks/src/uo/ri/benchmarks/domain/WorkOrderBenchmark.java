@@ -0,0 +1,67 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * WorkOrder state transitions: every invocation runs a whole
+ * assign, finish (computing the amount) and reopen cycle over a work order
+ * with a given number of interventions
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorkOrderBenchmark {
+
+	@Param({ "1", "100", "1000" })
+	private int interventions;
+
+	private WorkOrder workOrder;
+	private Mechanic mechanic;
+
+	@Setup
+	public void setUp() {
+		Fixtures fixtures = new Fixtures();
+		mechanic = fixtures.newMechanic();
+		workOrder = fixtures.newAssignedWorkOrder(mechanic);
+		for (int i = 1; i < interventions; i++) {
+			new Intervention(fixtures.nextDate(), 30, workOrder, mechanic);
+		}
+		workOrder.markAsFinished();
+		workOrder.reopen();
+	}
+
+	@Benchmark
+	public double assignFinishReopen() {
+		workOrder.assignTo(mechanic);
+		workOrder.markAsFinished();
+		workOrder.reopen();
+		return workOrder.getAmount();
+	}
+
+	@Benchmark
+	public WorkOrder assignUnassign() {
+		workOrder.assignTo(mechanic);
+		workOrder.unassign();
+		return workOrder;
+	}
+
+}
@@ -0,0 +1,101 @@
+package uo.ri.benchmarks.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.WorkOrder;
+import uo.ri.cws.domain.WorkloadIndex;
+
+/**
+ * The dispatcher picking a mechanic for a new work order among N, each
+ * with a few work orders and interventions. The work order assigned is
+ * unassigned afterwards, so every invocation sees the same workloads.
+ *
+ * scan is the way with no index: walk every mechanic comparing the size
+ * of a copy of its assigned set and the minutes of a copy of its
+ * interventions
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorkloadIndexBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	private int mechanics;
+
+	private Fixtures fixtures;
+	private List<Mechanic> all;
+	private WorkloadIndex index;
+	private WorkOrder workOrder;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		fixtures = new Fixtures();
+		Random random = new Random(42);
+		all = new ArrayList<>(mechanics);
+		index = new WorkloadIndex();
+		for (int i = 0; i < mechanics; i++) {
+			Mechanic mechanic = fixtures.newMechanic();
+			for (int j = random.nextInt(4); j > 0; j--) {
+				WorkOrder wo = fixtures.newWorkOrder();
+				wo.assignTo(mechanic);
+				new Intervention(fixtures.nextDate(), 1 + random.nextInt(120),
+						wo, mechanic);
+			}
+			all.add(mechanic);
+			index.register(mechanic);
+		}
+		workOrder = fixtures.newWorkOrder();
+	}
+
+	@Benchmark
+	public Mechanic index() {
+		Mechanic mechanic = index.assign(workOrder);
+		workOrder.unassign();
+		return mechanic;
+	}
+
+	@Benchmark
+	public Mechanic scan() {
+		Mechanic least = null;
+		int leastAssigned = Integer.MAX_VALUE;
+		long leastMinutes = Long.MAX_VALUE;
+		for (Mechanic mechanic : all) {
+			int assigned = mechanic.getAssigned().size();
+			long minutes = 0;
+			for (Intervention i : mechanic.getInterventions()) {
+				minutes += i.getMinutes();
+			}
+			if (assigned < leastAssigned
+					|| (assigned == leastAssigned && minutes < leastMinutes)) {
+				least = mechanic;
+				leastAssigned = assigned;
+				leastMinutes = minutes;
+			}
+		}
+		workOrder.assignTo(least);
+		workOrder.unassign();
+		return least;
+	}
+
+}
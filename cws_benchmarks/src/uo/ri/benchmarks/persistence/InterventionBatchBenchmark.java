@@ -0,0 +1,126 @@
+package uo.ri.benchmarks.persistence;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.SparePart;
+import uo.ri.cws.domain.Substitution;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.WorkOrder;
+import uo.ri.cws.infrastructure.persistence.jpa.util.BatchWriter;
+
+/**
+ * Writes 1M interventions, with a substitution each, through BatchWriter
+ * into the in-memory database of the persistence unit.
+ *
+ * Every invocation writes a shift: a work order of a new vehicle with
+ * SHIFT interventions of a new mechanic, in its own transaction. Nothing
+ * is shared among shifts, so the domain collections do not keep the
+ * written graphs alive. The measurement runs SHIFTS of them.
+ *
+ * The score is the time to write the 1M interventions; the rows per
+ * second (every table) are printed at the end of each iteration. Compare
+ * a JDBC batch of 1 row (a round trip per row) with the configured one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, batchSize = InterventionBatchBenchmark.SHIFTS / 10)
+@Measurement(iterations = 1, batchSize = InterventionBatchBenchmark.SHIFTS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class InterventionBatchBenchmark {
+
+	static final int SHIFT = 1_000;
+	static final int SHIFTS = 1_000;
+
+	private static final LocalDateTime BASE_DATE =
+			LocalDateTime.of(2024, 1, 1, 8, 0);
+
+	@Param({ "1", "50" })
+	private int jdbcBatchSize;
+
+	private EntityManagerFactory emf;
+	private EntityManager em;
+	private long sequence = 0;
+	private long rows;
+	private long start;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		emf = Persistence.createEntityManagerFactory("carworkshop",
+				Map.of(BatchWriter.BATCH_SIZE, String.valueOf(jdbcBatchSize)));
+		em = emf.createEntityManager();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		em.close();
+		emf.close();
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		rows = 0;
+		start = System.nanoTime();
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%n%,d rows in %.1f s, %,.0f rows/s%n",
+				rows, seconds, rows / seconds);
+	}
+
+	@Benchmark
+	public void writeShift() {
+		BatchWriter writer = new BatchWriter(em);
+		long n = sequence++;
+
+		em.getTransaction().begin();
+		VehicleType vehicleType = new VehicleType("type-" + n, 50.0);
+		Vehicle vehicle = new Vehicle("P-" + n, "make", "model");
+		Associations.Classifies.link(vehicleType, vehicle);
+		Mechanic mechanic = new Mechanic("nif-" + n, "surname", "name");
+		SparePart sparePart = new SparePart("R-" + n, "spare part", 12.35);
+		WorkOrder workOrder = new WorkOrder(vehicle, BASE_DATE, "shift " + n);
+		writer.persist(vehicleType);
+		writer.persist(vehicle);
+		writer.persist(mechanic);
+		writer.persist(sparePart);
+		writer.persist(workOrder);
+
+		for (int i = 0; i < SHIFT; i++) {
+			Intervention intervention = new Intervention(
+					BASE_DATE.plusMinutes(i), 30, workOrder, mechanic);
+			writer.persist(intervention);
+			writer.persist(new Substitution(sparePart, intervention, 1));
+		}
+		writer.flush();
+		em.getTransaction().commit();
+
+		rows += 5 + 2 * SHIFT;
+	}
+
+}
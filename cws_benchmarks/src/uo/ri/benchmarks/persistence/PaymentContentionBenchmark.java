@@ -0,0 +1,145 @@
+package uo.ri.benchmarks.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import uo.ri.cws.domain.Voucher;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+import uo.ri.cws.infrastructure.persistence.jpa.util.OptimisticRetry;
+import uo.ri.util.exception.BusinessException;
+
+/**
+ * Several clerks charging the same few vouchers at the same time, each
+ * charge in a transaction of its own.
+ *
+ * Optimistic: the voucher is read with no lock and the update checks its
+ * version, the charges that lose a conflict are run again by
+ * OptimisticRetry. Pessimistic: the voucher row is locked for update when
+ * read, so the other clerks wait for the commit.
+ *
+ * hotRows is the number of vouchers charged: with one every charge
+ * contends, with many the conflicts are rare. The conflicts retried and
+ * the charges given up are printed at the end of each iteration.
+ *
+ * HSQLDB does not lock the rows read for update, build the benchmarks with
+ * the h2 profile (mvn package -Ph2) to compare both.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PaymentContentionBenchmark {
+
+	private static final double AVAILABLE = 1_000_000_000.0;
+	private static final int ATTEMPTS = 10;
+
+	@Param({ "1", "64" })
+	private int hotRows;
+
+	@Param({ "optimistic", "pessimistic" })
+	private String locking;
+
+	private List<Long> ids = new ArrayList<>();
+	private LongAdder retried = new LongAdder();
+	private LongAdder givenUp = new LongAdder();
+
+	@State(Scope.Thread)
+	public static class Clerk {
+		private OptimisticRetry retry = new OptimisticRetry(ATTEMPTS);
+	}
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		EntityManager em = Jpa.createEntityManager();
+		em.getTransaction().begin();
+		em.createQuery("delete from PaymentMean").executeUpdate();
+		List<Voucher> vouchers = new ArrayList<>();
+		for (int i = 0; i < hotRows; i++) {
+			Voucher voucher = new Voucher("V-" + i, "voucher", AVAILABLE);
+			em.persist(voucher);
+			vouchers.add(voucher);
+		}
+		em.getTransaction().commit();
+		em.close();
+		ids.clear();
+		vouchers.forEach(v -> ids.add(v.getId()));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		Jpa.close();
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		retried.reset();
+		givenUp.reset();
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDownIteration() {
+		System.out.printf("%n%,d conflicts retried, %,d charges given up%n",
+				retried.sum(), givenUp.sum());
+	}
+
+	@Benchmark
+	public void charge(Clerk clerk) {
+		Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+		if ("optimistic".equals(locking)) {
+			chargeOptimistic(clerk.retry, id);
+		} else {
+			chargePessimistic(id);
+		}
+	}
+
+	private void chargeOptimistic(OptimisticRetry retry, Long id) {
+		try {
+			retry.execute(() -> {
+				Jpa.getManager().find(Voucher.class, id).pay(0.01);
+				return null;
+			});
+		} catch (BusinessException e) {
+			givenUp.increment();
+		}
+		retried.add(retry.getAttempts() - 1);
+	}
+
+	private void chargePessimistic(Long id) {
+		EntityManager em = Jpa.createEntityManager();
+		try {
+			em.getTransaction().begin();
+			em.find(Voucher.class, id, LockModeType.PESSIMISTIC_WRITE)
+					.pay(0.01);
+			em.getTransaction().commit();
+		} finally {
+			if (em.getTransaction().isActive()) {
+				em.getTransaction().rollback();
+			}
+			em.close();
+		}
+	}
+
+}
@@ -0,0 +1,89 @@
+package uo.ri.benchmarks.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uo.ri.util.math.Cents;
+import uo.ri.util.math.Rounds;
+
+/**
+ * Compares rounding and adding amounts as doubles through Rounds.toCents,
+ * which allocates a BigDecimal per call, with the long cents of Cents.
+ *
+ * Run with -prof gc to compare the allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+	private static final int SIZE = 1024;
+	private static final double VAT = 21.0;
+
+	private double[] amounts = new double[SIZE];
+	private long[] cents = new long[SIZE];
+
+	@Setup
+	public void setUp() {
+		Random rnd = new Random(42);
+		for (int i = 0; i < SIZE; i++) {
+			amounts[i] = rnd.nextInt(1_000_000) / 1000.0;
+			cents[i] = Cents.of(amounts[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public void roundsToCents(Blackhole bh) {
+		for (double amount : amounts) {
+			bh.consume(Rounds.toCents(amount));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public void centsOf(Blackhole bh) {
+		for (double amount : amounts) {
+			bh.consume(Cents.of(amount));
+		}
+	}
+
+	/**
+	 * An invoice total as the billing does with doubles: every line rounded,
+	 * then the vat added and the total rounded again
+	 */
+	@Benchmark
+	public double invoiceTotalWithRounds() {
+		double total = 0.0;
+		for (double amount : amounts) {
+			total += Rounds.toCents(amount);
+		}
+		return Rounds.toCents(total * (1 + VAT / 100));
+	}
+
+	@Benchmark
+	public long invoiceTotalWithCents() {
+		long total = Cents.ZERO;
+		for (long amount : cents) {
+			total += amount;
+		}
+		return total + Cents.percentage(total, VAT);
+	}
+
+}
@@ -0,0 +1,67 @@
+package uo.ri.benchmarks.util;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+import uo.ri.util.date.Dates;
+import uo.ri.util.math.Rounds;
+
+/**
+ * The uo.ri.util helpers used on every domain operation
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UtilBenchmark {
+
+	private String description = "falla la junta la trocla";
+	private Object mechanic = new Object();
+	private double amount = 1234.5678;
+	private LocalDate date = LocalDate.of(2024, 2, 10);
+
+	@Benchmark
+	public String argumentChecks() {
+		ArgumentChecks.isNotNull(mechanic, "Invalid null mechanic");
+		ArgumentChecks.isNotBlank(description, "Invalid description");
+		ArgumentChecks.isTrue(amount >= 0, "Invalid negative amount");
+		return description;
+	}
+
+	@Benchmark
+	public Object stateChecks() {
+		StateChecks.isNotNull(mechanic, "Must be not null");
+		StateChecks.isTrue(amount >= 0, "Must be true");
+		return mechanic;
+	}
+
+	@Benchmark
+	public double roundsToTenths() {
+		return Rounds.toTenths(amount);
+	}
+
+	@Benchmark
+	public double roundsToMilis() {
+		return Rounds.toMilis(amount);
+	}
+
+	@Benchmark
+	public LocalDate lastDayOfMonth() {
+		return Dates.lastDayOfMonth(date);
+	}
+
+}
@@ -0,0 +1,49 @@
+package uo.ri.cws.application.repository;
+
+/**
+ * The part of the object graph a finder loads along with the entities, so
+ * a use case can navigate it without issuing a query per object.
+ *
+ * Not every plan makes sense for every entity, see the finders of each
+ * repository for the ones it accepts
+ */
+public enum FetchPlan {
+
+	/**
+	 * Work orders: the interventions and their mechanics
+	 * Mechanics: the interventions and their work orders
+	 */
+	WITH_INTERVENTIONS("withInterventions"),
+
+	/**
+	 * Work orders: the interventions, their substitutions and the
+	 * spare parts substituted
+	 */
+	WITH_SUBSTITUTIONS_AND_PARTS("withSubstitutionsAndParts"),
+
+	/**
+	 * Invoices: the work orders invoiced
+	 */
+	WITH_WORK_ORDERS("withWorkOrders"),
+
+	/**
+	 * Invoices: the charges and their payment means
+	 */
+	WITH_CHARGES("withCharges"),
+
+	/**
+	 * Mechanics: the work orders assigned
+	 */
+	WITH_ASSIGNED("withAssigned");
+
+	private final String name;
+
+	FetchPlan(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+}
@@ -0,0 +1,19 @@
+package uo.ri.cws.application.repository;
+
+import java.util.Optional;
+
+import uo.ri.cws.domain.Invoice;
+
+/**
+ * Accepts the plans WITH_WORK_ORDERS and WITH_CHARGES
+ */
+public interface InvoiceRepository extends Repository<Invoice> {
+
+	Optional<Invoice> findByNumber(Long number);
+
+	/**
+	 * @return the invoice with the associations of the plan already loaded
+	 */
+	Optional<Invoice> findByNumber(Long number, FetchPlan plan);
+
+}
@@ -0,0 +1,19 @@
+package uo.ri.cws.application.repository;
+
+import java.util.Optional;
+
+import uo.ri.cws.domain.Mechanic;
+
+/**
+ * Accepts the plans WITH_INTERVENTIONS and WITH_ASSIGNED
+ */
+public interface MechanicRepository extends Repository<Mechanic> {
+
+	Optional<Mechanic> findByNif(String nif);
+
+	/**
+	 * @return the mechanic with the associations of the plan already loaded
+	 */
+	Optional<Mechanic> findByNif(String nif, FetchPlan plan);
+
+}
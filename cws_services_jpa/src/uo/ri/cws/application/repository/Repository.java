@@ -0,0 +1,37 @@
+package uo.ri.cws.application.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Common operations of every repository
+ * @param <T> the entity type
+ */
+public interface Repository<T> {
+
+	/**
+	 * Makes the entity persistent
+	 */
+	void add(T t);
+
+	/**
+	 * Removes the entity from the persistent store
+	 */
+	void remove(T t);
+
+	/**
+	 * @return the entity, with just its attributes loaded, or empty if
+	 * 	there is no one with that id
+	 */
+	Optional<T> findById(Long id);
+
+	/**
+	 * @return the entity, with the associations of the plan already
+	 * 	loaded, or empty if there is no one with that id
+	 * @throws IllegalArgumentException if the entity has no such plan
+	 */
+	Optional<T> findById(Long id, FetchPlan plan);
+
+	List<T> findAll();
+
+}
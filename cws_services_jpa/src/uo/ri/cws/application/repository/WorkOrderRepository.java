@@ -0,0 +1,23 @@
+package uo.ri.cws.application.repository;
+
+import java.util.List;
+
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Accepts the plans WITH_INTERVENTIONS and WITH_SUBSTITUTIONS_AND_PARTS
+ */
+public interface WorkOrderRepository extends Repository<WorkOrder> {
+
+	/**
+	 * @return the work orders of the vehicle, might be empty
+	 */
+	List<WorkOrder> findByVehiclePlate(String plateNumber);
+
+	/**
+	 * @return the work orders of the vehicle with the associations of the
+	 * 	plan already loaded, all of them in a single query
+	 */
+	List<WorkOrder> findByVehiclePlate(String plateNumber, FetchPlan plan);
+
+}
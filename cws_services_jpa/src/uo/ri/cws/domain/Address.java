@@ -15,6 +15,8 @@ public class Address {
 	private String city;
 	private String zipCode;
 	
+	Address() {} // for JPA
+
 	public Address(String street, String city, String zipCode) {
 		super();
 		ArgumentChecks.isNotBlank(street, "Invalid street");
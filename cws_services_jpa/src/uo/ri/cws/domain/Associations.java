@@ -1,5 +1,10 @@
 package uo.ri.cws.domain;
 
+import java.time.YearMonth;
+
+import uo.ri.util.assertion.StateChecks;
+import uo.ri.util.math.Cents;
+
 public class Associations {
 
 	public static class Owns {
@@ -32,9 +37,13 @@ public class Associations {
 	public static class Holds {
 
 		public static void link(PaymentMean mean, Client client) {
+			mean._setClient(client);
+			client._getPaymentMeans().add(mean);
 		}
 
 		public static void unlink(Client client, PaymentMean mean) {
+			client._getPaymentMeans().remove(mean);
+			mean._setClient(null);
 		}
 	}
 
@@ -54,18 +63,30 @@ public class Associations {
 	public static class Bills {
 
 		public static void link(Invoice invoice, WorkOrder workOrder) {
+			workOrder._setInvoice(invoice);
+			invoice._getWorkOrders().add(workOrder);
 		}
 
 		public static void unlink(Invoice invoice, WorkOrder workOrder) {
+			invoice._getWorkOrders().remove(workOrder);
+			workOrder._setInvoice(null);
 		}
 	}
 
 	public static class Settles {
 
 		public static void link(Invoice invoice, Charge cargo, PaymentMean mp) {
+			cargo._setInvoice(invoice);
+			cargo._setPaymentMean(mp);
+			invoice._getCharges().add(cargo);
+			mp._getCharges().add(cargo);
 		}
 
 		public static void unlink(Charge cargo) {
+			cargo.getInvoice()._getCharges().remove(cargo);
+			cargo.getPaymentMean()._getCharges().remove(cargo);
+			cargo._setInvoice(null);
+			cargo._setPaymentMean(null);
 		}
 	}
 
@@ -73,11 +94,13 @@ public class Associations {
 
 		public static void link(Mechanic mechanic, WorkOrder workOrder) {
 			workOrder._setMechanic(mechanic);
-			mechanic._getWorkOrders().add(workOrder);
+			mechanic._getAssigned().add(workOrder);
+			mechanic._addToWorkload(1, 0);
 		}
 
 		public static void unlink(Mechanic mechanic, WorkOrder workOrder) {
-			mechanic._getWorkOrders().remove(workOrder);
+			mechanic._getAssigned().remove(workOrder);
+			mechanic._addToWorkload(-1, 0);
 			workOrder._setMechanic(null);
 		}
 	}
@@ -86,34 +109,141 @@ public class Associations {
 
 		public static void link(WorkOrder workOrder,
 				Intervention intervention, Mechanic mechanic) {
+			// a mechanic joining an invoiced work order is billed it too
+			boolean joins = workOrder.isInvoiced()
+					&& !workOrder.isWorkedOnBy(mechanic);
 			intervention._setWorkOrder(workOrder);
 			intervention._setMechanic(mechanic);
 			mechanic._getInterventions().add(intervention);
+			mechanic._addToWorkload(0, intervention.getMinutes());
+			mechanic._addToMonthlyWork(YearMonth.from(intervention.getDate()),
+					intervention.getMinutes(), 0);
 			workOrder._getInterventions().add(intervention);
+			workOrder._addToSubtotals(intervention.getMinutes(),
+					intervention.getSparePartsAmountInCents());
+			if (joins) {
+				workOrder.addToMonthlyWorkOf(mechanic,
+						Cents.of(workOrder.getAmount()));
+			}
 		}
 
 		public static void unlink(Intervention intervention) {
-			intervention.getMechanic()._getInterventions().remove(intervention);
-			intervention.getWorkOrder()._getInterventions().remove(intervention);
+			WorkOrder workOrder = intervention.getWorkOrder();
+			Mechanic mechanic = intervention.getMechanic();
+			mechanic._getInterventions().remove(intervention);
+			mechanic._addToWorkload(0, -intervention.getMinutes());
+			mechanic._addToMonthlyWork(YearMonth.from(intervention.getDate()),
+					-intervention.getMinutes(), 0);
+			workOrder._getInterventions().remove(intervention);
+			workOrder._addToSubtotals(-intervention.getMinutes(),
+					-intervention.getSparePartsAmountInCents());
+			if (workOrder.isInvoiced() && !workOrder.isWorkedOnBy(mechanic)) {
+				// it leaves the mechanics billed the invoiced work order
+				workOrder.addToMonthlyWorkOf(mechanic,
+						-Cents.of(workOrder.getAmount()));
+			}
 			intervention._setMechanic(null);
 			intervention._setWorkOrder(null);
 		}
 	}
 
+	/**
+	 * Substitutions of a spare part can be made from several threads at
+	 * once, as long as every intervention, with its work order, is used by
+	 * one thread at a time: the substitutions of the part are guarded by
+	 * the part, and its stock is atomic
+	 */
 	public static class Substitutes {
 
 		static void link(SparePart sparePart, Substitution substitution,
 				Intervention intervention) {
 			substitution._setIntervention(intervention);
 			substitution._setSparePart(sparePart);
-			sparePart._getSubstitutions().add(substitution);
+			// it would equal the one there, so it cannot take stock twice
+			StateChecks.isFalse(
+					intervention._getSubstitutions().contains(substitution),
+					"The spare part is already substituted in the intervention");
+			synchronized (sparePart) {
+				sparePart._getSubstitutions().add(substitution);
+			}
+			sparePart._takeFromStock(substitution.getQuantity());
 			intervention._getSubstitutions().add(substitution);
+
+			WorkOrder workOrder = intervention.getWorkOrder();
+			if (workOrder != null) {
+				workOrder._addToSubtotals(0, substitution.getAmountInCents());
+			}
 		}
 
 		public static void unlink(Substitution substitution) {
-			substitution.getSparePart()._getSubstitutions().remove(substitution);
-			substitution.getIntervention().getSubstitutions().remove(substitution);
-			
+			Intervention intervention = substitution.getIntervention();
+			SparePart sparePart = substitution.getSparePart();
+			synchronized (sparePart) {
+				sparePart._getSubstitutions().remove(substitution);
+			}
+			sparePart.addToStock(substitution.getQuantity());
+			intervention._getSubstitutions().remove(substitution);
+
+			WorkOrder workOrder = intervention.getWorkOrder();
+			if (workOrder != null) {
+				workOrder._addToSubtotals(0, -substitution.getAmountInCents());
+			}
+			substitution._setSparePart(null);
+			substitution._setIntervention(null);
+		}
+	}
+
+	public static class Hires {
+
+		public static void link(Mechanic mechanic, Contract contract) {
+			contract._setMechanic(mechanic);
+			mechanic._getContracts().add(contract);
+			mechanic._resetTimeline();
+		}
+
+		public static void unlink(Mechanic mechanic, Contract contract) {
+			mechanic._getContracts().remove(contract);
+			mechanic._resetTimeline();
+			contract._setMechanic(null);
+		}
+	}
+
+	public static class Groups {
+
+		public static void link(ProfessionalGroup group, Contract contract) {
+			contract._setProfessionalGroup(group);
+			group._getContracts().add(contract);
+		}
+
+		public static void unlink(ProfessionalGroup group, Contract contract) {
+			group._getContracts().remove(contract);
+			contract._setProfessionalGroup(null);
+		}
+	}
+
+	public static class Types {
+
+		public static void link(ContractType type, Contract contract) {
+			contract._setContractType(type);
+			type._getContracts().add(contract);
+		}
+
+		public static void unlink(ContractType type, Contract contract) {
+			type._getContracts().remove(contract);
+			contract._setContractType(null);
+		}
+	}
+
+	public static class Runs {
+
+		public static void link(Contract contract, Payroll payroll) {
+			payroll._setContract(contract);
+			contract._getPayrolls().add(payroll);
+		}
+
+		public static void unlink(Contract contract, Payroll payroll) {
+			contract._getPayrolls().remove(payroll);
+			payroll._setContract(null);
 		}
 	}
 
@@ -13,6 +13,8 @@ public class Cash extends PaymentMean {
 		return true;
 	}
 
+	Cash() {} // for JPA
+
 	public Cash(Client client) {
 		ArgumentChecks.isNotNull(client, "invalid null client");
 		Associations.Holds.link(this, client);
@@ -1,18 +1,39 @@
 package uo.ri.cws.domain;
 
-public class Charge {
+import java.util.Objects;
+
+import uo.ri.cws.domain.base.BaseEntity;
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+import uo.ri.util.math.Cents;
+
+public class Charge extends BaseEntity {
 	// natural attributes
-	private double amount = 0.0;
+	private long amount = Cents.ZERO; // in cents
 
 	// accidental attributes
 	private Invoice invoice;
 	private PaymentMean paymentMean;
 
+	Charge() {} // for JPA
+
+	/**
+	 * Charges the amount to the payment mean and links invoice, this and
+	 * payment mean
+	 * @throws IllegalArgumentException if the invoice or the payment mean
+	 * 	are null
+	 * @throws IllegalStateException if the payment mean cannot pay the
+	 * 	amount
+	 */
 	public Charge(Invoice invoice, PaymentMean paymentMean, double amount) {
-		this.amount = amount;
-		// store the amount
-		// increment the paymentMean accumulated -> paymentMean.pay( amount )
-		// link invoice, this and paymentMean
+		ArgumentChecks.isNotNull(invoice, "Invalid null invoice");
+		ArgumentChecks.isNotNull(paymentMean, "Invalid null payment mean");
+		StateChecks.isTrue(paymentMean.canPay(amount),
+				"The payment mean cannot pay the amount");
+
+		this.amount = Cents.of(amount);
+		paymentMean.pay(amount);
+		Associations.Settles.link(invoice, this, paymentMean);
 	}
 
 	/**
@@ -20,9 +41,58 @@ public class Charge {
 	 * @throws IllegalStateException if the invoice is already settled
 	 */
 	public void rewind() {
-		// asserts the invoice is not in PAID status
-		// decrements the payment mean accumulated ( paymentMean.pay( -amount) )
-		// unlinks invoice, this and paymentMean
+		StateChecks.isTrue(invoice.isNotSettled(),
+				"The invoice is already settled");
+
+		paymentMean.pay(-Cents.toDouble(amount));
+		Associations.Settles.unlink(this);
+	}
+
+	public double getAmount() {
+		return Cents.toDouble(amount);
+	}
+
+	long getAmountInCents() {
+		return amount;
+	}
+
+	public Invoice getInvoice() {
+		return invoice;
+	}
+
+	public PaymentMean getPaymentMean() {
+		return paymentMean;
+	}
+
+	void _setInvoice(Invoice invoice) {
+		this.invoice = invoice;
+	}
+
+	void _setPaymentMean(PaymentMean paymentMean) {
+		this.paymentMean = paymentMean;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(invoice, paymentMean);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Charge other = (Charge) obj;
+		return Objects.equals(invoice, other.invoice)
+				&& Objects.equals(paymentMean, other.paymentMean);
+	}
+
+	@Override
+	public String toString() {
+		return "Charge [amount=" + Cents.toString(amount) + "]";
 	}
 
 }
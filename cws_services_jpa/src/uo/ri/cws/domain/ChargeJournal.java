@@ -0,0 +1,112 @@
+package uo.ri.cws.domain;
+
+import java.util.Arrays;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+import uo.ri.util.math.Cents;
+
+/**
+ * Append-only record of the charges made by a payment batch, so the whole
+ * batch can be undone if it fails halfway:
+ *
+ * 	ChargeJournal journal = new ChargeJournal();
+ * 	try {
+ * 		... journal.charge(invoice, mean, amount) ...
+ * 	} catch (RuntimeException e) {
+ * 		journal.rollback();
+ * 		throw e;
+ * 	}
+ *
+ * The charges are kept in a plain array, growing by doubling, with no
+ * object per entry; the amounts stay in the charges, in cents, and the
+ * journal just keeps their running total.
+ */
+public class ChargeJournal {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Charge[] charges = new Charge[INITIAL_CAPACITY];
+	private int size = 0;
+	private long total = Cents.ZERO; // in cents
+
+	/**
+	 * Creates the charge, see Charge(...), and records it
+	 * @return the new charge
+	 */
+	public Charge charge(Invoice invoice, PaymentMean paymentMean,
+			double amount) {
+		Charge charge = new Charge(invoice, paymentMean, amount);
+		append(charge);
+		return charge;
+	}
+
+	/**
+	 * Records a charge already made
+	 */
+	public void append(Charge charge) {
+		ArgumentChecks.isNotNull(charge, "Invalid null charge");
+		if (size == charges.length) {
+			charges = Arrays.copyOf(charges, size * 2);
+		}
+		charges[size++] = charge;
+		total += charge.getAmountInCents();
+	}
+
+	/**
+	 * Rewinds every charge recorded, the last one first, and empties the
+	 * journal. Charges already rewound, e.g. by another journal that also
+	 * recorded them, are skipped. All the invoices are checked first, so
+	 * either all the charges are rewound or none is
+	 * @throws IllegalStateException if the invoice of any charge is
+	 * 	already settled
+	 */
+	public void rollback() {
+		for (int i = 0; i < size; i++) {
+			StateChecks.isTrue(isRewound(charges[i])
+					|| charges[i].getInvoice().isNotSettled(),
+					"The invoice is already settled");
+		}
+
+		for (int i = size - 1; i >= 0; i--) {
+			if (!isRewound(charges[i])) {
+				charges[i].rewind();
+			}
+			charges[i] = null;
+		}
+		size = 0;
+		total = Cents.ZERO;
+	}
+
+	/*
+	 * Rewinding unlinks the charge from its invoice
+	 */
+	private static boolean isRewound(Charge charge) {
+		return charge.getInvoice() == null;
+	}
+
+	/**
+	 * Forgets the charges recorded, they are kept, e.g. once the batch
+	 * succeeded
+	 */
+	public void clear() {
+		Arrays.fill(charges, 0, size, null);
+		size = 0;
+		total = Cents.ZERO;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the sum of the amounts of the charges recorded
+	 */
+	public double getTotal() {
+		return Cents.toDouble(total);
+	}
+
+}
@@ -1,12 +1,14 @@
 package uo.ri.cws.domain;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import uo.ri.cws.domain.base.BaseEntity;
 import uo.ri.util.assertion.ArgumentChecks;
 
-public class Client {
+public class Client extends BaseEntity {
 	
 	/*
 	 * Atributos naturales
@@ -22,7 +24,10 @@ public class Client {
 	 * Atributos accidentales
 	 */
 	private Set<Vehicle> vehicles = new HashSet<Vehicle>();
+	private Set<PaymentMean> paymentMeans = new HashSet<>();
 	
+	Client() {} // for JPA
+
 	public Client(String nif, String name, String surname, String email,
 			String phone, Address address) {
 		super();
@@ -96,9 +101,31 @@ public class Client {
 		return new HashSet<Vehicle>(vehicles);
 	}
 
+	/**
+	 * @return a read-only live view of the vehicles, no copy is made
+	 */
+	public Set<Vehicle> getVehiclesView() {
+		return Collections.unmodifiableSet(vehicles);
+	}
+
 	protected Set<Vehicle> _getVehicles() {
 		return vehicles;
 	}
 
+	public Set<PaymentMean> getPaymentMeans() {
+		return new HashSet<>(paymentMeans);
+	}
+
+	/**
+	 * @return a read-only live view of the payment means, no copy is made
+	 */
+	public Set<PaymentMean> getPaymentMeansView() {
+		return Collections.unmodifiableSet(paymentMeans);
+	}
+
+	Set<PaymentMean> _getPaymentMeans() {
+		return paymentMeans;
+	}
+
 }
 
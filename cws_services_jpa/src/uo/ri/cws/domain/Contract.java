@@ -0,0 +1,257 @@
+package uo.ri.cws.domain;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import uo.ri.cws.domain.base.VersionedEntity;
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+import uo.ri.util.math.Cents;
+
+public class Contract extends VersionedEntity {
+	public enum ContractState { IN_FORCE, TERMINATED }
+
+	private static final int MONTHS_IN_YEAR = 12;
+
+	// natural attributes
+	private LocalDate startDate; // first day of the month signed
+	private LocalDate endDate; // last day of its month, null if open ended
+	private long annualBaseSalary; // in cents
+	private long settlement = 0; // in cents, computed when terminated
+	private ContractState state = ContractState.IN_FORCE;
+
+	// accidental attributes
+	private Mechanic mechanic;
+	private ContractType contractType;
+	private ProfessionalGroup professionalGroup;
+	private Set<Payroll> payrolls = new HashSet<>();
+
+	Contract() {} // for JPA
+
+	public Contract(Mechanic mechanic, ContractType type,
+			ProfessionalGroup group, LocalDate signingDate,
+			double annualBaseSalary) {
+		this(mechanic, type, group, signingDate, null, annualBaseSalary);
+	}
+
+	/**
+	 * The contract starts the first day of the month it is signed and, if
+	 * it is FIXED_TERM, ends the last day of the month of the end date; the
+	 * end date is ignored for other types. If the mechanic has a contract in
+	 * force it is terminated the month before this one starts, so the
+	 * contracts of a mechanic never overlap
+	 * @throws IllegalArgumentException if any argument is null (but the end
+	 * 	date of a non FIXED_TERM contract), the salary is negative, the end
+	 * 	date is before the signing date or the contract does not start after
+	 * 	the other contracts of the mechanic
+	 */
+	public Contract(Mechanic mechanic, ContractType type,
+			ProfessionalGroup group, LocalDate signingDate, LocalDate endDate,
+			double annualBaseSalary) {
+		ArgumentChecks.isNotNull(mechanic, "Invalid null mechanic");
+		ArgumentChecks.isNotNull(type, "Invalid null contract type");
+		ArgumentChecks.isNotNull(group, "Invalid null professional group");
+		ArgumentChecks.isNotNull(signingDate, "Invalid null signing date");
+		ArgumentChecks.isTrue(annualBaseSalary >= 0,
+				"Invalid negative salary");
+		if (type.isFixedTerm()) {
+			ArgumentChecks.isNotNull(endDate,
+					"A fixed term contract needs an end date");
+			ArgumentChecks.isFalse(endDate.isBefore(signingDate),
+					"The end date cannot be before the signing date");
+			this.endDate = endDate.with(TemporalAdjusters.lastDayOfMonth());
+		}
+		this.startDate = signingDate.with(TemporalAdjusters.firstDayOfMonth());
+		for (Contract c : mechanic.getContractsView()) {
+			ArgumentChecks.isTrue(startDate.isAfter(c.isInForce()
+						? c.startDate
+						: c.endDate),
+					"The contract overlaps another of the mechanic");
+		}
+		this.annualBaseSalary = Cents.of(annualBaseSalary);
+
+		mechanic.getContractInForce().ifPresent(this::replace);
+		Associations.Hires.link(mechanic, this);
+		Associations.Groups.link(group, this);
+		Associations.Types.link(type, this);
+	}
+
+	private void replace(Contract previous) {
+		previous.terminate(startDate.minusDays(1));
+	}
+
+	/**
+	 * Terminates the contract the last day of the month of the date, and
+	 * computes the settlement: the compensation days of its type for every
+	 * full year of service, at the daily gross salary of the last twelve
+	 * payrolls
+	 * @throws IllegalArgumentException if the date is null or before the
+	 * 	start of the contract
+	 * @throws IllegalStateException if it is already terminated
+	 */
+	public void terminate(LocalDate endDate) {
+		ArgumentChecks.isNotNull(endDate, "Invalid null end date");
+		ArgumentChecks.isFalse(endDate.isBefore(startDate),
+				"The end date cannot be before the start date");
+		StateChecks.isTrue(isInForce(), "The contract is already terminated");
+
+		this.endDate = endDate.with(TemporalAdjusters.lastDayOfMonth());
+		this.settlement = computeSettlement();
+		this.state = ContractState.TERMINATED;
+	}
+
+	private long computeSettlement() {
+		long months = ChronoUnit.MONTHS.between(startDate, endDate.plusDays(1));
+		return SettlementCalculator.settlement(months,
+				getLastAnnualGrossSalary(),
+				contractType.getCompensationDaysPerYear());
+	}
+
+	/**
+	 * @return the gross salary of the last twelve payrolls, or of all of
+	 * 	them if there are less, the one the settlement is computed over
+	 */
+	public double getLastAnnualGrossSalary() {
+		return payrolls.stream()
+				.sorted(Comparator.comparing(Payroll::getDate).reversed())
+				.limit(MONTHS_IN_YEAR)
+				.mapToDouble(Payroll::getGrossSalary)
+				.sum();
+	}
+
+	/**
+	 * @return true if any day of the month is between the start and the end
+	 * 	of the contract, so it has a payroll for that month
+	 */
+	public boolean isInForceDuring(YearMonth month) {
+		ArgumentChecks.isNotNull(month, "Invalid null month");
+		return !startDate.isAfter(month.atEndOfMonth())
+				&& (endDate == null || !endDate.isBefore(month.atDay(1)));
+	}
+
+	/**
+	 * @return true if the date is between the start and the end of the
+	 * 	contract, both included
+	 */
+	public boolean isInForceOn(LocalDate date) {
+		ArgumentChecks.isNotNull(date, "Invalid null date");
+		return !startDate.isAfter(date)
+				&& (endDate == null || !endDate.isBefore(date));
+	}
+
+	boolean hasPayrollFor(YearMonth month) {
+		for (Payroll p : payrolls) {
+			if (YearMonth.from(p.getDate()).equals(month)) return true;
+		}
+		return false;
+	}
+
+	public LocalDate getStartDate() {
+		return startDate;
+	}
+
+	public LocalDate getEndDate() {
+		return endDate;
+	}
+
+	public double getAnnualBaseSalary() {
+		return Cents.toDouble(annualBaseSalary);
+	}
+
+	long getAnnualBaseSalaryInCents() {
+		return annualBaseSalary;
+	}
+
+	public double getSettlement() {
+		return Cents.toDouble(settlement);
+	}
+
+	long getSettlementInCents() {
+		return settlement;
+	}
+
+	public ContractState getState() {
+		return state;
+	}
+
+	public boolean isInForce() {
+		return state == ContractState.IN_FORCE;
+	}
+
+	public boolean isTerminated() {
+		return state == ContractState.TERMINATED;
+	}
+
+	public Mechanic getMechanic() {
+		return mechanic;
+	}
+
+	public ContractType getContractType() {
+		return contractType;
+	}
+
+	public ProfessionalGroup getProfessionalGroup() {
+		return professionalGroup;
+	}
+
+	void _setMechanic(Mechanic mechanic) {
+		this.mechanic = mechanic;
+	}
+
+	void _setContractType(ContractType contractType) {
+		this.contractType = contractType;
+	}
+
+	void _setProfessionalGroup(ProfessionalGroup professionalGroup) {
+		this.professionalGroup = professionalGroup;
+	}
+
+	public Set<Payroll> getPayrolls() {
+		return new HashSet<>( payrolls );
+	}
+
+	/**
+	 * @return a read-only live view of the payrolls, no copy is made
+	 */
+	public Set<Payroll> getPayrollsView() {
+		return Collections.unmodifiableSet(payrolls);
+	}
+
+	Set<Payroll> _getPayrolls() {
+		return payrolls;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(mechanic, startDate);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Contract other = (Contract) obj;
+		return Objects.equals(mechanic, other.mechanic)
+				&& Objects.equals(startDate, other.startDate);
+	}
+
+	@Override
+	public String toString() {
+		return "Contract [startDate=" + startDate + ", endDate=" + endDate
+				+ ", annualBaseSalary=" + Cents.toString(annualBaseSalary)
+				+ ", settlement=" + Cents.toString(settlement)
+				+ ", state=" + state + "]";
+	}
+
+}
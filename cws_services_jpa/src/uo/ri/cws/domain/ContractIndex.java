@@ -0,0 +1,165 @@
+package uo.ri.cws.domain;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import uo.ri.util.assertion.ArgumentChecks;
+
+/**
+ * Interval index over the dates the contracts of many mechanics are in
+ * force, for staffing reports: the contracts in force on a date, or during
+ * a month, in O(log n + k) for k contracts found.
+ *
+ * It is an interval tree laid out on the array of contracts sorted by start
+ * date (as in cgranges): the tree is implicit in the positions and every
+ * one keeps the latest end of its subtree, so subtrees ending before the
+ * query are skipped. Dates are kept as epoch days, in primitive arrays.
+ *
+ * It is a snapshot of the contracts when built: if any is terminated
+ * afterwards, build a new index. The per mechanic look up, without an
+ * index, is Mechanic.getContractInForceOn(date).
+ */
+public class ContractIndex {
+
+	private static final int OPEN_ENDED = Integer.MAX_VALUE;
+	private static final int SCANNED_LEVELS = 3; // small subtrees, no pruning
+
+	private final Contract[] contracts; // by start date
+	private final int[] starts; // epoch day of the start date
+	private final int[] ends; // epoch day after the end date, excluded
+	private final int[] maxEnds; // latest end in the subtree of each node
+	private final int rootLevel;
+
+	/**
+	 * @throws IllegalArgumentException if the collection or any contract is
+	 * 	null
+	 */
+	public ContractIndex(Collection<Contract> contracts) {
+		ArgumentChecks.isNotNull(contracts, "Invalid null contracts");
+		Contract[] sorted = contracts.toArray(new Contract[0]);
+		for (Contract c : sorted) {
+			ArgumentChecks.isNotNull(c, "Invalid null contract");
+		}
+		Arrays.sort(sorted, Comparator.comparing(Contract::getStartDate));
+
+		int n = sorted.length;
+		this.contracts = sorted;
+		this.starts = new int[n];
+		this.ends = new int[n];
+		for (int i = 0; i < n; i++) {
+			starts[i] = (int) sorted[i].getStartDate().toEpochDay();
+			LocalDate end = sorted[i].getEndDate();
+			ends[i] = end == null ? OPEN_ENDED : (int) end.toEpochDay() + 1;
+		}
+		this.maxEnds = new int[n];
+		this.rootLevel = buildTree();
+	}
+
+	/*
+	 * Leaves are at the even positions; a node at level k is at a position
+	 * with k trailing ones and its children are 2^(k-1) to each side. The
+	 * right children beyond the array are virtual and take the latest end
+	 * of the last subtree
+	 * @return the level of the root
+	 */
+	private int buildTree() {
+		int n = starts.length;
+		if (n == 0) return -1;
+
+		int last = 0; // latest end of the last subtree
+		int lastPos = 0;
+		for (int i = 0; i < n; i += 2) {
+			lastPos = i;
+			last = maxEnds[i] = ends[i];
+		}
+		int k = 1;
+		for (; 1L << k <= n; k++) {
+			int x = 1 << (k - 1);
+			int step = x << 2;
+			for (int i = (x << 1) - 1; i < n; i += step) {
+				int left = maxEnds[i - x];
+				int right = i + x < n ? maxEnds[i + x] : last;
+				maxEnds[i] = Math.max(ends[i], Math.max(left, right));
+			}
+			lastPos = (lastPos >> k & 1) != 0 ? lastPos - x : lastPos + x;
+			if (lastPos < n && maxEnds[lastPos] > last) {
+				last = maxEnds[lastPos];
+			}
+		}
+		return k - 1;
+	}
+
+	/**
+	 * @return the contracts in force on the date, by start date
+	 */
+	public List<Contract> findInForceOn(LocalDate date) {
+		ArgumentChecks.isNotNull(date, "Invalid null date");
+		int day = (int) date.toEpochDay();
+		return overlapping(day, day + 1);
+	}
+
+	/**
+	 * @return the contracts in force any day of the month, by start date;
+	 * 	the ones PayrollEngine pays for the month
+	 */
+	public List<Contract> findInForceDuring(YearMonth month) {
+		ArgumentChecks.isNotNull(month, "Invalid null month");
+		return overlapping((int) month.atDay(1).toEpochDay(),
+				(int) month.atEndOfMonth().toEpochDay() + 1);
+	}
+
+	public int size() {
+		return contracts.length;
+	}
+
+	/*
+	 * Top-down traversal, with an explicit stack, of the nodes that may
+	 * overlap [from, to); every node is pushed twice, first to go down its
+	 * left child and then to check itself and go down the right one
+	 */
+	private List<Contract> overlapping(int from, int to) {
+		List<Contract> res = new ArrayList<>();
+		int n = starts.length;
+		if (n == 0) return res;
+
+		int[] stackPos = new int[64];
+		int[] stackLevel = new int[64];
+		boolean[] leftDone = new boolean[64];
+		int t = 0;
+		stackPos[t] = (1 << rootLevel) - 1;
+		stackLevel[t] = rootLevel;
+		leftDone[t++] = false;
+		while (t > 0) {
+			t--;
+			int x = stackPos[t];
+			int k = stackLevel[t];
+			if (k <= SCANNED_LEVELS) {
+				int i0 = x >> k << k;
+				int i1 = Math.min(i0 + (1 << (k + 1)) - 1, n);
+				for (int i = i0; i < i1 && starts[i] < to; i++) {
+					if (from < ends[i]) res.add(contracts[i]);
+				}
+			} else if (!leftDone[t]) {
+				int y = x - (1 << (k - 1));
+				leftDone[t++] = true; // x stays, with its left child done
+				if (y >= n || maxEnds[y] > from) {
+					stackPos[t] = y;
+					stackLevel[t] = k - 1;
+					leftDone[t++] = false;
+				}
+			} else if (x < n && starts[x] < to) {
+				if (from < ends[x]) res.add(contracts[x]);
+				stackPos[t] = x + (1 << (k - 1));
+				stackLevel[t] = k - 1;
+				leftDone[t++] = false;
+			}
+		}
+		return res;
+	}
+
+}
@@ -0,0 +1,86 @@
+package uo.ri.cws.domain;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import uo.ri.cws.domain.base.BaseEntity;
+import uo.ri.util.assertion.ArgumentChecks;
+
+public class ContractType extends BaseEntity {
+	/** Contracts of this type must have an end date */
+	public static final String FIXED_TERM = "FIXED_TERM";
+
+	// natural attributes
+	private String name;
+	private double compensationDays; // per year of service
+
+	// accidental attributes
+	private Set<Contract> contracts = new HashSet<>();
+
+	ContractType() {} // for JPA
+
+	public ContractType(String name, double compensationDays) {
+		ArgumentChecks.isNotBlank(name, "Invalid name");
+		ArgumentChecks.isTrue(compensationDays >= 0,
+				"Invalid negative compensation days");
+		this.name = name;
+		this.compensationDays = compensationDays;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the days of salary paid as settlement for every full year of
+	 * 	service when a contract of this type is terminated
+	 */
+	public double getCompensationDaysPerYear() {
+		return compensationDays;
+	}
+
+	public boolean isFixedTerm() {
+		return FIXED_TERM.equals(name);
+	}
+
+	public Set<Contract> getContracts() {
+		return new HashSet<>( contracts );
+	}
+
+	/**
+	 * @return a read-only live view of the contracts, no copy is made
+	 */
+	public Set<Contract> getContractsView() {
+		return Collections.unmodifiableSet(contracts);
+	}
+
+	Set<Contract> _getContracts() {
+		return contracts;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ContractType other = (ContractType) obj;
+		return Objects.equals(name, other.name);
+	}
+
+	@Override
+	public String toString() {
+		return "ContractType [name=" + name
+				+ ", compensationDays=" + compensationDays + "]";
+	}
+
+}
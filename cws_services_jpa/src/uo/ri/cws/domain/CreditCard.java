@@ -14,11 +14,12 @@ public class CreditCard extends PaymentMean {
 	 */
 	@Override
 	public boolean canPay(Double amount) {
-		// TODO Auto-generated method stub
-		return false;
+		return !validThru.isBefore(LocalDate.now());
 	}
 
 
+	CreditCard() {} // for JPA
+
 	public CreditCard(String number, String type, LocalDate validThru) {
 		super();
 		this.number = number;
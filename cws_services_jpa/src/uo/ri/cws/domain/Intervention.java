@@ -2,13 +2,17 @@ package uo.ri.cws.domain;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import uo.ri.cws.domain.base.BaseEntity;
 import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.math.Cents;
+import uo.ri.util.math.Hashes;
 
-public class Intervention {
+public class Intervention extends BaseEntity {
 	
 	// natural attributes
 	private LocalDateTime date;
@@ -18,7 +22,10 @@ public class Intervention {
 	private WorkOrder workOrder;
 	private Mechanic mechanic;
 	private Set<Substitution> substitutions = new HashSet<>();
+	private int hash; // cached, 0 until computed; not persistent
 	
+	Intervention() {} // for JPA
+
 	public Intervention(LocalDateTime date, int minutes, WorkOrder workOrder,
 			Mechanic mechanic) {
 		super();
@@ -29,11 +36,31 @@ public class Intervention {
 
 		this.date = date.truncatedTo(ChronoUnit.MILLIS);
 		this.minutes = minutes;
-		Associations.Intervenes.link(workOrder, null, mechanic);
+		Associations.Intervenes.link(workOrder, this, mechanic);
 	}
 
 	public Intervention(Mechanic mechanic, WorkOrder workOrder, int minutes) {
-		
+		this(LocalDateTime.now(), minutes, workOrder, mechanic);
+	}
+
+	/**
+	 * @return the labor price of the minutes, at the price per hour of the
+	 * 	vehicle type, plus the amount of every spare part substituted
+	 */
+	public double getAmount() {
+		long pricePerHour = workOrder.getVehicle()
+				.getVehicleType()
+				.getPricePerHourInCents();
+		long labor = Cents.ratio(pricePerHour, minutes, 60);
+		return Cents.toDouble(labor + getSparePartsAmountInCents());
+	}
+
+	long getSparePartsAmountInCents() {
+		long res = Cents.ZERO;
+		for (Substitution s : substitutions) {
+			res += s.getAmountInCents();
+		}
+		return res;
 	}
 
 	public LocalDateTime getDate() {
@@ -55,37 +82,56 @@ public class Intervention {
 
 	void _setWorkOrder(WorkOrder workOrder) {
 		this.workOrder = workOrder;
+		this.hash = 0;
 	}
 
 	void _setMechanic(Mechanic mechanic) {
 		this.mechanic = mechanic;
+		this.hash = 0;
 	}
 
 	public Set<Substitution> getSubstitutions() {
 		return new HashSet<>( substitutions );
 	}
 
+	/**
+	 * @return a read-only live view of the substitutions, no copy is made
+	 */
+	public Set<Substitution> getSubstitutionsView() {
+		return Collections.unmodifiableSet(substitutions);
+	}
+
 	Set<Substitution> _getSubstitutions() {
 		return substitutions;
 	}
 	
+	/**
+	 * Hash of date, mechanic and work order, computed once
+	 * @see WorkOrder#hashCode()
+	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(date, mechanic, workOrder);
+		int h = hash;
+		if (h == 0) {
+			h = Hashes.combine(Objects.hashCode(date),
+					Objects.hashCode(mechanic), Objects.hashCode(workOrder));
+			hash = h;
+		}
+		return h;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
+		// a lazy proxy is a subclass, with its state behind the getters
+		if (!(obj instanceof Intervention))
 			return false;
 		Intervention other = (Intervention) obj;
-		return Objects.equals(date, other.date)
-				&& Objects.equals(mechanic, other.mechanic)
-				&& Objects.equals(workOrder, other.workOrder);
+		return hashCode() == other.hashCode()
+				&& Objects.equals(date, other.getDate())
+				&& Objects.equals(mechanic, other.getMechanic())
+				&& Objects.equals(workOrder, other.getWorkOrder());
 	}
 
 }
@@ -1,28 +1,41 @@
 package uo.ri.cws.domain;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import uo.ri.cws.domain.base.VersionedEntity;
 import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+import uo.ri.util.math.Cents;
 
-public class Invoice {
+public class Invoice extends VersionedEntity {
 	public enum InvoiceState { NOT_YET_PAID, PAID }
 
+	private static final long SETTLE_TOLERANCE = 1; // cent
+	private static final int PARALLEL_SETTLE_THRESHOLD = 1_000; // invoices
+
 	// natural attributes
 	private Long number;
 	private LocalDate date;
-	private double amount;
-	private double vat;
+	private long amount; // in cents, vat included
+	private long vat; // in cents
 	private InvoiceState state = InvoiceState.NOT_YET_PAID;
+	private Double vatRate; // cache, resolved once as the date never changes
 
 	// accidental attributes
 	private Set<WorkOrder> workOrders = new HashSet<>();
 	private Set<Charge> charges = new HashSet<>();
 
+	Invoice() {} // for JPA
+
 	public Invoice(Long number) {
 		// call full constructor with sensible defaults
 		this(number, LocalDate.now(), List.of());
@@ -47,16 +60,31 @@ public class Invoice {
 		ArgumentChecks.isNotNull(workOrders, "Invalid null workorders");
 		this.date = date;
 		this.number = number;
-		for(WorkOrder wo : workOrders) {
-			addWorkOrder(wo);
-		}
+		addWorkOrders(workOrders);
 	}
 
 	/**
 	 * Computes amount and vat (vat depends on the date)
+	 * @param workOrdersAmount, in cents, the sum of the amounts of the
+	 * 	work orders
 	 */
-	private void computeAmount() {
+	private void computeAmount(long workOrdersAmount) {
+		vat = Cents.percentage(workOrdersAmount, vatRate());
+		amount = workOrdersAmount + vat;
+	}
 
+	private double vatRate() {
+		if (vatRate == null) {
+			vatRate = VatRates.getDefault().rateAt(date);
+		}
+		return vatRate;
+	}
+
+	/**
+	 * @return the sum of the amounts of the work orders, in cents, vat excluded
+	 */
+	private long workOrdersAmount() {
+		return amount - vat;
 	}
 
 	/**
@@ -67,7 +95,54 @@ public class Invoice {
 	 * @throws IllegalStateException if the workorder status is not FINISHED 
 	 */
 	public void addWorkOrder(WorkOrder workOrder) {
+		ArgumentChecks.isNotNull(workOrder, "Invalid null work order");
+		StateChecks.isTrue(isNotSettled(), "The invoice is already settled");
+		StateChecks.isTrue(workOrder.isFinished(),
+				"The work order is not finished");
+
+		computeAmount(workOrdersAmount() + bill(workOrder));
+	}
+
+	/**
+	 * Adds (double links) all the work orders to the invoice and computes
+	 * the amount and vat just once, at the end.
+	 * Every work order is checked before any of them gets linked, so either
+	 * all of them are added or the invoice is left untouched
+	 * @param workOrders
+	 * @see UML_State diagrams on the problem statement document
+	 * @throws IllegalArgumentException if any work order is null or repeated
+	 * @throws IllegalStateException if the invoice status is not NOT_YET_PAID
+	 * @throws IllegalStateException if any workorder status is not FINISHED
+	 */
+	public void addWorkOrders(Collection<WorkOrder> workOrders) {
+		ArgumentChecks.isNotNull(workOrders, "Invalid null workorders");
+		if (workOrders.isEmpty()) return;
 
+		StateChecks.isTrue(isNotSettled(), "The invoice is already settled");
+		Set<WorkOrder> batch = new HashSet<>(workOrders.size() * 2);
+		for (WorkOrder wo : workOrders) {
+			ArgumentChecks.isNotNull(wo, "Invalid null work order");
+			ArgumentChecks.isTrue(batch.add(wo), "Repeated work order");
+			StateChecks.isTrue(wo.isFinished(),
+					"The work order is not finished");
+		}
+
+		long added = Cents.ZERO;
+		for (WorkOrder wo : workOrders) {
+			added += bill(wo);
+		}
+		computeAmount(workOrdersAmount() + added);
+	}
+
+	/**
+	 * Links the work order and marks it as invoiced, the amount and vat
+	 * are left for the caller to compute
+	 * @return the amount of the work order, in cents
+	 */
+	private long bill(WorkOrder workOrder) {
+		Associations.Bills.link(this, workOrder);
+		workOrder.markAsInvoiced();
+		return Cents.of(workOrder.getAmount());
 	}
 
 	/**
@@ -79,7 +154,14 @@ public class Invoice {
 	 * @throws IllegalArgumentException if the invoice does not contain the workorder
 	 */
 	public void removeWorkOrder(WorkOrder workOrder) {
+		ArgumentChecks.isNotNull(workOrder, "Invalid null work order");
+		StateChecks.isTrue(isNotSettled(), "The invoice is already settled");
+		ArgumentChecks.isTrue(workOrders.contains(workOrder),
+				"The invoice does not contain the work order");
 
+		Associations.Bills.unlink(this, workOrder);
+		workOrder.markBackToFinished();
+		computeAmount(workOrdersAmount() - Cents.of(workOrder.getAmount()));
 	}
 
 	/**
@@ -87,16 +169,89 @@ public class Invoice {
 	 * @throws IllegalStateException if
 	 * 	- Is already settled
 	 *  - Or the amounts paid with charges to payment means do not cover
-	 *  	the total of the invoice
+	 *  	the total of the invoice (a cent of rounding is tolerated)
+	 *  - Or any payment mean charged cannot pay its charge any more
+	 *  	(e.g. an expired credit card)
+	 * The charges are checked and added up in a single pass, with no copy
 	 */
 	public void settle() {
+		StateChecks.isTrue(isNotSettled(), "The invoice is already settled");
+
+		long paid = Cents.ZERO;
+		for (Charge charge : charges) {
+			long chargeAmount = charge.getAmountInCents();
+			StateChecks.isTrue(
+					charge.getPaymentMean().canSettle(chargeAmount),
+					"The payment mean cannot pay the charge");
+			paid += chargeAmount;
+		}
+		StateChecks.isTrue(paid + SETTLE_TOLERANCE >= amount,
+				"The charges do not cover the amount of the invoice");
 
+		state = InvoiceState.PAID;
+	}
+
+	/**
+	 * Settles a batch of invoices, e.g. the end-of-day settlement run. Large
+	 * batches are split among the threads of the common fork-join pool,
+	 * every one settled as in settle(); their charges and payment means,
+	 * maybe lazy, are loaded before on the calling thread, so the threads
+	 * only read state already in memory. An invoice that cannot be settled
+	 * does not stop the others: it is left NOT_YET_PAID and returned
+	 * @return the invoices that could not be settled
+	 * @throws IllegalArgumentException if any invoice is null or repeated,
+	 * 	then none is settled
+	 */
+	public static List<Invoice> settleAll(Collection<Invoice> invoices) {
+		ArgumentChecks.isNotNull(invoices, "Invalid null invoices");
+		Set<Invoice> batch = new HashSet<>(invoices.size() * 2);
+		for (Invoice invoice : invoices) {
+			ArgumentChecks.isNotNull(invoice, "Invalid null invoice");
+			ArgumentChecks.isTrue(batch.add(invoice), "Repeated invoice");
+		}
+
+		Stream<Invoice> stream;
+		if (invoices.size() < PARALLEL_SETTLE_THRESHOLD) {
+			stream = invoices.stream();
+		} else {
+			invoices.forEach(Invoice::loadCharges);
+			stream = invoices.parallelStream();
+		}
+		return stream
+				.filter(invoice -> !tryToSettle(invoice))
+				.collect(Collectors.toList());
+	}
+
+	/*
+	 * Walks the charges and reads their payment means, so any lazy one is
+	 * loaded
+	 */
+	private void loadCharges() {
+		for (Charge charge : charges) {
+			charge.getPaymentMean().getAccumulated();
+		}
+	}
+
+	private static boolean tryToSettle(Invoice invoice) {
+		try {
+			invoice.settle();
+			return true;
+		} catch (IllegalStateException e) {
+			return false;
+		}
 	}
 
 	public Set<WorkOrder> getWorkOrders() {
 		return new HashSet<>( workOrders );
 	}
 
+	/**
+	 * @return a read-only live view of the work orders, no copy is made
+	 */
+	public Set<WorkOrder> getWorkOrdersView() {
+		return Collections.unmodifiableSet(workOrders);
+	}
+
 	Set<WorkOrder> _getWorkOrders() {
 		return workOrders;
 	}
@@ -105,6 +260,13 @@ public class Invoice {
 		return new HashSet<>( charges );
 	}
 
+	/**
+	 * @return a read-only live view of the charges, no copy is made
+	 */
+	public Set<Charge> getChargesView() {
+		return Collections.unmodifiableSet(charges);
+	}
+
 	Set<Charge> _getCharges() {
 		return charges;
 	}
@@ -118,11 +280,11 @@ public class Invoice {
 	}
 
 	public double getAmount() {
-		return amount;
+		return Cents.toDouble(amount);
 	}
 
 	public double getVat() {
-		return vat;
+		return Cents.toDouble(vat);
 	}
 
 	/*
@@ -142,8 +304,9 @@ public class Invoice {
 
 	@Override
 	public String toString() {
-		return "Invoice [number=" + number + ", date=" + date + ", amount="
-				+ amount + ", vat=" + vat + ", state=" + state + "]";
+		return "Invoice [number=" + number + ", date=" + date
+				+ ", amount=" + Cents.toString(amount)
+				+ ", vat=" + Cents.toString(vat) + ", state=" + state + "]";
 	}
 
 	@Override
@@ -1,35 +1,146 @@
 package uo.ri.cws.domain;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 
-public class Mechanic {
+import uo.ri.cws.domain.base.VersionedEntity;
+import uo.ri.util.assertion.ArgumentChecks;
+
+public class Mechanic extends VersionedEntity {
 	// natural attributes
 	private String nif;
 	private String surname;
 	private String name;
 
+	// workload, maintained as work orders and interventions get linked
+	// and unlinked, see WorkloadIndex
+	private int assignedCount = 0;
+	private long interventionMinutes = 0;
+	private WorkloadIndex workloadIndex; // not persistent
+
+	// work per month, as year * 100 + month, maintained as interventions
+	// get linked and unlinked and work orders invoiced; months with no
+	// work are left out
+	private Map<Integer, MonthlyWork> monthlyWork = new HashMap<>();
+
 	// accidental attributes
 	private Set<WorkOrder> assigned = new HashSet<>();
 	private Set<Intervention> interventions = new HashSet<>();
+	private Set<Contract> contracts = new HashSet<>();
+	private Contract[] timeline; // by start date, cached; not persistent
 
 	public Set<WorkOrder> getAssigned() {
 		return new HashSet<>( assigned );
 	}
 
+	/**
+	 * @return a read-only live view of the assigned work orders, no copy is made
+	 */
+	public Set<WorkOrder> getAssignedView() {
+		return Collections.unmodifiableSet(assigned);
+	}
+
 	Set<WorkOrder> _getAssigned() {
-		return Set.copyOf(assigned);
+		return assigned;
 	}
 
 	public Set<Intervention> getInterventions() {
 		return new HashSet<>( interventions );
 	}
 
+	/**
+	 * @return a read-only live view of the interventions, no copy is made
+	 */
+	public Set<Intervention> getInterventionsView() {
+		return Collections.unmodifiableSet(interventions);
+	}
+
 	Set<Intervention> _getInterventions() {
-		return new HashSet<Intervention>(interventions);
+		return interventions;
+	}
+
+	public Set<Contract> getContracts() {
+		return new HashSet<>( contracts );
+	}
+
+	/**
+	 * @return a read-only live view of the contracts, no copy is made
+	 */
+	public Set<Contract> getContractsView() {
+		return Collections.unmodifiableSet(contracts);
+	}
+
+	Set<Contract> _getContracts() {
+		return contracts;
+	}
+
+	/**
+	 * @return the contract not terminated yet. There is one at most, the
+	 * 	last one, as a new contract terminates the previous one
+	 */
+	public Optional<Contract> getContractInForce() {
+		Contract[] timeline = timeline();
+		if (timeline.length == 0) return Optional.empty();
+
+		Contract last = timeline[timeline.length - 1];
+		return last.isInForce() ? Optional.of(last) : Optional.empty();
+	}
+
+	/**
+	 * @return the contract in force on the date, if any. The contracts of a
+	 * 	mechanic do not overlap, so it is the last one starting on or before
+	 * 	the date, found with a binary search, O(log n). See ContractIndex to
+	 * 	look up the contracts of many mechanics
+	 */
+	public Optional<Contract> getContractInForceOn(LocalDate date) {
+		ArgumentChecks.isNotNull(date, "Invalid null date");
+		Contract[] timeline = timeline();
+		int lo = 0;
+		int hi = timeline.length - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			if (timeline[mid].getStartDate().isAfter(date)) {
+				hi = mid - 1;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		if (hi < 0) return Optional.empty();
+
+		Contract floor = timeline[hi];
+		return floor.isInForceOn(date) ? Optional.of(floor) : Optional.empty();
+	}
+
+	private Contract[] timeline() {
+		Contract[] res = timeline;
+		if (res == null) {
+			res = contracts.toArray(new Contract[0]);
+			Arrays.sort(res, Comparator.comparing(Contract::getStartDate));
+			timeline = res;
+		}
+		return res;
+	}
+
+	/**
+	 * The contracts changed, the timeline is built again when needed. The
+	 * end dates are read from the contracts, so terminating one does not
+	 * change it
+	 */
+	void _resetTimeline() {
+		timeline = null;
 	}
 
+	Mechanic() {} // for JPA
+
 	public Mechanic(String nif, String surname, String name) {
 		super();
 		this.nif = nif;
@@ -49,6 +160,67 @@ public class Mechanic {
 		return name;
 	}
 
+	/**
+	 * @return the number of work orders assigned, with no copy of the set
+	 */
+	public int getAssignedCount() {
+		return assignedCount;
+	}
+
+	/**
+	 * @return the minutes of all the interventions of the mechanic
+	 */
+	public long getInterventionMinutes() {
+		return interventionMinutes;
+	}
+
+	/**
+	 * Updates the workload. If the mechanic is in a workload index it is
+	 * taken out while the workload changes, as its position depends on it
+	 */
+	void _addToWorkload(int assigned, long minutes) {
+		if (workloadIndex != null) {
+			workloadIndex._remove(this);
+		}
+		this.assignedCount += assigned;
+		this.interventionMinutes += minutes;
+		if (workloadIndex != null) {
+			workloadIndex._add(this);
+		}
+	}
+
+	/**
+	 * @return the minutes of the interventions of the month, and the amount
+	 * 	of the work orders of the month the mechanic worked on that are
+	 * 	invoiced, with no walk over the interventions. A work order counts
+	 * 	for the month of its date and once, whatever the interventions of
+	 * 	the mechanic on it
+	 */
+	public MonthlyWork getMonthlyWork(YearMonth month) {
+		ArgumentChecks.isNotNull(month, "Invalid null month");
+		return monthlyWork.getOrDefault(key(month), MonthlyWork.NONE);
+	}
+
+	void _addToMonthlyWork(YearMonth month, long minutes, long billed) {
+		monthlyWork.compute(key(month), (k, work) -> {
+			MonthlyWork res = (work == null ? MonthlyWork.NONE : work)
+					.plus(minutes, billed);
+			return res.isNone() ? null : res;
+		});
+	}
+
+	private static int key(YearMonth month) {
+		return month.getYear() * 100 + month.getMonthValue();
+	}
+
+	WorkloadIndex _getWorkloadIndex() {
+		return workloadIndex;
+	}
+
+	void _setWorkloadIndex(WorkloadIndex workloadIndex) {
+		this.workloadIndex = workloadIndex;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(nif);
@@ -58,12 +230,11 @@ public class Mechanic {
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
+		// a lazy proxy is a subclass, with its state behind the getters
+		if (!(obj instanceof Mechanic))
 			return false;
 		Mechanic other = (Mechanic) obj;
-		return Objects.equals(nif, other.nif);
+		return Objects.equals(nif, other.getNif());
 				
 	}
 
@@ -74,10 +245,6 @@ public class Mechanic {
 				+ interventions + "]";
 	}
 
-	public Set<WorkOrder> _getWorkOrders() {
-		return assigned;
-	}
-	
 	
 
 }
@@ -0,0 +1,72 @@
+package uo.ri.cws.domain;
+
+import java.util.Objects;
+
+import uo.ri.util.math.Cents;
+
+/**
+ * The work of a mechanic in a month: the minutes of its interventions and
+ * the amount billed of the work orders it worked on, the one its
+ * productivity plus is paid on. See Mechanic.getMonthlyWork(month).
+ *
+ * This class is a Value Type, thus
+ *    - no setters, plus() returns a new one
+ *	  - hashcode and equals over all attributes
+ */
+public class MonthlyWork {
+	public static final MonthlyWork NONE = new MonthlyWork(0, 0);
+
+	private long minutes;
+	private long billed; // in cents
+
+	MonthlyWork() {} // for JPA
+
+	MonthlyWork(long minutes, long billed) {
+		this.minutes = minutes;
+		this.billed = billed;
+	}
+
+	MonthlyWork plus(long minutes, long billed) {
+		return new MonthlyWork(this.minutes + minutes, this.billed + billed);
+	}
+
+	boolean isNone() {
+		return minutes == 0 && billed == 0;
+	}
+
+	public long getMinutes() {
+		return minutes;
+	}
+
+	public double getBilledAmount() {
+		return Cents.toDouble(billed);
+	}
+
+	long getBilledAmountInCents() {
+		return billed;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(minutes, billed);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		MonthlyWork other = (MonthlyWork) obj;
+		return minutes == other.minutes && billed == other.billed;
+	}
+
+	@Override
+	public String toString() {
+		return "MonthlyWork [minutes=" + minutes
+				+ ", billed=" + Cents.toString(billed) + "]";
+	}
+
+}
@@ -0,0 +1,133 @@
+package uo.ri.cws.domain;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import uo.ri.util.assertion.ArgumentChecks;
+
+/**
+ * Identity map of entities by their natural key: plate number for
+ * vehicles, nif for clients and mechanics, number for invoices. There is
+ * one instance per key, the first one registered, and it is found in O(1)
+ * instead of scanning.
+ *
+ * Text keys are normalized, both when registering and when looking up, so
+ * "1234-abc", "1234 ABC" and "1234ABC" are the same plate: blanks and
+ * hyphens are dropped and letters upper cased. It is not thread safe, as
+ * the rest of the domain.
+ *
+ * @param <K> the type of the key
+ * @param <E> the type of the entities
+ */
+public class NaturalKeyIndex<K, E> {
+
+	private final Map<K, E> entities;
+	private final Function<E, K> keyOf;
+	private final UnaryOperator<K> normalizer;
+
+	public static NaturalKeyIndex<String, Vehicle> ofVehicles(
+			int expectedSize) {
+		return new NaturalKeyIndex<>(Vehicle::getPlateNumber,
+				NaturalKeyIndex::normalize, expectedSize);
+	}
+
+	public static NaturalKeyIndex<String, Client> ofClients(int expectedSize) {
+		return new NaturalKeyIndex<>(Client::getNif,
+				NaturalKeyIndex::normalize, expectedSize);
+	}
+
+	public static NaturalKeyIndex<String, Mechanic> ofMechanics(
+			int expectedSize) {
+		return new NaturalKeyIndex<>(Mechanic::getNif,
+				NaturalKeyIndex::normalize, expectedSize);
+	}
+
+	public static NaturalKeyIndex<Long, Invoice> ofInvoices(int expectedSize) {
+		return new NaturalKeyIndex<>(Invoice::getNumber,
+				UnaryOperator.identity(), expectedSize);
+	}
+
+	/**
+	 * @param expectedSize, the entities expected, so the table is not
+	 * 	resized while they are registered
+	 */
+	public NaturalKeyIndex(Function<E, K> keyOf, UnaryOperator<K> normalizer,
+			int expectedSize) {
+		ArgumentChecks.isNotNull(keyOf, "Invalid null key");
+		ArgumentChecks.isNotNull(normalizer, "Invalid null normalizer");
+		ArgumentChecks.isTrue(expectedSize >= 0, "Invalid expected size");
+		this.entities = HashMap.newHashMap(expectedSize);
+		this.keyOf = keyOf;
+		this.normalizer = normalizer;
+	}
+
+	/**
+	 * Registers the entity, unless there is one with the same key already
+	 * @return the entity kept for its key: the one registered before, if
+	 * 	any, or this one
+	 * @throws IllegalArgumentException if the entity or its key are null
+	 */
+	public E register(E entity) {
+		ArgumentChecks.isNotNull(entity, "Invalid null entity");
+		K key = keyOf.apply(entity);
+		ArgumentChecks.isNotNull(key, "Invalid null key");
+
+		E previous = entities.putIfAbsent(normalizer.apply(key), entity);
+		return previous == null ? entity : previous;
+	}
+
+	/**
+	 * Takes the entity out of the index, if it is the one kept for its key
+	 */
+	public void unregister(E entity) {
+		ArgumentChecks.isNotNull(entity, "Invalid null entity");
+		K key = keyOf.apply(entity);
+		if (key == null) return;
+
+		entities.remove(normalizer.apply(key), entity);
+	}
+
+	public Optional<E> find(K key) {
+		ArgumentChecks.isNotNull(key, "Invalid null key");
+		return Optional.ofNullable(entities.get(normalizer.apply(key)));
+	}
+
+	public boolean contains(K key) {
+		ArgumentChecks.isNotNull(key, "Invalid null key");
+		return entities.containsKey(normalizer.apply(key));
+	}
+
+	public int size() {
+		return entities.size();
+	}
+
+	/**
+	 * @return the key without blanks nor hyphens, upper cased
+	 */
+	public static String normalize(String key) {
+		int i = 0;
+		while (i < key.length() && isNormalized(key.charAt(i))) {
+			i++;
+		}
+		if (i == key.length()) return key; // already normalized, no copy
+
+		StringBuilder sb = new StringBuilder(key.length());
+		for (i = 0; i < key.length(); i++) {
+			char c = key.charAt(i);
+			if (c != '-' && !Character.isWhitespace(c)) {
+				sb.append(c);
+			}
+		}
+		return sb.toString().toUpperCase(Locale.ROOT);
+	}
+
+	private static boolean isNormalized(char c) {
+		return c != '-' && !Character.isWhitespace(c)
+				&& Character.toUpperCase(c) == c;
+	}
+
+}
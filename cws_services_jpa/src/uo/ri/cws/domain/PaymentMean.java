@@ -1,11 +1,21 @@
 package uo.ri.cws.domain;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
-public abstract class PaymentMean {
+import uo.ri.cws.domain.base.VersionedEntity;
+import uo.ri.util.concurrent.VarHandles;
+import uo.ri.util.math.Cents;
+
+public abstract class PaymentMean extends VersionedEntity {
+	private static final VarHandle ACCUMULATED = VarHandles.ofLong(
+			MethodHandles.lookup(), PaymentMean.class, "accumulated");
+
 	// natural attributes
-	private double accumulated = 0.0;
+	private volatile long accumulated = Cents.ZERO; // in cents, atomic
 
 	// accidental attributes
 	private Client client;
@@ -13,8 +23,30 @@ public abstract class PaymentMean {
 
 	public abstract boolean canPay(Double amount);
 
+	/**
+	 * Adds the amount to the accumulated. It is atomic, so several
+	 * terminals can charge the same payment mean at the same time
+	 */
 	public void pay(double importe) {
-		this.accumulated += importe;
+		ACCUMULATED.getAndAdd(this, Cents.of(importe));
+	}
+
+	/**
+	 * Checks, when the invoice is settled, that a charge already made to
+	 * this payment mean can still be paid: by default it must be able to
+	 * pay the amount of the charge
+	 * @param amount, in cents
+	 */
+	boolean canSettle(long amount) {
+		return canPay(Cents.toDouble(amount));
+	}
+
+	public double getAccumulated() {
+		return Cents.toDouble(accumulated);
+	}
+
+	public Client getClient() {
+		return client;
 	}
 
 	void _setClient(Client client) {
@@ -25,6 +57,13 @@ public abstract class PaymentMean {
 		return new HashSet<>( charges );
 	}
 
+	/**
+	 * @return a read-only live view of the charges, no copy is made
+	 */
+	public Set<Charge> getChargesView() {
+		return Collections.unmodifiableSet(charges);
+	}
+
 	Set<Charge> _getCharges() {
 		return charges;
 	}
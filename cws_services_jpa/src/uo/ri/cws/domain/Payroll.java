@@ -0,0 +1,220 @@
+package uo.ri.cws.domain;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import uo.ri.cws.domain.base.BaseEntity;
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.math.Cents;
+
+public class Payroll extends BaseEntity {
+	// the annual salary is paid in 14 payments, 12 payrolls with two extra
+	private static final int PAYMENTS_IN_YEAR = 14;
+	private static final int PAYROLLS_IN_YEAR = 12;
+	private static final double NIC_RATE = 0.05;
+	private static final int YEARS_IN_TRIENNIUM = 3;
+	private static final double PERCENT = 100.0;
+
+	// natural attributes, in euros and not rounded to cents as every
+	// concept is a fraction of the annual salary
+	private LocalDate date; // last day of the month paid
+	private double monthlyBaseSalary;
+	private double extraSalary;
+	private double productivityEarning;
+	private double trienniumEarning;
+	private double taxDeduction;
+	private double nicDeduction;
+
+	// accidental attributes
+	private Contract contract;
+
+	Payroll() {} // for JPA
+
+	/**
+	 * The payroll of the month of the date. The productivity earning is
+	 * computed over the work orders the mechanic worked on, walking all
+	 * the interventions of the mechanic; PayrollEngine reads it from the
+	 * monthly work of the mechanic instead. The tax rate is the one of the
+	 * annual base salary in the TaxBrackets of the year
+	 * @throws IllegalArgumentException if any argument is null, the
+	 * 	contract is not in force during the month or already has a payroll
+	 * 	for it
+	 * @throws IllegalStateException if there are no tax brackets for the
+	 * 	year
+	 */
+	public Payroll(Contract contract, LocalDate date) {
+		// arguments are checked by billedInMonth, evaluated first
+		this(contract, date, billedInMonth(contract, date),
+				TaxBrackets.forYear(date.getYear())
+						.rateFor(contract.getAnnualBaseSalary()));
+	}
+
+	/**
+	 * @param billed, the amount, in cents, of the work orders the mechanic
+	 * 	worked on that were invoiced in the month
+	 * @param taxRate, the withholding rate (in %) of the annual base salary
+	 */
+	Payroll(Contract contract, LocalDate date, long billed, double taxRate) {
+		// checked(contract, date), evaluated first, checks the arguments
+		this(date, checked(contract, date).getAnnualBaseSalary(),
+				contract.getStartDate(),
+				contract.getProfessionalGroup().getProductivityRate(),
+				contract.getProfessionalGroup().getTrienniumSalary(), billed,
+				taxRate);
+		Associations.Runs.link(contract, this);
+	}
+
+	/**
+	 * The payroll of the terms of a contract, already read from it, not
+	 * linked to the contract. It touches no other object, so PayrollEngine
+	 * can build many of them in parallel
+	 * @param startDate, of the contract
+	 * @param productivityRate, of the professional group of the contract
+	 * @param trienniumSalary, of the professional group of the contract
+	 */
+	Payroll(LocalDate date, double annualBaseSalary, LocalDate startDate,
+			double productivityRate, double trienniumSalary, long billed,
+			double taxRate) {
+		YearMonth month = YearMonth.from(date);
+		this.date = month.atEndOfMonth();
+		this.monthlyBaseSalary = annualBaseSalary / PAYMENTS_IN_YEAR;
+		this.extraSalary = hasExtraPayment(month)
+				? annualBaseSalary / PAYMENTS_IN_YEAR
+				: 0.0;
+		this.productivityEarning = Cents.toDouble(billed) * productivityRate;
+		this.trienniumEarning = trienniums(startDate, this.date)
+				* trienniumSalary;
+		this.taxDeduction = taxRate / PERCENT * getGrossSalary();
+		this.nicDeduction = annualBaseSalary / PAYROLLS_IN_YEAR * NIC_RATE;
+	}
+
+	private static Contract checked(Contract contract, LocalDate date) {
+		ArgumentChecks.isNotNull(contract, "Invalid null contract");
+		ArgumentChecks.isNotNull(date, "Invalid null date");
+		YearMonth month = YearMonth.from(date);
+		ArgumentChecks.isTrue(contract.isInForceDuring(month),
+				"The contract is not in force in " + month);
+		ArgumentChecks.isFalse(contract.hasPayrollFor(month),
+				"There is a payroll for " + month + " already");
+		return contract;
+	}
+
+	private static long billedInMonth(Contract contract, LocalDate date) {
+		ArgumentChecks.isNotNull(contract, "Invalid null contract");
+		ArgumentChecks.isNotNull(date, "Invalid null date");
+		YearMonth month = YearMonth.from(date);
+
+		Set<WorkOrder> workOrders = new HashSet<>();
+		for (Intervention i : contract.getMechanic().getInterventionsView()) {
+			workOrders.add(i.getWorkOrder());
+		}
+		long billed = 0;
+		for (WorkOrder wo : workOrders) {
+			if (isBilledIn(wo, month)) {
+				billed += Cents.of(wo.getAmount());
+			}
+		}
+		return billed;
+	}
+
+	/**
+	 * @return true if the work order is of the month and it is invoiced, so
+	 * 	it counts for the productivity earning
+	 */
+	private static boolean isBilledIn(WorkOrder workOrder, YearMonth month) {
+		return workOrder.isInvoiced()
+				&& YearMonth.from(workOrder.getDate()).equals(month);
+	}
+
+	private static boolean hasExtraPayment(YearMonth month) {
+		int m = month.getMonthValue();
+		return m == 6 || m == 12;
+	}
+
+	private static long trienniums(LocalDate start, LocalDate date) {
+		return ChronoUnit.YEARS.between(start, date) / YEARS_IN_TRIENNIUM;
+	}
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+	public Contract getContract() {
+		return contract;
+	}
+
+	void _setContract(Contract contract) {
+		this.contract = contract;
+	}
+
+	public double getMonthlyBaseSalary() {
+		return monthlyBaseSalary;
+	}
+
+	public double getExtraSalary() {
+		return extraSalary;
+	}
+
+	public double getProductivityEarning() {
+		return productivityEarning;
+	}
+
+	public double getTrienniumEarning() {
+		return trienniumEarning;
+	}
+
+	public double getTaxDeduction() {
+		return taxDeduction;
+	}
+
+	public double getNicDeduction() {
+		return nicDeduction;
+	}
+
+	public double getGrossSalary() {
+		return monthlyBaseSalary + extraSalary + productivityEarning
+				+ trienniumEarning;
+	}
+
+	public double getTotalDeductions() {
+		return taxDeduction + nicDeduction;
+	}
+
+	public double getNetSalary() {
+		return getGrossSalary() - getTotalDeductions();
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(contract, date);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Payroll other = (Payroll) obj;
+		return Objects.equals(contract, other.contract)
+				&& Objects.equals(date, other.date);
+	}
+
+	@Override
+	public String toString() {
+		return "Payroll [date=" + date
+				+ ", monthlyBaseSalary=" + monthlyBaseSalary
+				+ ", extraSalary=" + extraSalary
+				+ ", productivityEarning=" + productivityEarning
+				+ ", trienniumEarning=" + trienniumEarning
+				+ ", taxDeduction=" + taxDeduction
+				+ ", nicDeduction=" + nicDeduction + "]";
+	}
+
+}
@@ -0,0 +1,99 @@
+package uo.ri.cws.domain;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.math.Cents;
+
+/**
+ * Month-end payroll run: generates the payrolls of a month for a batch of
+ * contracts.
+ *
+ * Instead of every payroll walking all the interventions of its mechanic,
+ * the amount billed is read from the work of the mechanic in the month,
+ * maintained as its work orders are invoiced (Mechanic.getMonthlyWork), and
+ * the tax rate of every distinct salary is looked up once per run.
+ *
+ * Everything a payroll needs from its contract, the mechanic and the
+ * professional group is read first, on the calling thread, as they may be
+ * lazy and bound to a persistence context. Only the arithmetic of large
+ * batches is split among the threads of the common fork-join pool, and the
+ * payrolls are linked to their contracts afterwards, again on the calling
+ * thread.
+ */
+public class PayrollEngine {
+	private static final int PARALLEL_THRESHOLD = 1_000; // contracts
+
+	/**
+	 * Generates the payroll of the month of the date for every contract in
+	 * force during it that has none yet, so the run can be repeated. Each
+	 * payroll is as new Payroll(contract, date) would compute it
+	 * @return the payrolls generated, in the order of the contracts
+	 * @throws IllegalArgumentException if any argument is null or a
+	 * 	contract is null or repeated, then no payroll is generated
+	 * @throws IllegalStateException if there are no tax brackets for the
+	 * 	year
+	 */
+	public List<Payroll> generate(Collection<Contract> contracts,
+			LocalDate date) {
+		ArgumentChecks.isNotNull(contracts, "Invalid null contracts");
+		ArgumentChecks.isNotNull(date, "Invalid null date");
+		Set<Contract> batch = new HashSet<>(contracts.size() * 2);
+		for (Contract contract : contracts) {
+			ArgumentChecks.isNotNull(contract, "Invalid null contract");
+			ArgumentChecks.isTrue(batch.add(contract), "Repeated contract");
+		}
+
+		YearMonth month = YearMonth.from(date);
+		List<Contract> due = contracts.stream()
+				.filter(c -> c.isInForceDuring(month) && !c.hasPayrollFor(month))
+				.collect(Collectors.toList());
+
+		TaxBrackets brackets = TaxBrackets.forYear(month.getYear());
+		Map<Long, Double> taxRates = new HashMap<>(); // by annual salary
+		int n = due.size();
+		double[] salaries = new double[n];
+		LocalDate[] startDates = new LocalDate[n];
+		double[] productivityRates = new double[n];
+		double[] trienniumSalaries = new double[n];
+		long[] billed = new long[n];
+		double[] rates = new double[n];
+		for (int i = 0; i < n; i++) {
+			Contract c = due.get(i);
+			ProfessionalGroup group = c.getProfessionalGroup();
+			salaries[i] = c.getAnnualBaseSalary();
+			startDates[i] = c.getStartDate();
+			productivityRates[i] = group.getProductivityRate();
+			trienniumSalaries[i] = group.getTrienniumSalary();
+			billed[i] = c.getMechanic()
+					.getMonthlyWork(month)
+					.getBilledAmountInCents();
+			rates[i] = taxRates.computeIfAbsent(c.getAnnualBaseSalaryInCents(),
+					salary -> brackets.rateFor(Cents.toDouble(salary)));
+		}
+
+		Payroll[] payrolls = new Payroll[n];
+		IntStream indexes = n < PARALLEL_THRESHOLD
+				? IntStream.range(0, n)
+				: IntStream.range(0, n).parallel();
+		indexes.forEach(i -> payrolls[i] = new Payroll(date, salaries[i],
+				startDates[i], productivityRates[i], trienniumSalaries[i],
+				billed[i], rates[i]));
+
+		for (int i = 0; i < n; i++) {
+			Associations.Runs.link(due.get(i), payrolls[i]);
+		}
+		return Arrays.asList(payrolls);
+	}
+
+}
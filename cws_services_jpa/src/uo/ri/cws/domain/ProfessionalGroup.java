@@ -0,0 +1,90 @@
+package uo.ri.cws.domain;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import uo.ri.cws.domain.base.BaseEntity;
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.math.Cents;
+
+public class ProfessionalGroup extends BaseEntity {
+	// natural attributes
+	private String name;
+	private long trienniumSalary; // in cents, per month and triennium
+	private double productivityPlus; // rate over the interventions invoiced
+
+	// accidental attributes
+	private Set<Contract> contracts = new HashSet<>();
+
+	ProfessionalGroup() {} // for JPA
+
+	public ProfessionalGroup(String name, double trienniumSalary,
+			double productivityPlus) {
+		ArgumentChecks.isNotBlank(name, "Invalid name");
+		ArgumentChecks.isTrue(trienniumSalary >= 0,
+				"Invalid negative triennium salary");
+		ArgumentChecks.isTrue(productivityPlus >= 0,
+				"Invalid negative productivity plus");
+		this.name = name;
+		this.trienniumSalary = Cents.of(trienniumSalary);
+		this.productivityPlus = productivityPlus;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public double getTrienniumSalary() {
+		return Cents.toDouble(trienniumSalary);
+	}
+
+	/**
+	 * @return the rate (e.g. 0.05) over the amount of the work orders the
+	 * 	mechanic worked on and were invoiced in the month
+	 */
+	public double getProductivityRate() {
+		return productivityPlus;
+	}
+
+	public Set<Contract> getContracts() {
+		return new HashSet<>( contracts );
+	}
+
+	/**
+	 * @return a read-only live view of the contracts, no copy is made
+	 */
+	public Set<Contract> getContractsView() {
+		return Collections.unmodifiableSet(contracts);
+	}
+
+	Set<Contract> _getContracts() {
+		return contracts;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ProfessionalGroup other = (ProfessionalGroup) obj;
+		return Objects.equals(name, other.name);
+	}
+
+	@Override
+	public String toString() {
+		return "ProfessionalGroup [name=" + name
+				+ ", trienniumSalary=" + Cents.toString(trienniumSalary)
+				+ ", productivityPlus=" + productivityPlus + "]";
+	}
+
+}
@@ -0,0 +1,30 @@
+package uo.ri.cws.domain;
+
+/**
+ * Units of a spare part to order to get its stock up to maxStock, as
+ * suggested by the ReorderEngine
+ */
+public class PurchaseSuggestion {
+	private final SparePart sparePart;
+	private final int quantity;
+
+	PurchaseSuggestion(SparePart sparePart, int quantity) {
+		this.sparePart = sparePart;
+		this.quantity = quantity;
+	}
+
+	public SparePart getSparePart() {
+		return sparePart;
+	}
+
+	public int getQuantity() {
+		return quantity;
+	}
+
+	@Override
+	public String toString() {
+		return "PurchaseSuggestion [code=" + sparePart.getCode()
+				+ ", quantity=" + quantity + "]";
+	}
+
+}
@@ -0,0 +1,98 @@
+package uo.ri.cws.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+
+/**
+ * Suggests purchases of the spare parts it watches. The substitution that
+ * takes the stock of a part below its minStock queues the part here (see
+ * SparePart), and nothing else is done then. The queue is processed in
+ * batches, e.g. by a periodic task, and a suggestion is made for every
+ * part still below its minimum, for the units up to its maxStock.
+ *
+ * A part is queued once until it is processed, however many substitutions
+ * take from it meanwhile. The substitutions of several workshops can queue
+ * parts while a batch is processed.
+ */
+public class ReorderEngine {
+	private final Queue<SparePart> queued = new ConcurrentLinkedQueue<>();
+	private final Set<SparePart> pending = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Starts watching the part; if it is already below its minimum it is
+	 * queued
+	 * @throws IllegalArgumentException if the part is null
+	 * @throws IllegalStateException if another engine watches the part
+	 */
+	public void watch(SparePart sparePart) {
+		ArgumentChecks.isNotNull(sparePart, "Invalid null spare part");
+		StateChecks.isTrue(sparePart._getReorderEngine() == null
+				|| sparePart._getReorderEngine() == this,
+				"The spare part is watched by another engine");
+
+		sparePart._setReorderEngine(this);
+		if (sparePart.isBelowMinStock()) {
+			_belowMinStock(sparePart);
+		}
+	}
+
+	public void unwatch(SparePart sparePart) {
+		ArgumentChecks.isNotNull(sparePart, "Invalid null spare part");
+		if (sparePart._getReorderEngine() != this) return;
+
+		sparePart._setReorderEngine(null);
+		pending.remove(sparePart);
+		queued.remove(sparePart);
+	}
+
+	/**
+	 * Processes all the parts queued
+	 * @see #processBatch(int)
+	 */
+	public List<PurchaseSuggestion> processBatch() {
+		return processBatch(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Processes up to maxParts of the parts queued, the first queued first
+	 * @return a suggestion for every part processed still below its
+	 * 	minimum with units to order; a part restocked meanwhile gets none
+	 * @throws IllegalArgumentException if maxParts is not positive
+	 */
+	public List<PurchaseSuggestion> processBatch(int maxParts) {
+		ArgumentChecks.isTrue(maxParts > 0, "Invalid batch size");
+
+		List<PurchaseSuggestion> res = new ArrayList<>();
+		SparePart part;
+		for (int i = 0; i < maxParts && (part = queued.poll()) != null; i++) {
+			// from now on a new crossing queues it again
+			pending.remove(part);
+			int quantity = part.getQuantityToOrder();
+			if (part.isBelowMinStock() && quantity > 0) {
+				res.add(new PurchaseSuggestion(part, quantity));
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * @return the number of parts queued, not processed yet
+	 */
+	public int getQueued() {
+		return pending.size();
+	}
+
+	void _belowMinStock(SparePart sparePart) {
+		if (pending.add(sparePart)) {
+			queued.add(sparePart);
+		}
+	}
+
+}
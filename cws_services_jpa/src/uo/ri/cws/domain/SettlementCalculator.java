@@ -0,0 +1,110 @@
+package uo.ri.cws.domain;
+
+import java.util.Arrays;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.math.Cents;
+
+/**
+ * Settlements of many contracts at once, as Contract.terminate computes
+ * them, for audits that re-run the settlement of every contract in history
+ * or for mass layoffs.
+ *
+ * The contracts come as columns of primitive arrays, one position per
+ * contract, so no Contract nor LocalDate is built or navigated: the months
+ * of service are computed from the epoch days with integer arithmetic.
+ * Large batches are split among the threads of the common fork-join pool.
+ */
+public class SettlementCalculator {
+	private static final int PARALLEL_THRESHOLD = 10_000; // contracts
+	private static final int MONTHS_IN_YEAR = 12;
+	private static final int DAYS_IN_YEAR = 365;
+
+	// a date packed as proleptic month * 32 + day of month, as LocalDate
+	// does to compute the months between two dates
+	private static final int DAY_BITS = 5;
+
+	/**
+	 * @param startDays, the epoch day of the start date of every contract
+	 * @param endDays, the epoch day of its end date, included
+	 * @param annualGrossSalaries, the gross salary of its last twelve
+	 * 	payrolls (see Contract.getLastAnnualGrossSalary)
+	 * @param compensationDays, the compensation days per year of service of
+	 * 	its contract type
+	 * @return the settlement of every contract, in cents, in the same
+	 * 	position
+	 * @throws IllegalArgumentException if any array is null, they are not
+	 * 	of the same length or an end date is before its start date
+	 */
+	public long[] settle(int[] startDays, int[] endDays,
+			double[] annualGrossSalaries, double[] compensationDays) {
+		ArgumentChecks.isNotNull(startDays, "Invalid null start days");
+		ArgumentChecks.isNotNull(endDays, "Invalid null end days");
+		ArgumentChecks.isNotNull(annualGrossSalaries,
+				"Invalid null annual gross salaries");
+		ArgumentChecks.isNotNull(compensationDays,
+				"Invalid null compensation days");
+		int n = startDays.length;
+		ArgumentChecks.isTrue(endDays.length == n
+				&& annualGrossSalaries.length == n
+				&& compensationDays.length == n,
+				"The arrays are not of the same length");
+		for (int i = 0; i < n; i++) {
+			ArgumentChecks.isTrue(endDays[i] >= startDays[i],
+					"The end date cannot be before the start date");
+		}
+
+		long[] res = new long[n];
+		if (n < PARALLEL_THRESHOLD) {
+			for (int i = 0; i < n; i++) {
+				res[i] = settlement(startDays[i], endDays[i],
+						annualGrossSalaries[i], compensationDays[i]);
+			}
+		} else {
+			Arrays.parallelSetAll(res, i -> settlement(startDays[i], endDays[i],
+					annualGrossSalaries[i], compensationDays[i]));
+		}
+		return res;
+	}
+
+	private static long settlement(int startDay, int endDay,
+			double annualGrossSalary, double compensationDays) {
+		long months = (packed(endDay + 1L) - packed(startDay)) >> DAY_BITS;
+		return settlement(months, annualGrossSalary, compensationDays);
+	}
+
+	/**
+	 * @return the compensation days for every full year of the months of
+	 * 	service, at the daily gross salary, in cents; shared with
+	 * 	Contract.terminate so both compute the same
+	 */
+	static long settlement(long months, double annualGrossSalary,
+			double compensationDays) {
+		long years = months / MONTHS_IN_YEAR;
+		if (years == 0) return 0;
+
+		return Cents.of(years * annualGrossSalary / DAYS_IN_YEAR
+				* compensationDays);
+	}
+
+	/*
+	 * Civil date from the epoch day (H. Hinnant, chrono-compatible
+	 * low-level date algorithms): years start in March, so the leap day is
+	 * the last of the year, in eras of 400 years of 146,097 days
+	 */
+	private static long packed(long epochDay) {
+		long z = epochDay + 719_468; // days from 0000-03-01
+		long era = Math.floorDiv(z, 146_097);
+		long dayOfEra = z - era * 146_097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524
+				- dayOfEra / 146_096) / 365;
+		long dayOfYear = dayOfEra
+				- (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long marchMonth = (5 * dayOfYear + 2) / 153; // 0 is March
+		long day = dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+		long month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+		long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+		return ((year * MONTHS_IN_YEAR + month - 1) << DAY_BITS) + day;
+	}
+
+}
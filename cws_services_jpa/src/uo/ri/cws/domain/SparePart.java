@@ -1,32 +1,55 @@
 package uo.ri.cws.domain;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import uo.ri.cws.domain.base.VersionedEntity;
 import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.concurrent.VarHandles;
+import uo.ri.util.math.Cents;
+
+public class SparePart extends VersionedEntity {
+	private static final VarHandle STOCK = VarHandles.ofInt(
+			MethodHandles.lookup(), SparePart.class, "stock");
 
-public class SparePart {
 	private String ERROR_MSG = "Invalid";
 	// natural attributes
 	private String code;
 	private String description;
-	private double price;
-	private int stock;
+	private long price; // in cents
+	private volatile int stock; // atomic
 	private int minStock;
 	private int maxStock;
+	private ReorderEngine reorderEngine; // not persistent
 
 	// accidental attributes
 	private Set<Substitution> substitutions = new HashSet<>();
 
-	public Set<Substitution> getSubstitutions() {
+	/**
+	 * @return a copy, safe while substitutions are made from other threads
+	 */
+	public synchronized Set<Substitution> getSubstitutions() {
 		return new HashSet<>( substitutions );
 	}
 
+	/**
+	 * @return a read-only live view of the substitutions, no copy is made;
+	 * 	not to be read while substitutions are made from other threads
+	 */
+	public Set<Substitution> getSubstitutionsView() {
+		return Collections.unmodifiableSet(substitutions);
+	}
+
 	Set<Substitution> _getSubstitutions() {
-		return Set.copyOf(substitutions);
+		return substitutions;
 	}
 
+	SparePart() {} // for JPA
+
 	public SparePart(String code, String description, double price, int stock,
 			int minStock, int maxStock) {
 		super();
@@ -39,7 +62,7 @@ public class SparePart {
 
 		this.code = code;
 		this.description = description;
-		this.price = price;
+		this.price = Cents.of(price);
 		this.stock = stock;
 		this.minStock = minStock;
 		this.maxStock = maxStock;
@@ -49,7 +72,7 @@ public class SparePart {
 		this(code, "no-description", 0);
 	}
 
-	public SparePart(String code, String description, int precio) {
+	public SparePart(String code, String description, double precio) {
 		this(code, description, precio, 0, 0, 0);
 	}
 
@@ -62,6 +85,10 @@ public class SparePart {
 	}
 
 	public double getPrice() {
+		return Cents.toDouble(price);
+	}
+
+	long getPriceInCents() {
 		return price;
 	}
 
@@ -69,6 +96,50 @@ public class SparePart {
 		return stock;
 	}
 
+	/**
+	 * Adds the units received, e.g. from a purchase
+	 * @throws IllegalArgumentException if the quantity is negative
+	 */
+	public void addToStock(int quantity) {
+		ArgumentChecks.isTrue(quantity >= 0, "Invalid negative quantity");
+		STOCK.getAndAdd(this, quantity);
+	}
+
+	public boolean isBelowMinStock() {
+		return stock < minStock;
+	}
+
+	/**
+	 * @return the units to order to get the stock up to maxStock, zero if
+	 * 	it is already there
+	 */
+	public int getQuantityToOrder() {
+		return Math.max(0, maxStock - stock);
+	}
+
+	/**
+	 * Takes the units used by a substitution from the stock, in a single
+	 * atomic step, so substitutions made at the same time by several
+	 * workshops do not lose any. The stock can go below zero: those units
+	 * are owed and will be ordered. Only the substitution that takes the
+	 * stock below minStock tells the reorder engine watching the part
+	 */
+	void _takeFromStock(int quantity) {
+		int before = (int) STOCK.getAndAdd(this, -quantity);
+		int after = before - quantity;
+		if (before >= minStock && after < minStock && reorderEngine != null) {
+			reorderEngine._belowMinStock(this);
+		}
+	}
+
+	ReorderEngine _getReorderEngine() {
+		return reorderEngine;
+	}
+
+	void _setReorderEngine(ReorderEngine reorderEngine) {
+		this.reorderEngine = reorderEngine;
+	}
+
 	public int getMinStock() {
 		return minStock;
 	}
@@ -97,7 +168,7 @@ public class SparePart {
 	@Override
 	public String toString() {
 		return "SparePart [code=" + code + ", description=" + description
-				+ ", price=" + price + ", stock=" + stock + ", minStock="
+				+ ", price=" + Cents.toString(price) + ", stock=" + stock + ", minStock="
 				+ minStock + ", maxStock=" + maxStock + ", substitutions="
 				+ substitutions + "]";
 	}
@@ -0,0 +1,230 @@
+package uo.ri.cws.domain;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import uo.ri.util.assertion.ArgumentChecks;
+
+/**
+ * In memory catalogue of spare parts for the counter, found by code in
+ * O(1) and by a prefix of their code or description in O(log n + k).
+ *
+ * The parts are kept in an array and the code index is an open addressing
+ * table of longs (linear probing, at most half full): the high half of
+ * every slot is the hash of the code and the low half the position of the
+ * part plus one, zero for free slots. There is no entry object per part,
+ * and a probe only reads the part when the hash matches. Two more arrays
+ * keep the parts sorted by code and by description for the prefix
+ * searches. For N parts it takes 8 bytes per slot, 2N to 4N slots, plus
+ * three references per part: about 56 MB for 2M parts, besides the parts.
+ *
+ * The contents are replaced as a whole by reload, which builds a new
+ * snapshot and then publishes it: lookups are never blocked and see either
+ * the old or the new catalogue, never a mix, and a reload that fails
+ * leaves the old one in place.
+ */
+public class SparePartCatalogue {
+
+	private static final Comparator<SparePart> BY_CODE =
+			Comparator.comparing(SparePart::getCode);
+	private static final Comparator<SparePart> BY_DESCRIPTION =
+			Comparator.comparing(SparePart::getDescription,
+					String.CASE_INSENSITIVE_ORDER)
+				.thenComparing(BY_CODE);
+
+	private static final String SEPARATOR = ";";
+	private static final int FIELDS = 6;
+
+	private volatile Snapshot snapshot = new Snapshot(new SparePart[0]);
+
+	/**
+	 * @return the part with that code, if there is one
+	 */
+	public Optional<SparePart> findByCode(String code) {
+		ArgumentChecks.isNotNull(code, "Invalid null code");
+		return Optional.ofNullable(snapshot.get(code));
+	}
+
+	/**
+	 * @return up to limit parts whose code starts with the prefix, sorted
+	 * 	by code
+	 */
+	public List<SparePart> findByCodePrefix(String prefix, int limit) {
+		ArgumentChecks.isNotNull(prefix, "Invalid null prefix");
+		ArgumentChecks.isTrue(limit > 0, "Invalid limit");
+		Snapshot s = snapshot;
+		return s.range(s.byCode, SparePart::getCode, prefix, false, limit);
+	}
+
+	/**
+	 * @return up to limit parts whose description starts with the prefix,
+	 * 	ignoring case, sorted by description
+	 */
+	public List<SparePart> findByDescriptionPrefix(String prefix, int limit) {
+		ArgumentChecks.isNotNull(prefix, "Invalid null prefix");
+		ArgumentChecks.isTrue(limit > 0, "Invalid limit");
+		Snapshot s = snapshot;
+		return s.range(s.byDescription, SparePart::getDescription, prefix,
+				true, limit);
+	}
+
+	public int size() {
+		return snapshot.parts.length;
+	}
+
+	/**
+	 * Replaces the contents of the catalogue with these parts
+	 * @throws IllegalArgumentException if any part is null or two of them
+	 * 	have the same code
+	 */
+	public void reload(Collection<SparePart> parts) {
+		ArgumentChecks.isNotNull(parts, "Invalid null parts");
+		snapshot = new Snapshot(parts.toArray(new SparePart[0]));
+	}
+
+	/**
+	 * Replaces the contents of the catalogue with the parts in the file,
+	 * one per line, UTF-8:
+	 *
+	 * 	code;description;price;stock;minStock;maxStock
+	 *
+	 * Blank lines and lines starting with # are skipped.
+	 * @throws IllegalArgumentException if any line is not valid, naming it,
+	 * 	or two parts have the same code
+	 * @throws IOException if the file cannot be read
+	 */
+	public void reload(Path csv) throws IOException {
+		ArgumentChecks.isNotNull(csv, "Invalid null file");
+		List<SparePart> parts = new ArrayList<>();
+		try (BufferedReader reader = Files.newBufferedReader(csv,
+				StandardCharsets.UTF_8)) {
+			String line;
+			int number = 0;
+			while ((line = reader.readLine()) != null) {
+				number++;
+				if (line.isBlank() || line.startsWith("#")) continue;
+				parts.add(parse(line, number));
+			}
+		}
+		reload(parts);
+	}
+
+	private SparePart parse(String line, int number) {
+		String[] fields = line.split(SEPARATOR, -1);
+		try {
+			ArgumentChecks.isTrue(fields.length == FIELDS,
+					"Expected " + FIELDS + " fields");
+			return new SparePart(fields[0].trim(), fields[1].trim(),
+					Double.parseDouble(fields[2].trim()),
+					Integer.parseInt(fields[3].trim()),
+					Integer.parseInt(fields[4].trim()),
+					Integer.parseInt(fields[5].trim()));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(
+					"Invalid line " + number + ": " + e.getMessage(), e);
+		}
+	}
+
+	private static class Snapshot {
+		private final SparePart[] parts;
+		private final long[] slots;
+		private final int shift;
+		private final SparePart[] byCode;
+		private final SparePart[] byDescription;
+
+		Snapshot(SparePart[] parts) {
+			this.parts = parts;
+			int bits = 32 - Integer.numberOfLeadingZeros(
+					Math.max(1, parts.length) * 2 - 1);
+			this.slots = new long[1 << bits];
+			this.shift = 32 - bits;
+			for (int i = 0; i < parts.length; i++) {
+				ArgumentChecks.isNotNull(parts[i], "Invalid null part");
+				insert(parts[i].getCode(), i);
+			}
+			this.byCode = sorted(BY_CODE);
+			this.byDescription = sorted(BY_DESCRIPTION);
+		}
+
+		SparePart get(String code) {
+			int hash = code.hashCode();
+			int mask = slots.length - 1;
+			for (int i = indexFor(hash); ; i = (i + 1) & mask) {
+				long slot = slots[i];
+				if (slot == 0) return null;
+				if ((int) (slot >>> 32) == hash) {
+					SparePart part = parts[(int) slot - 1];
+					if (part.getCode().equals(code)) return part;
+				}
+			}
+		}
+
+		private void insert(String code, int position) {
+			int hash = code.hashCode();
+			int mask = slots.length - 1;
+			int i = indexFor(hash);
+			for (; slots[i] != 0; i = (i + 1) & mask) {
+				if ((int) (slots[i] >>> 32) == hash) {
+					ArgumentChecks.isTrue(
+							!parts[(int) slots[i] - 1].getCode().equals(code),
+							"Repeated code " + code);
+				}
+			}
+			slots[i] = ((long) hash << 32) | (position + 1);
+		}
+
+		/*
+		 * Fibonacci hashing: codes that differ in the last chars have close
+		 * String hashes, which would fill runs of contiguous slots
+		 */
+		private int indexFor(int hash) {
+			return (hash * 0x9E3779B9) >>> shift;
+		}
+
+		private SparePart[] sorted(Comparator<SparePart> order) {
+			SparePart[] res = parts.clone();
+			Arrays.sort(res, order);
+			return res;
+		}
+
+		List<SparePart> range(SparePart[] sorted,
+				Function<SparePart, String> key,
+				String prefix, boolean ignoreCase, int limit) {
+			Comparator<String> order = ignoreCase
+					? String.CASE_INSENSITIVE_ORDER
+					: Comparator.naturalOrder();
+
+			int low = 0, high = sorted.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (order.compare(key.apply(sorted[mid]), prefix) < 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+
+			List<SparePart> res = new ArrayList<>();
+			for (int i = low; i < sorted.length && res.size() < limit; i++) {
+				String value = key.apply(sorted[i]);
+				if (!value.regionMatches(ignoreCase, 0, prefix, 0,
+						prefix.length())) {
+					break;
+				}
+				res.add(sorted[i]);
+			}
+			return res;
+		}
+	}
+
+}
@@ -2,9 +2,11 @@ package uo.ri.cws.domain;
 
 import java.util.Objects;
 
+import uo.ri.cws.domain.base.BaseEntity;
 import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.math.Cents;
 
-public class Substitution {
+public class Substitution extends BaseEntity {
 	// natural attributes
 	private int quantity;
 
@@ -14,14 +16,27 @@ public class Substitution {
 
 
 
+	Substitution() {} // for JPA
+
+	/**
+	 * @throws IllegalStateException if the spare part is already substituted
+	 * 	in the intervention
+	 */
 	public Substitution(SparePart sparePart, Intervention intervention,
 			int cantidad) {
 		ArgumentChecks.isNotNull(intervention, "INvalid null intervention");
 		ArgumentChecks.isNotNull(sparePart, "Invalid null spare part");
 		ArgumentChecks.isTrue(cantidad >= 0, "Invalid negative quantity");
-		this.intervention =intervention;
 		this.quantity = cantidad;
-		this.sparePart = sparePart;
+		Associations.Substitutes.link(sparePart, this, intervention);
+	}
+
+	public double getAmount() {
+		return Cents.toDouble(getAmountInCents());
+	}
+
+	long getAmountInCents() {
+		return Cents.multiply(sparePart.getPriceInCents(), quantity);
 	}
 
 	public int getQuantity() {
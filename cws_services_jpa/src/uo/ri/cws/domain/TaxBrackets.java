@@ -0,0 +1,120 @@
+package uo.ri.cws.domain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+
+/**
+ * Withholding brackets of a fiscal year, by annual base salary.
+ *
+ * The brackets are kept as two parallel arrays sorted by the lowest salary
+ * of each one, so the rate of a salary is found with a binary search and
+ * no object is allocated per lookup. The brackets of every year are loaded
+ * once, see forYear(year).
+ */
+public class TaxBrackets {
+
+	private static final String RESOURCE = "tax_brackets.properties";
+	private static final char YEAR_SEPARATOR = '/';
+
+	private static NavigableMap<Integer, TaxBrackets> defaultBrackets;
+
+	private final double[] from; // lowest annual base salary, included
+	private final double[] rates; // in %
+
+	/**
+	 * @param brackets, the rate (in %) of each bracket, keyed by the lowest
+	 * 	annual base salary it applies to; the first one must start at 0
+	 * @throws IllegalArgumentException if there is no bracket starting at
+	 * 	0 or any salary or rate is negative
+	 */
+	public TaxBrackets(Map<Double, Double> brackets) {
+		ArgumentChecks.isNotNull(brackets, "Invalid null brackets");
+		TreeMap<Double, Double> sorted = new TreeMap<>(brackets);
+		ArgumentChecks.isTrue(!sorted.isEmpty() && sorted.firstKey() == 0.0,
+				"There must be a bracket starting at 0");
+
+		this.from = new double[sorted.size()];
+		this.rates = new double[sorted.size()];
+		int i = 0;
+		for (Map.Entry<Double, Double> e : sorted.entrySet()) {
+			ArgumentChecks.isTrue(e.getKey() >= 0, "Invalid negative salary");
+			ArgumentChecks.isNotNull(e.getValue(), "Invalid null rate");
+			ArgumentChecks.isTrue(e.getValue() >= 0, "Invalid negative rate");
+			from[i] = e.getKey();
+			rates[i] = e.getValue();
+			i++;
+		}
+	}
+
+	/**
+	 * @return the brackets of the fiscal year, from tax_brackets.properties
+	 * 	next to this class: the ones of the latest year listed up to it
+	 * @throws IllegalStateException if the first year listed is later
+	 */
+	public static TaxBrackets forYear(int fiscalYear) {
+		Map.Entry<Integer, TaxBrackets> e = getDefault().floorEntry(fiscalYear);
+		StateChecks.isNotNull(e, "No tax brackets for " + fiscalYear);
+		return e.getValue();
+	}
+
+	private static synchronized NavigableMap<Integer, TaxBrackets> getDefault() {
+		if (defaultBrackets == null) {
+			defaultBrackets = load(RESOURCE);
+		}
+		return defaultBrackets;
+	}
+
+	/**
+	 * Loads the brackets of every year from a classpath resource, relative
+	 * to this class, with lines in the form year/salary=rate
+	 */
+	static NavigableMap<Integer, TaxBrackets> load(String resource) {
+		Properties props = new Properties();
+		try (InputStream in = TaxBrackets.class.getResourceAsStream(resource)) {
+			StateChecks.isNotNull(in, "Missing tax brackets file " + resource);
+			props.load(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		Map<Integer, Map<Double, Double>> years = new HashMap<>();
+		for (String key : props.stringPropertyNames()) {
+			int sep = key.indexOf(YEAR_SEPARATOR);
+			StateChecks.isTrue(sep > 0, "Invalid tax bracket " + key);
+			int year = Integer.parseInt(key.substring(0, sep).trim());
+			double salary = Double.parseDouble(key.substring(sep + 1).trim());
+			years.computeIfAbsent(year, y -> new HashMap<>())
+					.put(salary, Double.valueOf(props.getProperty(key).trim()));
+		}
+
+		NavigableMap<Integer, TaxBrackets> res = new TreeMap<>();
+		years.forEach((year, brackets) ->
+				res.put(year, new TaxBrackets(brackets)));
+		return res;
+	}
+
+	/**
+	 * @return the withholding rate (in %) of the annual base salary
+	 * @throws IllegalArgumentException if the salary is negative
+	 */
+	public double rateFor(double annualBaseSalary) {
+		ArgumentChecks.isTrue(annualBaseSalary >= 0, "Invalid negative salary");
+
+		int pos = Arrays.binarySearch(from, annualBaseSalary);
+		if (pos < 0) {
+			pos = -pos - 2; // the bracket is the previous one
+		}
+		return rates[pos];
+	}
+
+}
@@ -0,0 +1,100 @@
+package uo.ri.cws.domain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+
+/**
+ * Table of VAT regimes indexed by the date each one comes into force.
+ *
+ * The regimes are kept as two parallel arrays sorted by date (as epoch
+ * days), so the rate in force at a date is found with a binary search
+ * and no object is allocated per lookup.
+ */
+public class VatRates {
+
+	private static final String RESOURCE = "vat_rates.properties";
+
+	private static VatRates defaultRates;
+
+	private final long[] since; // epoch day each regime comes into force
+	private final double[] rates; // in %
+
+	/**
+	 * @param regimes, the rate (in %) of each regime, keyed by the first
+	 * 	date it is in force
+	 * @throws IllegalArgumentException if there are no regimes or any
+	 * 	rate is negative
+	 */
+	public VatRates(Map<LocalDate, Double> regimes) {
+		ArgumentChecks.isNotNull(regimes, "Invalid null regimes");
+		ArgumentChecks.isTrue(!regimes.isEmpty(), "There must be a regime");
+
+		TreeMap<LocalDate, Double> sorted = new TreeMap<>(regimes);
+		this.since = new long[sorted.size()];
+		this.rates = new double[sorted.size()];
+		int i = 0;
+		for (Map.Entry<LocalDate, Double> e : sorted.entrySet()) {
+			ArgumentChecks.isNotNull(e.getValue(), "Invalid null rate");
+			ArgumentChecks.isTrue(e.getValue() >= 0, "Invalid negative rate");
+			since[i] = e.getKey().toEpochDay();
+			rates[i] = e.getValue();
+			i++;
+		}
+	}
+
+	/**
+	 * @return the table loaded from vat_rates.properties, next to this class
+	 */
+	public static synchronized VatRates getDefault() {
+		if (defaultRates == null) {
+			defaultRates = load(RESOURCE);
+		}
+		return defaultRates;
+	}
+
+	/**
+	 * Loads the regimes from a classpath resource, relative to this class,
+	 * with lines in the form yyyy-MM-dd=rate
+	 */
+	static VatRates load(String resource) {
+		Properties props = new Properties();
+		try (InputStream in = VatRates.class.getResourceAsStream(resource)) {
+			StateChecks.isNotNull(in, "Missing vat rates file " + resource);
+			props.load(in);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		Map<LocalDate, Double> regimes = new TreeMap<>();
+		for (String date : props.stringPropertyNames()) {
+			regimes.put(LocalDate.parse(date.trim()),
+					Double.valueOf(props.getProperty(date).trim()));
+		}
+		return new VatRates(regimes);
+	}
+
+	/**
+	 * @return the vat rate (in %) in force at the date
+	 * @throws IllegalStateException if there is no regime in force yet
+	 */
+	public double rateAt(LocalDate date) {
+		ArgumentChecks.isNotNull(date, "Invalid null date");
+
+		int pos = Arrays.binarySearch(since, date.toEpochDay());
+		if (pos < 0) {
+			pos = -pos - 2; // the regime in force is the previous one
+		}
+		StateChecks.isTrue(pos >= 0, "No vat regime in force at " + date);
+		return rates[pos];
+	}
+
+}
@@ -1,10 +1,13 @@
 package uo.ri.cws.domain;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
-public class Vehicle {
+import uo.ri.cws.domain.base.BaseEntity;
+
+public class Vehicle extends BaseEntity {
 	
 	/*
 	 * Atributos naturales
@@ -28,6 +31,13 @@ public class Vehicle {
 		return new HashSet<>(workOrders);
 	}
 
+	/**
+	 * @return a read-only live view of the work orders, no copy is made
+	 */
+	public Set<WorkOrder> getWorkOrdersView() {
+		return Collections.unmodifiableSet(workOrders);
+	}
+
 	public String getPlateNumber() {
 		return plateNumber;
 	}
@@ -40,6 +50,8 @@ public class Vehicle {
 		return model;
 	}
 
+	Vehicle() {} // for JPA
+
 	public Vehicle(String plateNumber, String make, String model) {
 		super();
 		this.plateNumber = plateNumber;
@@ -56,14 +68,13 @@ public class Vehicle {
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
+		// a lazy proxy is a subclass, with its state behind the getters
+		if (!(obj instanceof Vehicle))
 			return false;
 		Vehicle other = (Vehicle) obj;
-		return Objects.equals(make, other.make)
-				&& Objects.equals(model, other.model)
-				&& Objects.equals(plateNumber, other.plateNumber);
+		return Objects.equals(make, other.getMake())
+				&& Objects.equals(model, other.getModel())
+				&& Objects.equals(plateNumber, other.getPlateNumber());
 	}
 
 	@Override
@@ -1,13 +1,17 @@
 package uo.ri.cws.domain;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
-public class VehicleType {
+import uo.ri.cws.domain.base.BaseEntity;
+import uo.ri.util.math.Cents;
+
+public class VehicleType extends BaseEntity {
 	// natural attributes
 	private String name;
-	private double pricePerHour;
+	private long pricePerHour; // in cents
 
 	// accidental attributes
 	private Set<Vehicle> vehicles = new HashSet<>();
@@ -16,14 +20,23 @@ public class VehicleType {
 		return new HashSet<>( vehicles );
 	}
 
+	/**
+	 * @return a read-only live view of the vehicles, no copy is made
+	 */
+	public Set<Vehicle> getVehiclesView() {
+		return Collections.unmodifiableSet(vehicles);
+	}
+
 	Set<Vehicle> _getVehicles() {
-		return Set.copyOf(vehicles);
+		return vehicles;
 	}
 
+	VehicleType() {} // for JPA
+
 	public VehicleType(String name, double pricePerHour) {
 		super();
 		this.name = name;
-		this.pricePerHour = pricePerHour;
+		this.pricePerHour = Cents.of(pricePerHour);
 	}
 
 	public String getName() {
@@ -31,6 +44,10 @@ public class VehicleType {
 	}
 
 	public double getPricePerHour() {
+		return Cents.toDouble(pricePerHour);
+	}
+
+	long getPricePerHourInCents() {
 		return pricePerHour;
 	}
 
@@ -49,13 +66,13 @@ public class VehicleType {
 			return false;
 		VehicleType other = (VehicleType) obj;
 		return Objects.equals(name, other.name)
-				&& Double.doubleToLongBits(pricePerHour) == Double
-						.doubleToLongBits(other.pricePerHour);
+				&& pricePerHour == other.pricePerHour;
 	}
 
 	@Override
 	public String toString() {
-		return "VehicleType [name=" + name + ", pricePerHour=" + pricePerHour
+		return "VehicleType [name=" + name
+				+ ", pricePerHour=" + Cents.toString(pricePerHour)
 				+ ", vehicles=" + vehicles + "]";
 	}
 	
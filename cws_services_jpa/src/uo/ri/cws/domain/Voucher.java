@@ -1,26 +1,72 @@
 package uo.ri.cws.domain;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+import uo.ri.util.concurrent.VarHandles;
+import uo.ri.util.math.Cents;
+
 public class Voucher extends PaymentMean {
+	private static final VarHandle AVAILABLE = VarHandles.ofLong(
+			MethodHandles.lookup(), Voucher.class, "available");
+
 	private String code;
-	private double available = 0.0;
+	private volatile long available = Cents.ZERO; // in cents, atomic
 	private String description;
 
+	Voucher() {} // for JPA
+
+	public Voucher(String code, String description, double available) {
+		ArgumentChecks.isNotBlank(code, "Invalid code");
+		ArgumentChecks.isNotBlank(description, "Invalid description");
+		ArgumentChecks.isTrue(available >= 0, "Invalid negative available");
+		this.code = code;
+		this.description = description;
+		this.available = Cents.of(available);
+	}
+
 	/**
 	 * Augments the accumulated (super.pay(amount) ) and decrements the available
+	 * The available is checked and decremented in a single atomic step, so
+	 * concurrent payments never overdraw the voucher
 	 * @throws IllegalStateException if not enough available to pay
 	 */
 	@Override
 	public void pay(double amount) {
-
+		reserve(Cents.of(amount));
+		super.pay(amount);
 	}
 
 	/**
 	 * A voucher can pay if it has enough available to pay the amount
+	 * It is just a hint under concurrent payments, pay(...) checks it again
 	 */
 	@Override
 	public boolean canPay(Double amount) {
-		// TODO Auto-generated method stub
-		return false;
+		return Cents.of(amount) <= available;
+	}
+
+	/**
+	 * The amount of the charge was taken from the available when charged
+	 */
+	@Override
+	boolean canSettle(long amount) {
+		return true;
+	}
+
+	public double getAvailable() {
+		return Cents.toDouble(available);
+	}
+
+	private void reserve(long amount) {
+		long current;
+		do {
+			current = available;
+			StateChecks.isTrue(current >= amount,
+					"Not enough available in the voucher");
+		} while (!AVAILABLE.compareAndSet(this, current, current - amount));
 	}
 
 }
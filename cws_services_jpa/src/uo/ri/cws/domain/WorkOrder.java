@@ -1,14 +1,21 @@
 package uo.ri.cws.domain;
 
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
+import uo.ri.cws.domain.base.VersionedEntity;
 import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.Assert;
+import uo.ri.util.assertion.StateChecks;
+import uo.ri.util.math.Cents;
+import uo.ri.util.math.Hashes;
 
-public class WorkOrder {
+public class WorkOrder extends VersionedEntity {
 	public enum WorkOrderState {
 		OPEN,
 		ASSIGNED,
@@ -16,18 +23,33 @@ public class WorkOrder {
 		INVOICED
 	}
 
+	/*
+	 * When enabled (-Dcws.workorder.verifyAmount=true) every amount computed
+	 * from the incremental subtotals is cross-checked against a full walk
+	 * over the interventions and substitutions
+	 */
+	private static boolean verifyAmount =
+			Boolean.getBoolean("cws.workorder.verifyAmount");
+
 	// natural attributes
 	private LocalDateTime date;
 	private String description;
-	private double amount = 0.0;
+	private long amount = Cents.ZERO; // in cents
 	private WorkOrderState state = WorkOrderState.OPEN;
 
 	// accidental attributes
 	private Vehicle vehicle;
 	private Mechanic mechanic;
+	private int hash; // cached, 0 until computed; not persistent
 	private Invoice invoice;
 	private Set<Intervention> interventions = new HashSet<>();
 
+	// subtotals kept up to date by Associations.Intervenes and Substitutes
+	private long laborMinutes = 0;
+	private long sparePartsAmount = Cents.ZERO;
+
+	WorkOrder() {} // for JPA
+
 	public WorkOrder(Vehicle vehicle, LocalDateTime date, String description) {
 		super();
 		ArgumentChecks.isNotNull(vehicle, "Invalid null vehicle");
@@ -53,7 +75,11 @@ public class WorkOrder {
 	 *  - The work order is not linked with the invoice
 	 */
 	public void markAsInvoiced() {
-
+		StateChecks.isTrue(isFinished(), "The work order is not finished");
+		StateChecks.isNotNull(invoice,
+				"The work order is not linked with the invoice");
+		state = WorkOrderState.INVOICED;
+		addToMonthlyWorkOfMechanics(amount);
 	}
 
 	/**
@@ -65,7 +91,65 @@ public class WorkOrder {
 	 * 	- The work order is not in ASSIGNED state, or
 	 */
 	public void markAsFinished() {
+		StateChecks.isTrue(isAssigned(), "The work order is not assigned");
+
+		Associations.Assigns.unlink(mechanic, this);
+		computeAmount();
+		state = WorkOrderState.FINISHED;
+	}
+
+	/**
+	 * Computes the amount from the labor minutes and spare parts subtotals.
+	 * Both are maintained as interventions and substitutions get linked and
+	 * unlinked, so this does not depend on the number of interventions
+	 */
+	private void computeAmount() {
+		long incremental = laborAmount(laborMinutes) + sparePartsAmount;
+
+		if (verifyAmount) {
+			long expected = computeFullAmount();
+			Assert.isTrue(incremental == expected,
+					"Incremental amount " + Cents.toString(incremental)
+					+ " does not match the full recompute "
+					+ Cents.toString(expected));
+		}
+		amount = incremental;
+	}
+
+	/*
+	 * The labor is priced over the total minutes, thus rounded just once
+	 */
+	private long laborAmount(long minutes) {
+		if (minutes == 0) {
+			return Cents.ZERO;
+		}
+		StateChecks.isNotNull(vehicle.getVehicleType(),
+				"The vehicle has no vehicle type");
+		long pricePerHour = vehicle.getVehicleType().getPricePerHourInCents();
+		return Cents.ratio(pricePerHour, minutes, 60);
+	}
 
+	/**
+	 * Walks every intervention (and its substitutions) to compute the amount
+	 * in cents from scratch. Only used to verify the incremental subtotals
+	 */
+	long computeFullAmount() {
+		long minutes = 0;
+		long spareParts = Cents.ZERO;
+		for (Intervention i : interventions) {
+			minutes += i.getMinutes();
+			spareParts += i.getSparePartsAmountInCents();
+		}
+		return laborAmount(minutes) + spareParts;
+	}
+
+	static void setAmountVerification(boolean enabled) {
+		verifyAmount = enabled;
+	}
+
+	void _addToSubtotals(int minutes, long sparePartsAmount) {
+		this.laborMinutes += minutes;
+		this.sparePartsAmount += sparePartsAmount;
 	}
 
 	/**
@@ -76,7 +160,38 @@ public class WorkOrder {
 	 * 	- The work order is not INVOICED, or
 	 */
 	public void markBackToFinished() {
+		StateChecks.isTrue(isInvoiced(), "The work order is not invoiced");
+		state = WorkOrderState.FINISHED;
+		addToMonthlyWorkOfMechanics(-amount);
+	}
+
+	/*
+	 * The amount billed counts for the month of the work order of every
+	 * mechanic that worked on it, once each
+	 */
+	private void addToMonthlyWorkOfMechanics(long billed) {
+		Set<Mechanic> mechanics = new HashSet<>();
+		for (Intervention i : interventions) {
+			if (mechanics.add(i.getMechanic())) {
+				addToMonthlyWorkOf(i.getMechanic(), billed);
+			}
+		}
+	}
+
+	void addToMonthlyWorkOf(Mechanic mechanic, long billed) {
+		mechanic._addToMonthlyWork(YearMonth.from(date), 0, billed);
+	}
 
+	/**
+	 * @return true if the mechanic has any intervention on the work order
+	 */
+	boolean isWorkedOnBy(Mechanic mechanic) {
+		for (Intervention i : interventions) {
+			if (i.getMechanic().equals(mechanic)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -87,7 +202,11 @@ public class WorkOrder {
 	 * 	- The work order is not in OPEN state, or
 	 */
 	public void assignTo(Mechanic mechanic) {
+		ArgumentChecks.isNotNull(mechanic, "Invalid null mechanic");
+		StateChecks.isTrue(isOpen(), "The work order is not open");
 
+		Associations.Assigns.link(mechanic, this);
+		state = WorkOrderState.ASSIGNED;
 	}
 
 	/**
@@ -98,7 +217,10 @@ public class WorkOrder {
 	 * 	- The work order is not in ASSIGNED state
 	 */
 	public void unassign() {
+		StateChecks.isTrue(isAssigned(), "The work order is not assigned");
 
+		Associations.Assigns.unlink(mechanic, this);
+		state = WorkOrderState.OPEN;
 	}
 
 	/**
@@ -109,19 +231,29 @@ public class WorkOrder {
 	 * 	- The work order is not in FINISHED state
 	 */
 	public void reopen() {
+		StateChecks.isTrue(isFinished(), "The work order is not finished");
 
+		state = WorkOrderState.OPEN;
 	}
 
 	public Set<Intervention> getInterventions() {
 		return new HashSet<>( interventions );
 	}
 
+	/**
+	 * @return a read-only live view of the interventions, no copy is made
+	 */
+	public Set<Intervention> getInterventionsView() {
+		return Collections.unmodifiableSet(interventions);
+	}
+
 	Set<Intervention> _getInterventions() {
 		return interventions;
 	}
 
 	void _setVehicle(Vehicle vehicle) {
 		this.vehicle = vehicle;
+		this.hash = 0;
 	}
 
 	void _setMechanic(Mechanic mechanic) {
@@ -132,36 +264,81 @@ public class WorkOrder {
 		this.invoice = invoice;
 	}
 
-	public Object getMechanic() {
-		// TODO Auto-generated method stub
-		return null;
+	public Mechanic getMechanic() {
+		return mechanic;
+	}
+
+	public Invoice getInvoice() {
+		return invoice;
+	}
+
+	public LocalDateTime getDate() {
+		return date;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public double getAmount() {
+		return Cents.toDouble(amount);
+	}
+
+	public WorkOrderState getState() {
+		return state;
+	}
+
+	public boolean isOpen() {
+		return state == WorkOrderState.OPEN;
+	}
+
+	public boolean isAssigned() {
+		return state == WorkOrderState.ASSIGNED;
 	}
 
 	public boolean isFinished() {
 		return state==WorkOrderState.FINISHED;
 	}
 
+	public boolean isInvoiced() {
+		return state == WorkOrderState.INVOICED;
+	}
+
+	/**
+	 * Hash of the natural key, vehicle and date, as equals. It is computed
+	 * once and kept, as the key does not change once linked, so sets of
+	 * thousands of work orders of a fleet vehicle hash each one once; it
+	 * does not depend on the id, so it is the same before and after
+	 * persisting
+	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(vehicle);
+		int h = hash;
+		if (h == 0) {
+			h = Hashes.combine(Objects.hashCode(vehicle),
+					Objects.hashCode(date));
+			hash = h;
+		}
+		return h;
 	}
 
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
-		if (obj == null)
-			return false;
-		if (getClass() != obj.getClass())
+		// a lazy proxy is a subclass, with its state behind the getters
+		if (!(obj instanceof WorkOrder))
 			return false;
 		WorkOrder other = (WorkOrder) obj;
-		return Objects.equals(vehicle, other.vehicle);
+		return hashCode() == other.hashCode()
+				&& Objects.equals(vehicle, other.getVehicle())
+				&& Objects.equals(date, other.getDate());
 	}
 
 	@Override
 	public String toString() {
 		return "WorkOrder [date=" + date + ", description=" + description
-				+ ", amount=" + amount + ", state=" + state + ", vehicle="
+				+ ", amount=" + Cents.toString(amount) + ", state=" + state + ", vehicle="
 				+ vehicle + ", mechanic=" + mechanic + ", invoice=" + invoice
 				+ ", interventions=" + interventions + "]";
 	}
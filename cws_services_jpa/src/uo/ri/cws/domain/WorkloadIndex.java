@@ -0,0 +1,106 @@
+package uo.ri.cws.domain;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.assertion.StateChecks;
+
+/**
+ * Workload of the mechanics available to the dispatcher, indexed by nif
+ * and ordered by load: first the number of work orders assigned, then the
+ * minutes of their interventions (the nif breaks ties).
+ *
+ * The mechanics registered keep it up to date: their workload changes as
+ * work orders get assigned and unassigned (Associations.Assigns) and
+ * interventions linked and unlinked (Associations.Intervenes), and they
+ * are repositioned then in O(log n). A mechanic can be in one index only.
+ * It is not thread safe, as the rest of the domain.
+ */
+public class WorkloadIndex {
+
+	private static final Comparator<Mechanic> BY_LOAD =
+			Comparator.comparingInt(Mechanic::getAssignedCount)
+				.thenComparingLong(Mechanic::getInterventionMinutes)
+				.thenComparing(Mechanic::getNif);
+
+	private final Map<String, Mechanic> byNif = new HashMap<>();
+	private final TreeSet<Mechanic> byLoad = new TreeSet<>(BY_LOAD);
+
+	/**
+	 * Adds the mechanic to the index
+	 * @throws IllegalArgumentException if the mechanic is null, has no nif
+	 * 	or there is another mechanic with the same nif
+	 * @throws IllegalStateException if the mechanic is already in an index
+	 */
+	public void register(Mechanic mechanic) {
+		ArgumentChecks.isNotNull(mechanic, "Invalid null mechanic");
+		ArgumentChecks.isNotBlank(mechanic.getNif(), "Invalid nif");
+		ArgumentChecks.isTrue(!byNif.containsKey(mechanic.getNif()),
+				"Repeated nif");
+		StateChecks.isTrue(mechanic._getWorkloadIndex() == null,
+				"The mechanic is already in a workload index");
+
+		byNif.put(mechanic.getNif(), mechanic);
+		byLoad.add(mechanic);
+		mechanic._setWorkloadIndex(this);
+	}
+
+	/**
+	 * Takes the mechanic out of the index, if it is there
+	 */
+	public void unregister(Mechanic mechanic) {
+		ArgumentChecks.isNotNull(mechanic, "Invalid null mechanic");
+		if (mechanic._getWorkloadIndex() != this) return;
+
+		byLoad.remove(mechanic);
+		byNif.remove(mechanic.getNif());
+		mechanic._setWorkloadIndex(null);
+	}
+
+	/**
+	 * @return the mechanic with less work orders assigned and, among them,
+	 * 	less minutes of interventions; empty if there is none. O(log n)
+	 */
+	public Optional<Mechanic> leastLoaded() {
+		return byLoad.isEmpty() ? Optional.empty() : Optional.of(byLoad.first());
+	}
+
+	/**
+	 * Assigns the work order to the least loaded mechanic
+	 * @return the mechanic it was assigned to
+	 * @throws IllegalStateException if there is no mechanic registered or
+	 * 	the work order is not OPEN
+	 */
+	public Mechanic assign(WorkOrder workOrder) {
+		ArgumentChecks.isNotNull(workOrder, "Invalid null work order");
+		StateChecks.isTrue(!byLoad.isEmpty(), "There is no mechanic");
+
+		Mechanic mechanic = byLoad.first();
+		workOrder.assignTo(mechanic);
+		return mechanic;
+	}
+
+	public Optional<Mechanic> findByNif(String nif) {
+		return Optional.ofNullable(byNif.get(nif));
+	}
+
+	public int size() {
+		return byNif.size();
+	}
+
+	/*
+	 * The mechanic is taken out and put back when its workload changes
+	 */
+	void _remove(Mechanic mechanic) {
+		byLoad.remove(mechanic);
+	}
+
+	void _add(Mechanic mechanic) {
+		byLoad.add(mechanic);
+	}
+
+}
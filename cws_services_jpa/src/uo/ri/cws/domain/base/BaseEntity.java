@@ -0,0 +1,16 @@
+package uo.ri.cws.domain.base;
+
+/**
+ * Root of the persistent entities. Holds the surrogate key assigned by the
+ * persistence layer (see META-INF/orm.xml), the identity of the entities
+ * is still given by their natural attributes in equals and hashCode
+ */
+public abstract class BaseEntity {
+
+	private Long id;
+
+	public Long getId() {
+		return id;
+	}
+
+}
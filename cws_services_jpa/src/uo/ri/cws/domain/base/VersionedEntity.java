@@ -0,0 +1,21 @@
+package uo.ri.cws.domain.base;
+
+/**
+ * Entity edited concurrently by several users (e.g. two clerks settling
+ * the same invoice). The persistence layer increments the version on
+ * every update and rejects the update when the row was changed since it
+ * was read (optimistic locking, see META-INF/orm.xml), so no row is locked
+ * while the user works on it.
+ *
+ * Services working on detached data compare the version the user read with
+ * the current one through BusinessChecks.hasVersion
+ */
+public abstract class VersionedEntity extends BaseEntity {
+
+	private long version;
+
+	public long getVersion() {
+		return version;
+	}
+
+}
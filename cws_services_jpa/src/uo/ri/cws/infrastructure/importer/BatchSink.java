@@ -0,0 +1,23 @@
+package uo.ri.cws.infrastructure.importer;
+
+import java.util.List;
+
+import uo.ri.cws.domain.base.BaseEntity;
+
+/**
+ * Receives the entities built by the CsvImporter, in batches, in the order
+ * of the file. The importer calls drain at the end of every file, so the
+ * entities of a file are stored before the next one refers to them
+ */
+@FunctionalInterface
+public interface BatchSink {
+
+	void accept(List<BaseEntity> batch);
+
+	/**
+	 * Waits until every batch accepted has been handled
+	 */
+	default void drain() {
+	}
+
+}
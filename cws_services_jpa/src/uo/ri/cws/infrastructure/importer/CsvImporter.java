@@ -0,0 +1,212 @@
+package uo.ri.cws.infrastructure.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import uo.ri.cws.domain.Address;
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Client;
+import uo.ri.cws.domain.NaturalKeyIndex;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.WorkOrder;
+import uo.ri.cws.domain.base.BaseEntity;
+import uo.ri.util.assertion.ArgumentChecks;
+
+/**
+ * Loads the clients, vehicles and work orders of a new franchise from
+ * semicolon separated files, UTF-8, one row per line:
+ *
+ * 	clients:     nif;name;surname;email;phone;street;city;zipCode
+ * 	vehicles:    plateNumber;make;model;clientNif;vehicleTypeName
+ * 	work orders: plateNumber;date (ISO, e.g. 2024-01-08T09:30);description
+ *
+ * Nifs and plate numbers are matched normalized (see NaturalKeyIndex).
+ * The address of a client is optional (the three fields blank). Blank
+ * lines and lines starting with # are skipped. Files are read as a stream,
+ * in chunks through a FileChannel, never as a whole.
+ *
+ * Every row is checked before its entity is built, through the domain
+ * constructors and Associations, and a bad row is rejected and reported
+ * (see ImportReport) without stopping the import. The entities built are
+ * handed to the sink in batches. Vehicles refer to clients and work orders
+ * to vehicles imported before by this importer, so import the clients
+ * first, then the vehicles and then the work orders. The importer keeps
+ * the clients and vehicles to link them; it is not thread safe.
+ */
+public class CsvImporter {
+
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+	private static final String SEPARATOR = ";";
+
+	private final Map<String, VehicleType> vehicleTypes = new HashMap<>();
+	private final NaturalKeyIndex<String, Client> clients =
+			NaturalKeyIndex.ofClients(0);
+	private final NaturalKeyIndex<String, Vehicle> vehicles =
+			NaturalKeyIndex.ofVehicles(0);
+	// plate;date of every work order imported, fleet vehicles have many
+	private final Set<String> workOrders = new HashSet<>();
+	private final BatchSink sink;
+	private final int batchSize;
+
+	public CsvImporter(Collection<VehicleType> vehicleTypes, BatchSink sink) {
+		this(vehicleTypes, sink, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param vehicleTypes, the vehicle types the vehicles may be of, already
+	 * 	stored
+	 * @param batchSize, the entities handed to the sink at a time
+	 */
+	public CsvImporter(Collection<VehicleType> vehicleTypes, BatchSink sink,
+			int batchSize) {
+		ArgumentChecks.isNotNull(vehicleTypes, "Invalid null vehicle types");
+		ArgumentChecks.isNotNull(sink, "Invalid null sink");
+		ArgumentChecks.isTrue(batchSize > 0, "Invalid batch size");
+		for (VehicleType type : vehicleTypes) {
+			this.vehicleTypes.put(type.getName(), type);
+		}
+		this.sink = sink;
+		this.batchSize = batchSize;
+	}
+
+	public ImportReport importClients(Path csv) throws IOException {
+		return importRows(csv, 8, this::client);
+	}
+
+	public ImportReport importVehicles(Path csv) throws IOException {
+		return importRows(csv, 5, this::vehicle);
+	}
+
+	public ImportReport importWorkOrders(Path csv) throws IOException {
+		return importRows(csv, 3, this::workOrder);
+	}
+
+	private Client client(String[] fields) {
+		String nif = fields[0];
+		ArgumentChecks.isNotBlank(nif, "Invalid nif");
+		ArgumentChecks.isFalse(clients.contains(nif), "Repeated nif " + nif);
+		boolean noAddress = fields[5].isEmpty() && fields[6].isEmpty()
+				&& fields[7].isEmpty();
+		Address address = noAddress
+				? null
+				: new Address(fields[5], fields[6], fields[7]);
+
+		Client client = new Client(nif, fields[1], fields[2], fields[3],
+				fields[4], address);
+		clients.register(client);
+		return client;
+	}
+
+	private Vehicle vehicle(String[] fields) {
+		String plate = fields[0];
+		ArgumentChecks.isNotBlank(plate, "Invalid plate number");
+		ArgumentChecks.isNotBlank(fields[1], "Invalid make");
+		ArgumentChecks.isNotBlank(fields[2], "Invalid model");
+		ArgumentChecks.isFalse(vehicles.contains(plate),
+				"Repeated plate number " + plate);
+		Client client = clients.find(fields[3]).orElse(null);
+		ArgumentChecks.isNotNull(client, "Unknown client " + fields[3]);
+		VehicleType type = vehicleTypes.get(fields[4]);
+		ArgumentChecks.isNotNull(type, "Unknown vehicle type " + fields[4]);
+
+		Vehicle vehicle = new Vehicle(plate, fields[1], fields[2]);
+		Associations.Owns.link(client, vehicle);
+		Associations.Classifies.link(type, vehicle);
+		vehicles.register(vehicle);
+		return vehicle;
+	}
+
+	private WorkOrder workOrder(String[] fields) {
+		Vehicle vehicle = vehicles.find(fields[0]).orElse(null);
+		ArgumentChecks.isNotNull(vehicle, "Unknown vehicle " + fields[0]);
+		LocalDateTime date = LocalDateTime.parse(fields[1])
+				.truncatedTo(ChronoUnit.MILLIS);
+		String key = vehicle.getPlateNumber() + SEPARATOR + date;
+		ArgumentChecks.isFalse(workOrders.contains(key),
+				"Repeated work order " + fields[0] + " " + date);
+
+		WorkOrder workOrder = new WorkOrder(vehicle, date, fields[2]);
+		workOrders.add(key);
+		return workOrder;
+	}
+
+	private ImportReport importRows(Path csv, int fieldCount, RowMapper mapper)
+			throws IOException {
+		ArgumentChecks.isNotNull(csv, "Invalid null file");
+		ImportReport report = new ImportReport();
+		List<BaseEntity> batch = new ArrayList<>(batchSize);
+
+		try (BufferedReader reader = open(csv)) {
+			String line;
+			int number = 0;
+			while ((line = reader.readLine()) != null) {
+				number++;
+				if (line.isBlank() || line.startsWith("#")) continue;
+				try {
+					batch.add(mapper.map(split(line, fieldCount)));
+					report.imported();
+				} catch (IllegalArgumentException | DateTimeParseException e) {
+					report.rejected(number, e.getMessage());
+				}
+				if (batch.size() == batchSize) {
+					sink.accept(batch);
+					batch = new ArrayList<>(batchSize);
+				}
+			}
+		}
+		if (!batch.isEmpty()) {
+			sink.accept(batch);
+		}
+		sink.drain();
+		return report;
+	}
+
+	private String[] split(String line, int fieldCount) {
+		String[] fields = line.split(SEPARATOR, -1);
+		ArgumentChecks.isTrue(fields.length == fieldCount,
+				"Expected " + fieldCount + " fields, found " + fields.length);
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = fields[i].trim();
+		}
+		return fields;
+	}
+
+	/*
+	 * Malformed bytes are replaced, and the row they are in rejected, if
+	 * not valid, instead of stopping the import
+	 */
+	private BufferedReader open(Path csv) throws IOException {
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ);
+		return new BufferedReader(
+				Channels.newReader(channel, decoder, CHUNK_SIZE), CHUNK_SIZE);
+	}
+
+	@FunctionalInterface
+	private interface RowMapper {
+		BaseEntity map(String[] fields);
+	}
+
+}
@@ -0,0 +1,71 @@
+package uo.ri.cws.infrastructure.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of importing a file: the rows imported and the ones rejected,
+ * with the reason of the first MAX_ERRORS of them
+ */
+public class ImportReport {
+
+	public static final int MAX_ERRORS = 1_000;
+
+	private int imported = 0;
+	private int rejected = 0;
+	private final List<RowError> errors = new ArrayList<>();
+
+	public int getImported() {
+		return imported;
+	}
+
+	public int getRejected() {
+		return rejected;
+	}
+
+	public List<RowError> getErrors() {
+		return Collections.unmodifiableList(errors);
+	}
+
+	void imported() {
+		imported++;
+	}
+
+	void rejected(int line, String message) {
+		rejected++;
+		if (errors.size() < MAX_ERRORS) {
+			errors.add(new RowError(line, message));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ImportReport [imported=" + imported + ", rejected=" + rejected
+				+ ", errors=" + errors + "]";
+	}
+
+	public static class RowError {
+		private final int line;
+		private final String message;
+
+		RowError(int line, String message) {
+			this.line = line;
+			this.message = message;
+		}
+
+		public int getLine() {
+			return line;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return "line " + line + ": " + message;
+		}
+	}
+
+}
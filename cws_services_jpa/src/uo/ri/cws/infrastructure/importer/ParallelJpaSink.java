@@ -0,0 +1,128 @@
+package uo.ri.cws.infrastructure.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import uo.ri.cws.domain.base.BaseEntity;
+import uo.ri.cws.infrastructure.persistence.jpa.util.BatchWriter;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+import uo.ri.util.assertion.ArgumentChecks;
+
+/**
+ * Stores the batches of an import on several threads while the importer
+ * goes on reading. Every batch is written by a BatchWriter on its own
+ * entity manager and transaction, so a batch that fails is rolled back as
+ * a whole and the others are kept; drain waits for all of them and throws
+ * the first failure.
+ *
+ * At most two batches per thread are waiting or being written: accept
+ * blocks the importer beyond that, so a fast reader does not fill the
+ * memory with batches.
+ */
+public class ParallelJpaSink implements BatchSink, AutoCloseable {
+
+	private final ExecutorService executor;
+	private final Semaphore inFlight;
+	private final List<Future<?>> pending = new ArrayList<>();
+	private final AtomicLong written = new AtomicLong();
+
+	public ParallelJpaSink(int threads) {
+		ArgumentChecks.isTrue(threads > 0, "Invalid number of threads");
+		this.executor = Executors.newFixedThreadPool(threads);
+		this.inFlight = new Semaphore(2 * threads);
+	}
+
+	@Override
+	public void accept(List<BaseEntity> batch) {
+		ArgumentChecks.isNotNull(batch, "Invalid null batch");
+		inFlight.acquireUninterruptibly();
+		try {
+			pending.add(executor.submit(() -> {
+				try {
+					write(batch);
+				} finally {
+					inFlight.release();
+				}
+			}));
+		} catch (RejectedExecutionException e) {
+			inFlight.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * @throws RuntimeException the first failure of a batch, e.g. a
+	 * 	PersistenceException, after waiting for the rest
+	 */
+	@Override
+	public void drain() {
+		RuntimeException failure = null;
+		for (Future<?> future : pending) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				if (failure == null) failure = asRuntime(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if (failure == null) failure = new IllegalStateException(e);
+			}
+		}
+		pending.clear();
+		if (failure != null) throw failure;
+	}
+
+	/**
+	 * @return the entities stored so far
+	 */
+	public long getWritten() {
+		return written.get();
+	}
+
+	/**
+	 * Waits for the batches pending and stops the threads
+	 */
+	@Override
+	public void close() {
+		try {
+			drain();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void write(List<BaseEntity> batch) {
+		EntityManager em = Jpa.createEntityManager();
+		EntityTransaction tx = em.getTransaction();
+		try {
+			tx.begin();
+			BatchWriter writer = new BatchWriter(em);
+			for (BaseEntity entity : batch) {
+				writer.persist(entity);
+			}
+			writer.flush();
+			tx.commit();
+			written.addAndGet(batch.size());
+		} finally {
+			if (tx.isActive()) {
+				tx.rollback();
+			}
+			Jpa.closeEntityManager();
+		}
+	}
+
+	private static RuntimeException asRuntime(Throwable cause) {
+		return cause instanceof RuntimeException
+				? (RuntimeException) cause
+				: new IllegalStateException(cause);
+	}
+
+}
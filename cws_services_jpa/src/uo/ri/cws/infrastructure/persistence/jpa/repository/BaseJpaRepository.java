@@ -0,0 +1,77 @@
+package uo.ri.cws.infrastructure.persistence.jpa.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import uo.ri.cws.application.repository.FetchPlan;
+import uo.ri.cws.application.repository.Repository;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+
+/**
+ * Fetch plans are the named entity graphs of META-INF/orm.xml, named as
+ * <entity>.<plan>, e.g. WorkOrder.withInterventions. They are applied as
+ * fetch graphs: the associations in the graph are loaded with the query,
+ * the rest keep their lazy mapping
+ */
+public class BaseJpaRepository<T> implements Repository<T> {
+
+	private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+	private final Class<T> type;
+
+	protected BaseJpaRepository(Class<T> type) {
+		this.type = type;
+	}
+
+	@Override
+	public void add(T t) {
+		Jpa.getManager().persist(t);
+	}
+
+	@Override
+	public void remove(T t) {
+		Jpa.getManager().remove(t);
+	}
+
+	@Override
+	public Optional<T> findById(Long id) {
+		return Optional.ofNullable(Jpa.getManager().find(type, id));
+	}
+
+	@Override
+	public Optional<T> findById(Long id, FetchPlan plan) {
+		return Optional.ofNullable(
+				Jpa.getManager().find(type, id, Map.of(FETCH_GRAPH, graph(plan)))
+			);
+	}
+
+	@Override
+	public List<T> findAll() {
+		String jpql = "select e from " + type.getSimpleName() + " e";
+		return Jpa.getManager().createQuery(jpql, type).getResultList();
+	}
+
+	/**
+	 * @return the query, set to load the associations of the plan
+	 */
+	protected TypedQuery<T> withPlan(TypedQuery<T> query, FetchPlan plan) {
+		return query.setHint(FETCH_GRAPH, graph(plan));
+	}
+
+	protected Optional<T> singleResult(TypedQuery<T> query) {
+		return query.getResultStream().findFirst();
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the entity has no such plan
+	 */
+	private EntityGraph<?> graph(FetchPlan plan) {
+		EntityManager em = Jpa.getManager();
+		return em.getEntityGraph(type.getSimpleName() + "." + plan.getName());
+	}
+
+}
@@ -0,0 +1,35 @@
+package uo.ri.cws.infrastructure.persistence.jpa.repository;
+
+import java.util.Optional;
+
+import jakarta.persistence.TypedQuery;
+import uo.ri.cws.application.repository.FetchPlan;
+import uo.ri.cws.application.repository.InvoiceRepository;
+import uo.ri.cws.domain.Invoice;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+
+public class InvoiceJpaRepository
+		extends BaseJpaRepository<Invoice>
+		implements InvoiceRepository {
+
+	public InvoiceJpaRepository() {
+		super(Invoice.class);
+	}
+
+	@Override
+	public Optional<Invoice> findByNumber(Long number) {
+		return singleResult(byNumber(number));
+	}
+
+	@Override
+	public Optional<Invoice> findByNumber(Long number, FetchPlan plan) {
+		return singleResult(withPlan(byNumber(number), plan));
+	}
+
+	private TypedQuery<Invoice> byNumber(Long number) {
+		return Jpa.getManager()
+				.createNamedQuery("Invoice.findByNumber", Invoice.class)
+				.setParameter(1, number);
+	}
+
+}
@@ -0,0 +1,35 @@
+package uo.ri.cws.infrastructure.persistence.jpa.repository;
+
+import java.util.Optional;
+
+import jakarta.persistence.TypedQuery;
+import uo.ri.cws.application.repository.FetchPlan;
+import uo.ri.cws.application.repository.MechanicRepository;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+
+public class MechanicJpaRepository
+		extends BaseJpaRepository<Mechanic>
+		implements MechanicRepository {
+
+	public MechanicJpaRepository() {
+		super(Mechanic.class);
+	}
+
+	@Override
+	public Optional<Mechanic> findByNif(String nif) {
+		return singleResult(byNif(nif));
+	}
+
+	@Override
+	public Optional<Mechanic> findByNif(String nif, FetchPlan plan) {
+		return singleResult(withPlan(byNif(nif), plan));
+	}
+
+	private TypedQuery<Mechanic> byNif(String nif) {
+		return Jpa.getManager()
+				.createNamedQuery("Mechanic.findByNif", Mechanic.class)
+				.setParameter(1, nif);
+	}
+
+}
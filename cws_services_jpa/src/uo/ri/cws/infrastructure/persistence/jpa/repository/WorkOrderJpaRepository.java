@@ -0,0 +1,37 @@
+package uo.ri.cws.infrastructure.persistence.jpa.repository;
+
+import java.util.List;
+
+import jakarta.persistence.TypedQuery;
+import uo.ri.cws.application.repository.FetchPlan;
+import uo.ri.cws.application.repository.WorkOrderRepository;
+import uo.ri.cws.domain.WorkOrder;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+
+public class WorkOrderJpaRepository
+		extends BaseJpaRepository<WorkOrder>
+		implements WorkOrderRepository {
+
+	public WorkOrderJpaRepository() {
+		super(WorkOrder.class);
+	}
+
+	@Override
+	public List<WorkOrder> findByVehiclePlate(String plateNumber) {
+		return byVehiclePlate(plateNumber).getResultList();
+	}
+
+	@Override
+	public List<WorkOrder> findByVehiclePlate(String plateNumber,
+			FetchPlan plan) {
+		return withPlan(byVehiclePlate(plateNumber), plan).getResultList();
+	}
+
+	private TypedQuery<WorkOrder> byVehiclePlate(String plateNumber) {
+		return Jpa.getManager()
+				.createNamedQuery("WorkOrder.findByVehiclePlate",
+						WorkOrder.class)
+				.setParameter(1, plateNumber);
+	}
+
+}
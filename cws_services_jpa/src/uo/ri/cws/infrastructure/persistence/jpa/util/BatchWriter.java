@@ -0,0 +1,138 @@
+package uo.ri.cws.infrastructure.persistence.jpa.util;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+
+import jakarta.persistence.EntityManager;
+import uo.ri.util.assertion.ArgumentChecks;
+
+/**
+ * Write path for large amounts of entities, e.g. the interventions and
+ * substitutions captured during a shift.
+ *
+ * Every flushInterval writes the persistence context is flushed and then
+ * cleared, so it does not grow with every entity written. On the flush the
+ * inserts and updates are ordered by entity and sent as JDBC batches of
+ * hibernate.jdbc.batch_size rows (see persistence.xml). By default the
+ * interval spans several batches, as the writes of a flush are split
+ * among the entities written.
+ *
+ * After a flush the entities written get detached. They can still be
+ * linked to new entities, but changes made to them are not saved. The ones
+ * whose state keeps changing as others are written, e.g. the work order,
+ * mechanic and spare part whose counters every intervention and
+ * substitution updates, must be kept managed with keep(entity): they stay
+ * in the persistence context across flushes, and every flush saves them.
+ */
+public class BatchWriter {
+
+	public static final String BATCH_SIZE = "hibernate.jdbc.batch_size";
+	private static final int DEFAULT_BATCH_SIZE = 50;
+	private static final int BATCHES_PER_FLUSH = 10;
+
+	private final EntityManager em;
+	private final int flushInterval;
+	private final Set<Object> kept =
+			Collections.newSetFromMap(new IdentityHashMap<>());
+	private int pending = 0;
+
+	/**
+	 * Flushes every ten JDBC batches
+	 */
+	public BatchWriter(EntityManager em) {
+		this(em, BATCHES_PER_FLUSH * batchSizeOf(em));
+	}
+
+	/**
+	 * @param flushInterval, the writes kept in the persistence context
+	 * 	before flushing and clearing it
+	 */
+	public BatchWriter(EntityManager em, int flushInterval) {
+		ArgumentChecks.isNotNull(em, "Invalid null entity manager");
+		ArgumentChecks.isTrue(flushInterval > 0, "Invalid flush interval");
+		this.em = em;
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * Inserts a new entity, on the next flush
+	 */
+	public void persist(Object entity) {
+		em.persist(entity);
+		written();
+	}
+
+	/**
+	 * Updates a detached entity, on the next flush
+	 * @return the managed copy, valid until the next flush
+	 */
+	public <T> T merge(T entity) {
+		T res = em.merge(entity);
+		written();
+		return res;
+	}
+
+	/**
+	 * Keeps the entity managed across flushes, until released
+	 * @return the entity
+	 * @throws IllegalArgumentException if it is not managed by the entity
+	 * 	manager of the writer: persist it through the writer, or keep the
+	 * 	copy found or merged
+	 */
+	public <T> T keep(T entity) {
+		ArgumentChecks.isNotNull(entity, "Invalid null entity");
+		ArgumentChecks.isTrue(em.contains(entity),
+				"The entity is not managed, keep the merged copy");
+		kept.add(entity);
+		return entity;
+	}
+
+	/**
+	 * The entity is detached on the next flush, as the others written
+	 */
+	public void release(Object entity) {
+		kept.remove(entity);
+	}
+
+	/**
+	 * Sends the pending writes to the database and clears the persistence
+	 * context, but for the entities kept. Call it before committing the
+	 * transaction
+	 */
+	public void flush() {
+		if (pending == 0) return;
+
+		em.flush();
+		em.clear();
+		// just flushed, so they are attached again as they are in the database
+		Session session = em.unwrap(Session.class);
+		for (Object entity : kept) {
+			session.lock(entity, LockMode.NONE);
+		}
+		pending = 0;
+	}
+
+	public int getFlushInterval() {
+		return flushInterval;
+	}
+
+	private void written() {
+		if (++pending >= flushInterval) {
+			flush();
+		}
+	}
+
+	private static int batchSizeOf(EntityManager em) {
+		Object size = em.getEntityManagerFactory()
+				.getProperties()
+				.get(BATCH_SIZE);
+		return size == null
+				? DEFAULT_BATCH_SIZE
+				: Integer.parseInt(size.toString().trim());
+	}
+
+}
@@ -0,0 +1,90 @@
+package uo.ri.cws.infrastructure.persistence.jpa.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+
+/**
+ * Holds the factory of the persistence unit and the entity manager of the
+ * current thread, the one the repositories work with. Every thread unbinds
+ * its own with closeEntityManager when its unit of work ends
+ */
+public class Jpa {
+
+	private static final String PERSISTENCE_UNIT = "carworkshop";
+
+	private static EntityManagerFactory emf = null;
+	private static final ThreadLocal<EntityManager> emThread =
+			new ThreadLocal<>();
+
+	/**
+	 * Creates a new entity manager and binds it to the current thread
+	 */
+	public static EntityManager createEntityManager() {
+		EntityManager em = getEntityManagerFactory().createEntityManager();
+		emThread.set(em);
+		return em;
+	}
+
+	/**
+	 * @return the entity manager bound to the current thread, null if there
+	 * 	is none, or it or its factory was closed
+	 */
+	public static EntityManager getManager() {
+		EntityManager em = emThread.get();
+		if (em != null && !isUsable(em)) {
+			emThread.remove();
+			return null;
+		}
+		return em;
+	}
+
+	/**
+	 * Closes the entity manager bound to the current thread, if any, and
+	 * unbinds it, so a pooled thread does not keep it
+	 */
+	public static void closeEntityManager() {
+		EntityManager em = emThread.get();
+		emThread.remove();
+		if (em != null && em.isOpen()) {
+			em.close();
+		}
+	}
+
+	private static boolean isUsable(EntityManager em) {
+		return em.isOpen() && em.getEntityManagerFactory().isOpen();
+	}
+
+	/**
+	 * Binds the entity manager to the current thread, or unbinds the
+	 * current one if null, e.g. to restore a previous binding
+	 */
+	static void bind(EntityManager em) {
+		if (em == null) {
+			emThread.remove();
+		} else {
+			emThread.set(em);
+		}
+	}
+
+	public static synchronized EntityManagerFactory getEntityManagerFactory() {
+		if (emf == null) {
+			emf = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT);
+		}
+		return emf;
+	}
+
+	/**
+	 * Closes the entity manager of the current thread and the factory. The
+	 * ones other threads still have bound cannot be used any longer:
+	 * getManager gives null for them, and unbinds them
+	 */
+	public static synchronized void close() {
+		closeEntityManager();
+		if (emf != null && emf.isOpen()) {
+			emf.close();
+		}
+		emf = null;
+	}
+
+}
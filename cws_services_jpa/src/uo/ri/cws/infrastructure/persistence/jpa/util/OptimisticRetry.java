@@ -0,0 +1,121 @@
+package uo.ri.cws.infrastructure.persistence.jpa.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import uo.ri.util.assertion.ArgumentChecks;
+import uo.ri.util.exception.BusinessException;
+
+/**
+ * Runs a service operation in a transaction of its own, on a new entity
+ * manager bound to the thread (see Jpa.getManager), and runs it again when
+ * it loses an optimistic locking conflict: another transaction updated
+ * one of the versioned entities it changed.
+ *
+ * Every attempt starts from scratch, reading the current state, so the
+ * operation must be idempotent: it cannot depend on anything changed by a
+ * previous attempt. Attempts are spaced by a short random backoff, so the
+ * contenders do not collide again. A BusinessException thrown by the
+ * operation rolls back and is not retried. The entity manager of every
+ * attempt is closed and unbound, and the one bound before, if any, is
+ * bound again.
+ *
+ * It keeps the attempts of the last execution, use one per thread.
+ */
+public class OptimisticRetry {
+
+	private static final int DEFAULT_ATTEMPTS = 3;
+	private static final long MAX_BACKOFF_MILLIS = 50;
+
+	@FunctionalInterface
+	public interface Operation<T> {
+		T execute() throws BusinessException;
+	}
+
+	private final int maxAttempts;
+	private int attempts = 0;
+
+	public OptimisticRetry() {
+		this(DEFAULT_ATTEMPTS);
+	}
+
+	/**
+	 * @param maxAttempts, including the first one
+	 */
+	public OptimisticRetry(int maxAttempts) {
+		ArgumentChecks.isTrue(maxAttempts > 0, "Invalid number of attempts");
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * @return the result of the first attempt committed
+	 * @throws BusinessException thrown by the operation, or when all the
+	 * 	attempts lost the conflict (the data is too stale to go on)
+	 */
+	public <T> T execute(Operation<T> operation) throws BusinessException {
+		ArgumentChecks.isNotNull(operation, "Invalid null operation");
+		attempts = 0;
+
+		while (true) {
+			attempts++;
+			try {
+				return inTransaction(operation);
+			} catch (RuntimeException e) {
+				if (!isConflict(e)) throw e;
+				if (attempts >= maxAttempts) {
+					throw new BusinessException("Concurrent modification, "
+							+ "given up after " + attempts + " attempts", e);
+				}
+				backoff();
+			}
+		}
+	}
+
+	/**
+	 * @return the attempts made by the last execution
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+	private <T> T inTransaction(Operation<T> operation)
+			throws BusinessException {
+		EntityManager previous = Jpa.getManager();
+		EntityManager em = Jpa.createEntityManager();
+		try {
+			em.getTransaction().begin();
+			T res = operation.execute();
+			em.getTransaction().commit();
+			return res;
+		} finally {
+			if (em.getTransaction().isActive()) {
+				em.getTransaction().rollback();
+			}
+			Jpa.closeEntityManager();
+			Jpa.bind(previous);
+		}
+	}
+
+	/**
+	 * The conflict comes as an OptimisticLockException on flush, or as its
+	 * cause when detected on commit
+	 */
+	private boolean isConflict(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof OptimisticLockException) return true;
+		}
+		return false;
+	}
+
+	private void backoff() {
+		long bound = Math.min(MAX_BACKOFF_MILLIS, 1L << attempts);
+		try {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
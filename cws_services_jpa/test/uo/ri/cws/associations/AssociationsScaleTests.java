@@ -0,0 +1,169 @@
+package uo.ri.cws.associations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.SparePart;
+import uo.ri.cws.domain.Substitution;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Links a large number of objects to the same owner. Every link must land
+ * on the real collection of the owner, and every unlink leave it. How the
+ * time grows with the size is measured by AssociationsBenchmark, in
+ * cws_benchmarks.
+ *
+ * Scenarios:
+ * - 100k work orders assigned to the same mechanic
+ * - 100k interventions of the same mechanic
+ * - 100k vehicles classified under the same vehicle type
+ * - 100k substitutions of the same spare part
+ * - 100k interventions unlinked and linked to other work orders
+ */
+class AssociationsScaleTests {
+	private static final int SIZE = 100_000;
+	private static final LocalDateTime BASE_DATE =
+			LocalDateTime.of(2024, 1, 1, 8, 0);
+
+	private Mechanic mechanic;
+	private VehicleType vehicleType;
+
+	@BeforeEach
+	void setUp() {
+		mechanic = new Mechanic("nif-mecanico", "nombre", "apellidos");
+		vehicleType = new VehicleType("coche", 50.0);
+	}
+
+	@Test
+	void testAssignManyWorkOrders() {
+		List<WorkOrder> workOrders = createWorkOrders(SIZE);
+
+		for (WorkOrder wo : workOrders) {
+			Associations.Assigns.link(mechanic, wo);
+		}
+
+		assertEquals(SIZE, mechanic.getAssignedView().size());
+		for (WorkOrder wo : workOrders) {
+			assertSame(mechanic, wo.getMechanic());
+		}
+
+		for (WorkOrder wo : workOrders) {
+			Associations.Assigns.unlink(mechanic, wo);
+		}
+		assertTrue(mechanic.getAssignedView().isEmpty());
+	}
+
+	@Test
+	void testIntervenesManyInterventions() {
+		List<Intervention> interventions = createInterventions(SIZE);
+
+		assertEquals(SIZE, mechanic.getInterventionsView().size());
+		assertTrue(mechanic.getInterventionsView().containsAll(interventions));
+
+		for (Intervention i : interventions) {
+			Associations.Intervenes.unlink(i);
+		}
+		assertTrue(mechanic.getInterventionsView().isEmpty());
+	}
+
+	@Test
+	void testClassifyManyVehicles() {
+		List<Vehicle> vehicles = new ArrayList<>(SIZE);
+		for (int i = 0; i < SIZE; i++) {
+			Vehicle v = new Vehicle("P-" + i, "seat", "ibiza");
+			Associations.Classifies.link(vehicleType, v);
+			vehicles.add(v);
+		}
+
+		assertEquals(SIZE, vehicleType.getVehiclesView().size());
+		for (Vehicle v : vehicles) {
+			Associations.Classifies.unlink(vehicleType, v);
+		}
+		assertTrue(vehicleType.getVehiclesView().isEmpty());
+	}
+
+	@Test
+	void testSubstituteManySpareParts() {
+		SparePart sparePart = new SparePart("R1001", "junta la trocla", 100.0);
+		List<Intervention> interventions = createInterventions(SIZE);
+
+		List<Substitution> substitutions = new ArrayList<>(SIZE);
+		for (Intervention i : interventions) {
+			substitutions.add(new Substitution(sparePart, i, 1));
+		}
+
+		assertEquals(SIZE, sparePart.getSubstitutionsView().size());
+		for (Intervention i : interventions) {
+			assertEquals(1, i.getSubstitutionsView().size());
+		}
+		for (Substitution s : substitutions) {
+			Associations.Substitutes.unlink(s);
+		}
+		assertTrue(sparePart.getSubstitutionsView().isEmpty());
+	}
+
+	/**
+	 * GIVEN: 100k interventions of the same mechanic
+	 * WHEN: every other one is unlinked, and linked back to a new work order
+	 * THEN: the mechanic keeps all of them, each one once, and every work
+	 * 	order has only its own
+	 */
+	@Test
+	void testRelinkManyInterventions() {
+		List<Intervention> interventions = createInterventions(SIZE);
+		List<WorkOrder> others = new ArrayList<>(SIZE / 2);
+		for (int i = 0; i < SIZE / 2; i++) {
+			Vehicle v = new Vehicle("Q-" + i, "seat", "ibiza");
+			others.add(new WorkOrder(v, BASE_DATE, "falla la junta la trocla"));
+		}
+
+		for (int i = 0; i < SIZE; i += 2) {
+			Intervention intervention = interventions.get(i);
+			WorkOrder old = intervention.getWorkOrder();
+			Associations.Intervenes.unlink(intervention);
+			assertTrue(old.getInterventionsView().isEmpty());
+			Associations.Intervenes.link(others.get(i / 2), intervention,
+					mechanic);
+		}
+
+		assertEquals(SIZE, mechanic.getInterventionsView().size());
+		assertTrue(mechanic.getInterventionsView().containsAll(interventions));
+		for (int i = 0; i < SIZE; i += 2) {
+			assertSame(others.get(i / 2), interventions.get(i).getWorkOrder());
+			assertEquals(1, others.get(i / 2).getInterventionsView().size());
+		}
+	}
+
+	private List<Intervention> createInterventions(int qty) {
+		List<WorkOrder> workOrders = createWorkOrders(qty);
+		List<Intervention> res = new ArrayList<>(qty);
+		for (int i = 0; i < qty; i++) {
+			res.add(new Intervention(BASE_DATE.plusSeconds(i), 60,
+					workOrders.get(i), mechanic));
+		}
+		return res;
+	}
+
+	private List<WorkOrder> createWorkOrders(int qty) {
+		List<WorkOrder> res = new ArrayList<>(qty);
+		for (int i = 0; i < qty; i++) {
+			Vehicle v = new Vehicle("P-" + i, "seat", "ibiza");
+			res.add(new WorkOrder(v, BASE_DATE, "falla la junta la trocla"));
+		}
+		return res;
+	}
+
+}
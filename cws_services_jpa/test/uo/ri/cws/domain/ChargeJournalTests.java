@@ -0,0 +1,197 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - The charges of a batch are recorded and their amounts added up
+ * - Rolling back hundreds of charges restores the payment means and
+ * 		unlinks the charges
+ * - A batch failing halfway is rolled back up to where it failed
+ * - Rolling back with a settled invoice throws ISE and rewinds nothing
+ * - Charges already rewound by another journal are skipped on rollback
+ * - Clearing the journal keeps the charges
+ * - Recording a null charge throws IAE
+ */
+class ChargeJournalTests {
+
+	private static final int CHARGES = 500;
+	private static final double AMOUNT = 100.0;
+
+	private ChargeJournal journal;
+	private Cash cash;
+
+	@BeforeEach
+	void setUp() {
+		journal = new ChargeJournal();
+		cash = new Cash(new Client("nif", "nombre", "apellidos"));
+	}
+
+	/**
+	 * GIVEN: a journal
+	 * WHEN: hundreds of charges are made through it
+	 * THEN: all of them are recorded
+	 * AND: the total is the sum of their amounts
+	 */
+	@Test
+	void testChargesAreRecorded() {
+		for (int i = 0; i < CHARGES; i++) {
+			journal.charge(newInvoice(i), cash, 1.5);
+		}
+
+		assertEquals(CHARGES, journal.size());
+		assertEquals(CHARGES * 1.5, journal.getTotal());
+		assertEquals(CHARGES * 1.5, cash.getAccumulated());
+	}
+
+	/**
+	 * GIVEN: hundreds of charges to cash and vouchers, through a journal
+	 * WHEN: the journal is rolled back
+	 * THEN: the accumulated of the cash is zero again
+	 * AND: the vouchers get back their available
+	 * AND: no invoice nor payment mean keeps any charge
+	 * AND: the journal is empty
+	 */
+	@Test
+	void testRollbackRestoresAll() {
+		List<Invoice> invoices = new ArrayList<>();
+		List<Charge> charges = new ArrayList<>();
+		Voucher voucher = new Voucher("V001", "flota", CHARGES * 10.0);
+		for (int i = 0; i < CHARGES; i++) {
+			Invoice invoice = newInvoice(i);
+			charges.add(journal.charge(invoice, cash, 1.0));
+			charges.add(journal.charge(invoice, voucher, 10.0));
+			invoices.add(invoice);
+		}
+
+		journal.rollback();
+
+		assertEquals(0.0, cash.getAccumulated());
+		assertEquals(0.0, voucher.getAccumulated());
+		assertEquals(CHARGES * 10.0, voucher.getAvailable());
+		assertTrue(cash.getCharges().isEmpty());
+		assertTrue(voucher.getCharges().isEmpty());
+		assertTrue(invoices.stream().allMatch(i -> i.getCharges().isEmpty()));
+		assertNull(charges.get(0).getInvoice());
+		assertTrue(journal.isEmpty());
+		assertEquals(0.0, journal.getTotal());
+	}
+
+	/**
+	 * GIVEN: a batch paying with a voucher until it runs out
+	 * WHEN: the charge that cannot be paid fails and the journal is
+	 * 	rolled back
+	 * THEN: the voucher has all its available again
+	 */
+	@Test
+	void testFailedBatchIsRolledBack() {
+		Voucher voucher = new Voucher("V001", "flota", 250.0);
+
+		assertThrows(IllegalStateException.class, () -> {
+			try {
+				for (int i = 0; i < CHARGES; i++) {
+					journal.charge(newInvoice(i), voucher, AMOUNT);
+				}
+			} catch (RuntimeException e) {
+				journal.rollback();
+				throw e;
+			}
+		});
+
+		assertEquals(250.0, voucher.getAvailable());
+		assertEquals(0.0, voucher.getAccumulated());
+		assertTrue(voucher.getCharges().isEmpty());
+	}
+
+	/**
+	 * GIVEN: a journal with a charge to an invoice settled afterwards
+	 * WHEN: the journal is rolled back
+	 * THEN: an IllegalStateException is thrown
+	 * AND: no charge is rewound
+	 */
+	@Test
+	void testRollbackWithSettledInvoiceThrowsISE() {
+		journal.charge(newInvoice(1), cash, 1.0);
+		Invoice settled = newInvoice(2);
+		journal.charge(settled, cash, settled.getAmount());
+		settled.settle();
+
+		assertThrows(IllegalStateException.class, () -> journal.rollback());
+		assertEquals(2, journal.size());
+		assertEquals(2, cash.getCharges().size());
+	}
+
+	/**
+	 * GIVEN: two journals recording the same charge, and the second one
+	 * 	another charge, and a charge recorded twice in the second
+	 * WHEN: the first journal is rolled back, and then the second
+	 * THEN: no exception is thrown and every charge is rewound once
+	 */
+	@Test
+	void testRollbackTwice() {
+		ChargeJournal other = new ChargeJournal();
+		Charge shared = journal.charge(newInvoice(1), cash, 1.0);
+		other.append(shared);
+		other.charge(newInvoice(2), cash, 2.0);
+		Charge twice = other.charge(newInvoice(3), cash, 4.0);
+		other.append(twice);
+
+		journal.rollback();
+		other.rollback();
+
+		assertEquals(0.0, cash.getAccumulated());
+		assertTrue(cash.getCharges().isEmpty());
+		assertTrue(other.isEmpty());
+	}
+
+	/**
+	 * GIVEN: a journal with charges
+	 * WHEN: it is cleared
+	 * THEN: it is empty but the charges are kept
+	 */
+	@Test
+	void testClearKeepsCharges() {
+		journal.charge(newInvoice(1), cash, 1.0);
+		journal.charge(newInvoice(2), cash, 1.0);
+
+		journal.clear();
+
+		assertTrue(journal.isEmpty());
+		assertEquals(2.0, cash.getAccumulated());
+		assertEquals(2, cash.getCharges().size());
+	}
+
+	/**
+	 * GIVEN: a journal
+	 * WHEN: a null charge is appended
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testAppendNullThrowsIAE() {
+		assertThrows(IllegalArgumentException.class,
+				() -> journal.append(null));
+	}
+
+	private Invoice newInvoice(long number) {
+		WorkOrder workOrder = mock(WorkOrder.class);
+		when(workOrder.isFinished()).thenReturn(true);
+		when(workOrder.getAmount()).thenReturn(AMOUNT);
+
+		Invoice invoice = new Invoice(number, LocalDate.of(2024, 1, 9));
+		invoice.addWorkOrder(workOrder);
+		return invoice;
+	}
+
+}
@@ -0,0 +1,78 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - A view reflects the changes made later through the associations
+ * - A view cannot be modified
+ * - The plain getter still returns an independent copy
+ */
+class CollectionViewsTests {
+
+	private Vehicle vehicle;
+	private WorkOrder workOrder;
+	private Mechanic mechanic;
+
+	@BeforeEach
+	void setUp() {
+		vehicle = new Vehicle("1234 GJI", "seat", "ibiza");
+		workOrder = new WorkOrder(vehicle, "falla la junta la trocla");
+		mechanic = new Mechanic("nif-mecanico", "nombre", "apellidos");
+	}
+
+	/**
+	 * GIVEN: a view of the vehicles of a client
+	 * WHEN: a new vehicle is linked to the client
+	 * THEN: the view already contains it
+	 */
+	@Test
+	void testViewIsLive() {
+		Client client = new Client("nif-cliente", "nombre", "apellidos");
+		Set<Vehicle> view = client.getVehiclesView();
+
+		Associations.Owns.link(client, vehicle);
+
+		assertTrue(view.contains(vehicle));
+		assertEquals(1, view.size());
+	}
+
+	/**
+	 * GIVEN: views of the interventions of a work order and a mechanic
+	 * WHEN: trying to modify them
+	 * THEN: UnsupportedOperationException is thrown
+	 */
+	@Test
+	void testViewIsReadOnly() {
+		Intervention i = new Intervention(mechanic, workOrder, 60);
+
+		assertThrows(UnsupportedOperationException.class,
+				() -> workOrder.getInterventionsView().remove(i));
+		assertThrows(UnsupportedOperationException.class,
+				() -> mechanic.getAssignedView().add(workOrder));
+		assertTrue(workOrder.getInterventionsView().contains(i));
+	}
+
+	/**
+	 * GIVEN: a snapshot of the interventions of a work order
+	 * WHEN: it is modified
+	 * THEN: the work order is not affected
+	 */
+	@Test
+	void testSnapshotIsIndependent() {
+		Intervention i = new Intervention(mechanic, workOrder, 60);
+		Set<Intervention> snapshot = workOrder.getInterventions();
+
+		snapshot.remove(i);
+
+		assertTrue(workOrder.getInterventionsView().contains(i));
+	}
+
+}
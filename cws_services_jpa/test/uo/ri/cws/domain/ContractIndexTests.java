@@ -0,0 +1,192 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - The contracts in force on every day of some years are the ones a scan
+ * 		finds, for hundreds of mechanics with a history of contracts
+ * - So are the ones in force during every month
+ * - A mechanic finds its contract in force on a date, if any
+ * - A contract overlapping another of the mechanic is rejected
+ * - An empty index finds nothing
+ */
+class ContractIndexTests {
+
+	private static final LocalDate FROM = LocalDate.of(2015, 1, 1);
+	private static final LocalDate TO = LocalDate.of(2022, 12, 31);
+
+	private ContractType type;
+	private ProfessionalGroup group;
+
+	@BeforeEach
+	void setUp() {
+		type = new ContractType("INDEFINITE", 20);
+		group = new ProfessionalGroup("oficial", 30.0, 0.05);
+	}
+
+	/**
+	 * GIVEN: an index of 300 mechanics with up to 6 contracts each, with
+	 * 	gaps among them and the last one in force or not
+	 * WHEN: the contracts in force on every day from 2015 to 2022 are found
+	 * THEN: they are the ones a scan of all of them finds, by start date
+	 */
+	@Test
+	void testInForceOnEveryDay() {
+		List<Contract> contracts = histories(300, new Random(42));
+		ContractIndex index = new ContractIndex(contracts);
+
+		assertEquals(contracts.size(), index.size());
+		for (LocalDate d = FROM; !d.isAfter(TO); d = d.plusDays(1)) {
+			LocalDate date = d;
+			List<Contract> expected = contracts.stream()
+					.filter(c -> c.isInForceOn(date))
+					.collect(Collectors.toList());
+			List<Contract> found = index.findInForceOn(date);
+
+			assertEquals(new HashSet<>(expected), new HashSet<>(found),
+					date.toString());
+			assertEquals(expected.size(), found.size());
+			assertSorted(found);
+		}
+	}
+
+	/**
+	 * GIVEN: the same index
+	 * WHEN: the contracts in force during every month from 2015 to 2022
+	 * 	are found
+	 * THEN: they are the ones a scan finds
+	 */
+	@Test
+	void testInForceDuringEveryMonth() {
+		List<Contract> contracts = histories(300, new Random(7));
+		ContractIndex index = new ContractIndex(contracts);
+
+		for (YearMonth m = YearMonth.from(FROM); !m.isAfter(YearMonth.from(TO));
+				m = m.plusMonths(1)) {
+			YearMonth month = m;
+			List<Contract> expected = contracts.stream()
+					.filter(c -> c.isInForceDuring(month))
+					.collect(Collectors.toList());
+			List<Contract> found = index.findInForceDuring(month);
+
+			assertEquals(new HashSet<>(expected), new HashSet<>(found),
+					month.toString());
+			assertEquals(expected.size(), found.size());
+		}
+	}
+
+	/**
+	 * GIVEN: a mechanic with a contract from 2018-01 to 2019-06 and another
+	 * 	from 2020-01, in force
+	 * WHEN: the contract in force on several dates is looked up
+	 * THEN: none before, the first one in 2018, none in the gap, and the
+	 * 	second one from 2020 on
+	 */
+	@Test
+	void testMechanicContractInForceOn() {
+		Mechanic mechanic = new Mechanic("nif-ana", "garcía", "ana");
+		Contract first = new Contract(mechanic, type, group,
+				LocalDate.of(2018, 1, 15), 20_000);
+		first.terminate(LocalDate.of(2019, 6, 1));
+		Contract second = new Contract(mechanic, type, group,
+				LocalDate.of(2020, 1, 10), 25_000);
+
+		assertTrue(mechanic.getContractInForceOn(LocalDate.of(2017, 12, 31))
+				.isEmpty());
+		assertSame(first,
+				mechanic.getContractInForceOn(LocalDate.of(2018, 1, 1)).get());
+		assertSame(first,
+				mechanic.getContractInForceOn(LocalDate.of(2019, 6, 30)).get());
+		assertTrue(mechanic.getContractInForceOn(LocalDate.of(2019, 7, 1))
+				.isEmpty());
+		assertSame(second,
+				mechanic.getContractInForceOn(LocalDate.of(2030, 1, 1)).get());
+		assertSame(second, mechanic.getContractInForce().get());
+	}
+
+	/**
+	 * GIVEN: a mechanic with a contract from 2018-01 to 2019-06 and another
+	 * 	from 2020-01, in force
+	 * WHEN: a contract starting in 2019-03, or in 2020-01, is created
+	 * THEN: an IllegalArgumentException is thrown and the one in force is
+	 * 	not terminated
+	 */
+	@Test
+	void testOverlappingContractRejected() {
+		Mechanic mechanic = new Mechanic("nif-ana", "garcía", "ana");
+		new Contract(mechanic, type, group, LocalDate.of(2018, 1, 15), 20_000)
+				.terminate(LocalDate.of(2019, 6, 1));
+		Contract inForce = new Contract(mechanic, type, group,
+				LocalDate.of(2020, 1, 10), 25_000);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new Contract(mechanic, type, group,
+						LocalDate.of(2019, 3, 1), 20_000));
+		assertThrows(IllegalArgumentException.class,
+				() -> new Contract(mechanic, type, group,
+						LocalDate.of(2020, 1, 31), 20_000));
+		assertTrue(inForce.isInForce());
+		assertEquals(2, mechanic.getContractsView().size());
+	}
+
+	/**
+	 * GIVEN: an empty index
+	 * WHEN: the contracts in force on a date and during a month are found
+	 * THEN: there is none
+	 */
+	@Test
+	void testEmptyIndex() {
+		ContractIndex index = new ContractIndex(List.of());
+
+		assertTrue(index.findInForceOn(FROM).isEmpty());
+		assertTrue(index.findInForceDuring(YearMonth.from(FROM)).isEmpty());
+	}
+
+	/*
+	 * Every mechanic starts in 2015 or 2016 and has up to 6 contracts, each
+	 * of up to 30 months and with gaps of up to 6 months; the last one is
+	 * in force half of the times
+	 */
+	private List<Contract> histories(int mechanics, Random random) {
+		List<Contract> res = new ArrayList<>();
+		for (int m = 0; m < mechanics; m++) {
+			Mechanic mechanic = new Mechanic("nif-" + m, "s", "n");
+			YearMonth month = YearMonth.from(FROM).plusMonths(random.nextInt(24));
+			int count = 1 + random.nextInt(6);
+			for (int i = 0; i < count; i++) {
+				Contract c = new Contract(mechanic, type, group,
+						month.atDay(1 + random.nextInt(28)), 20_000);
+				res.add(c);
+				if (i < count - 1 || random.nextBoolean()) {
+					YearMonth end = month.plusMonths(random.nextInt(30));
+					c.terminate(end.atDay(1));
+					month = end.plusMonths(1 + random.nextInt(6));
+				}
+			}
+		}
+		return res;
+	}
+
+	private void assertSorted(List<Contract> contracts) {
+		for (int i = 1; i < contracts.size(); i++) {
+			assertTrue(!contracts.get(i).getStartDate()
+					.isBefore(contracts.get(i - 1).getStartDate()));
+		}
+	}
+
+}
@@ -0,0 +1,138 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - Equal work orders and interventions have the same hash
+ * - The hash does not change as the work order goes through its states
+ * - The hash follows the key when a work order or intervention is unlinked
+ * - The work orders of a fleet vehicle spread over the buckets of a table
+ * - Thousands of work orders and interventions are found in their sets
+ */
+class EntityHashTests {
+
+	private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 8, 9, 0);
+
+	private Vehicle vehicle;
+	private Mechanic mechanic;
+
+	@BeforeEach
+	void setUp() {
+		vehicle = new Vehicle("1234-ABC", "seat", "ibiza");
+		Associations.Classifies.link(new VehicleType("coche", 50.0), vehicle);
+		mechanic = new Mechanic("nif-ana", "apellidos", "ana");
+	}
+
+	/**
+	 * GIVEN: two work orders and two interventions with the same keys
+	 * WHEN: they are compared
+	 * THEN: they are equal and have the same hash
+	 */
+	@Test
+	void testEqualHaveSameHash() {
+		WorkOrder first = new WorkOrder(vehicle, DATE, "revisión");
+		WorkOrder second = new WorkOrder(vehicle, DATE, "otra");
+		Intervention i1 = new Intervention(DATE, 30, first, mechanic);
+		Intervention i2 = new Intervention(DATE, 45, first, mechanic);
+
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+		assertEquals(i1, i2);
+		assertEquals(i1.hashCode(), i2.hashCode());
+	}
+
+	/**
+	 * GIVEN: a work order
+	 * WHEN: it is assigned, gets an intervention and is finished
+	 * THEN: its hash is the same all the time
+	 */
+	@Test
+	void testHashIsStable() {
+		WorkOrder wo = new WorkOrder(vehicle, DATE, "revisión");
+		int hash = wo.hashCode();
+
+		wo.assignTo(mechanic);
+		new Intervention(DATE, 30, wo, mechanic);
+		wo.markAsFinished();
+
+		assertEquals(hash, wo.hashCode());
+		assertTrue(vehicle.getWorkOrdersView().contains(wo));
+	}
+
+	/**
+	 * GIVEN: a work order and an intervention, hashed
+	 * WHEN: they are unlinked
+	 * THEN: they have the hash of an unlinked one with the same date
+	 */
+	@Test
+	void testUnlinkedFollowKey() {
+		WorkOrder wo = new WorkOrder(vehicle, DATE, "revisión");
+		wo.assignTo(mechanic);
+		Intervention intervention = new Intervention(DATE, 30, wo, mechanic);
+		int linked = intervention.hashCode();
+
+		Associations.Intervenes.unlink(intervention);
+		Associations.Fixes.unlink(vehicle, wo);
+
+		WorkOrder other = new WorkOrder(vehicle, DATE, "revisión");
+		Associations.Fixes.unlink(vehicle, other);
+		assertEquals(other, wo);
+		assertEquals(other.hashCode(), wo.hashCode());
+		assertNotEquals(linked, intervention.hashCode());
+	}
+
+	/**
+	 * GIVEN: 10.000 work orders of a vehicle, a minute apart
+	 * WHEN: their buckets in a table of 16.384 are computed, as HashMap does
+	 * THEN: they take about as many buckets as random hashes would (7.400)
+	 */
+	@Test
+	void testFleetWorkOrdersSpread() {
+		int buckets = 1 << 14;
+		Set<Integer> used = new HashSet<>();
+		for (int i = 0; i < 10_000; i++) {
+			int h = new WorkOrder(vehicle, DATE.plusMinutes(i), "revisión")
+					.hashCode();
+			used.add((h ^ (h >>> 16)) & (buckets - 1));
+		}
+
+		assertTrue(used.size() > 7_000, used.size() + " buckets");
+	}
+
+	/**
+	 * GIVEN: 20.000 work orders of a vehicle with an intervention each
+	 * WHEN: they are looked up in the sets of the vehicle and the mechanic
+	 * THEN: all of them are found
+	 */
+	@Test
+	void testFoundInSets() {
+		List<WorkOrder> workOrders = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			WorkOrder wo = new WorkOrder(vehicle, DATE.plusSeconds(i), "r");
+			wo.assignTo(mechanic);
+			new Intervention(DATE.plusSeconds(i), 10, wo, mechanic);
+			workOrders.add(wo);
+		}
+
+		assertEquals(20_000, vehicle.getWorkOrdersView().size());
+		assertEquals(20_000, mechanic.getInterventionsView().size());
+		for (WorkOrder wo : workOrders) {
+			assertTrue(vehicle.getWorkOrdersView().contains(wo));
+			Intervention i = wo.getInterventionsView().iterator().next();
+			assertTrue(mechanic.getInterventionsView().contains(i));
+		}
+	}
+
+}
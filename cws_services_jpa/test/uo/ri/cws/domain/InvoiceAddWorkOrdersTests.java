@@ -0,0 +1,172 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Bulk invoicing through Invoice.addWorkOrders(...)
+ *
+ * Scenarios:
+ * - All the work orders are linked and invoiced, amount and vat are right
+ * - A work order not finished leaves the invoice and the batch untouched
+ * - A null work order leaves the invoice and the batch untouched
+ * - A repeated work order leaves the invoice and the batch untouched
+ * - A month-end invoice with thousands of real work orders
+ */
+class InvoiceAddWorkOrdersTests {
+	private static final double WO_AMOUNT = 100.0;
+	private static final double VAT_RATE = 0.21;
+	private static final int MONTH_END_SIZE = 5_000;
+
+	/**
+	 * GIVEN: An invoice with no work orders
+	 * WHEN: adding three finished work orders at once
+	 * THEN: the amount of the invoice is the sum of the three, vat included
+	 * AND: every work order is linked with the invoice
+	 * AND: markAsInvoiced is invoked once on each of them
+	 */
+	@Test
+	void testAddWorkOrders() {
+		Invoice invoice = new Invoice(0L);
+		List<WorkOrder> batch = Arrays.asList(createFinished(),
+				createFinished(), createFinished());
+
+		invoice.addWorkOrders(batch);
+
+		assertEquals(3 * WO_AMOUNT * (1 + VAT_RATE), invoice.getAmount(),
+				0.001);
+		assertEquals(3 * WO_AMOUNT * VAT_RATE, invoice.getVat(), 0.001);
+		assertTrue(invoice.getWorkOrders().containsAll(batch));
+		for (WorkOrder wo : batch) {
+			verify(wo, times(1)).markAsInvoiced();
+		}
+	}
+
+	/**
+	 * GIVEN: An invoice and a batch with a work order not finished
+	 * WHEN: adding the batch
+	 * THEN: an IllegalStateException is thrown
+	 * AND: no work order is linked nor invoiced
+	 */
+	@Test
+	void testNotFinishedLeavesInvoiceUntouched() {
+		Invoice invoice = new Invoice(0L);
+		WorkOrder notFinished = mock(WorkOrder.class);
+		List<WorkOrder> batch = Arrays.asList(createFinished(),
+				createFinished(), notFinished);
+
+		assertThrows(IllegalStateException.class,
+				() -> invoice.addWorkOrders(batch));
+
+		assertUntouched(invoice, batch);
+	}
+
+	/**
+	 * GIVEN: An invoice and a batch with a null work order
+	 * WHEN: adding the batch
+	 * THEN: an IllegalArgumentException is thrown
+	 * AND: no work order is linked nor invoiced
+	 */
+	@Test
+	void testNullLeavesInvoiceUntouched() {
+		Invoice invoice = new Invoice(0L);
+		WorkOrder finished = createFinished();
+		List<WorkOrder> batch = Arrays.asList(finished, null);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> invoice.addWorkOrders(batch));
+
+		assertUntouched(invoice, List.of(finished));
+	}
+
+	/**
+	 * GIVEN: An invoice and a batch with the same work order twice
+	 * WHEN: adding the batch
+	 * THEN: an IllegalArgumentException is thrown
+	 * AND: no work order is linked nor invoiced
+	 */
+	@Test
+	void testRepeatedLeavesInvoiceUntouched() {
+		Invoice invoice = new Invoice(0L);
+		WorkOrder finished = createFinished();
+		List<WorkOrder> batch = Arrays.asList(finished, createFinished(),
+				finished);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> invoice.addWorkOrders(batch));
+
+		assertUntouched(invoice, batch);
+	}
+
+	/**
+	 * GIVEN: Thousands of finished work orders, one hour of labour each
+	 * WHEN: an invoice is created with all of them
+	 * THEN: every work order is INVOICED and linked with the invoice
+	 * AND: the amount is the sum of all of them, vat included
+	 */
+	@Test
+	void testMonthEndInvoice() {
+		List<WorkOrder> batch = createRealFinished(MONTH_END_SIZE);
+
+		Invoice invoice = new Invoice(0L, batch);
+
+		double expected = MONTH_END_SIZE * 50.0 * (1 + VAT_RATE);
+		assertEquals(expected, invoice.getAmount(), 0.001);
+		assertEquals(MONTH_END_SIZE, invoice.getWorkOrdersView().size());
+		for (WorkOrder wo : batch) {
+			assertTrue(wo.isInvoiced());
+			assertSame(invoice, wo.getInvoice());
+		}
+	}
+
+	private void assertUntouched(Invoice invoice, List<WorkOrder> batch) {
+		assertTrue(invoice.getWorkOrders().isEmpty());
+		assertEquals(0.0, invoice.getAmount());
+		assertEquals(0.0, invoice.getVat());
+		for (WorkOrder wo : batch) {
+			verify(wo, never()).markAsInvoiced();
+		}
+	}
+
+	private WorkOrder createFinished() {
+		WorkOrder workOrder = mock(WorkOrder.class);
+		when( workOrder.isFinished() ).thenReturn( true );
+		when( workOrder.getAmount() ).thenReturn( WO_AMOUNT );
+		return workOrder;
+	}
+
+	private List<WorkOrder> createRealFinished(int qty) {
+		VehicleType vehicleType = new VehicleType("coche", 50.0);
+		Mechanic mechanic = new Mechanic("nif-mecanico", "nombre",
+				"apellidos");
+		LocalDateTime date = LocalDateTime.of(2024, 1, 31, 8, 0);
+
+		List<WorkOrder> res = new ArrayList<>(qty);
+		for (int i = 0; i < qty; i++) {
+			Vehicle vehicle = new Vehicle("P-" + i, "seat", "ibiza");
+			Associations.Classifies.link(vehicleType, vehicle);
+			WorkOrder wo = new WorkOrder(vehicle, date.plusSeconds(i),
+					"revisión");
+			wo.assignTo(mechanic);
+			new Intervention(date.plusSeconds(i), 60, wo, mechanic);
+			wo.markAsFinished();
+			res.add(wo);
+		}
+		return res;
+	}
+
+}
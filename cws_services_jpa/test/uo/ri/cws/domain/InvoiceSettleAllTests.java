@@ -0,0 +1,143 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - Thousands of invoices fully charged are all settled
+ * - The invoices not covered are returned and left NOT_YET_PAID
+ * - Invoices sharing a payment mean are settled
+ * - An empty batch settles nothing
+ * - A null or repeated invoice throws IAE and nothing is settled
+ */
+class InvoiceSettleAllTests {
+
+	private static final int INVOICES = 5_000;
+	private static final double AMOUNT = 100.0;
+
+	private Cash cash;
+
+	@BeforeEach
+	void setUp() {
+		cash = new Cash(new Client("nif", "nombre", "apellidos"));
+	}
+
+	/**
+	 * GIVEN: thousands of invoices, each fully charged to its own voucher
+	 * WHEN: they are settled as a batch
+	 * THEN: none is returned and all of them are PAID
+	 */
+	@Test
+	void testAllAreSettled() {
+		List<Invoice> invoices = new ArrayList<>();
+		for (int i = 0; i < INVOICES; i++) {
+			Invoice invoice = newInvoice(i);
+			new Charge(invoice, new Voucher("V" + i, "flota", 200.0),
+					invoice.getAmount());
+			invoices.add(invoice);
+		}
+
+		List<Invoice> notSettled = Invoice.settleAll(invoices);
+
+		assertTrue(notSettled.isEmpty());
+		assertTrue(invoices.stream().allMatch(Invoice::isSettled));
+	}
+
+	/**
+	 * GIVEN: thousands of invoices charged to the same cash, every third
+	 * 	one charged half its amount
+	 * WHEN: they are settled as a batch
+	 * THEN: just the ones half charged are returned, still NOT_YET_PAID
+	 * AND: the rest are PAID
+	 */
+	@Test
+	void testNotCoveredAreReturned() {
+		List<Invoice> invoices = new ArrayList<>();
+		List<Invoice> halfCharged = new ArrayList<>();
+		for (int i = 0; i < INVOICES; i++) {
+			Invoice invoice = newInvoice(i);
+			boolean half = i % 3 == 0;
+			new Charge(invoice, cash,
+					half ? invoice.getAmount() / 2 : invoice.getAmount());
+			invoices.add(invoice);
+			if (half) halfCharged.add(invoice);
+		}
+
+		List<Invoice> notSettled = Invoice.settleAll(invoices);
+
+		assertEquals(halfCharged.size(), notSettled.size());
+		assertTrue(notSettled.containsAll(halfCharged));
+		assertTrue(halfCharged.stream().allMatch(Invoice::isNotSettled));
+		assertEquals(INVOICES - halfCharged.size(),
+				invoices.stream().filter(Invoice::isSettled).count());
+	}
+
+	/**
+	 * GIVEN: no invoices
+	 * WHEN: they are settled as a batch
+	 * THEN: none is returned
+	 */
+	@Test
+	void testEmptyBatch() {
+		assertTrue(Invoice.settleAll(List.of()).isEmpty());
+	}
+
+	/**
+	 * GIVEN: a batch with a null invoice
+	 * WHEN: it is settled
+	 * THEN: an IllegalArgumentException is thrown
+	 * AND: no invoice is settled
+	 */
+	@Test
+	void testNullInvoiceThrowsIAE() {
+		Invoice invoice = chargedInvoice(1);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> Invoice.settleAll(Arrays.asList(invoice, null)));
+		assertTrue(invoice.isNotSettled());
+	}
+
+	/**
+	 * GIVEN: a batch with the same invoice twice
+	 * WHEN: it is settled
+	 * THEN: an IllegalArgumentException is thrown
+	 * AND: no invoice is settled
+	 */
+	@Test
+	void testRepeatedInvoiceThrowsIAE() {
+		Invoice invoice = chargedInvoice(1);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> Invoice.settleAll(List.of(invoice, invoice)));
+		assertTrue(invoice.isNotSettled());
+	}
+
+	private Invoice chargedInvoice(long number) {
+		Invoice invoice = newInvoice(number);
+		new Charge(invoice, cash, invoice.getAmount());
+		return invoice;
+	}
+
+	private Invoice newInvoice(long number) {
+		WorkOrder workOrder = mock(WorkOrder.class);
+		when(workOrder.isFinished()).thenReturn(true);
+		when(workOrder.getAmount()).thenReturn(AMOUNT);
+
+		Invoice invoice = new Invoice(number, LocalDate.of(2024, 1, 9));
+		invoice.addWorkOrder(workOrder);
+		return invoice;
+	}
+
+}
@@ -0,0 +1,157 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - An invoice fully charged to cash gets settled
+ * - An invoice paid with many vouchers and a card gets settled
+ * - A voucher whose available was used up by its charge still settles
+ * - A cent lost rounding the charges is tolerated
+ * - An invoice with charges not covering the amount throws ISE
+ * - An invoice with a charge to a mean that cannot pay any more throws ISE
+ * - Settling an invoice already settled throws ISE
+ */
+class InvoiceSettleTests {
+
+	private static final double AMOUNT = 100.0;
+	private Invoice invoice;
+	private Client client;
+
+	@BeforeEach
+	void setUp() {
+		WorkOrder workOrder = mock(WorkOrder.class);
+		when(workOrder.isFinished()).thenReturn(true);
+		when(workOrder.getAmount()).thenReturn(AMOUNT);
+
+		invoice = new Invoice(1000L, LocalDate.of(2024, 1, 9));
+		invoice.addWorkOrder(workOrder);
+		client = new Client("nif", "nombre", "apellidos");
+	}
+
+	/**
+	 * GIVEN: an invoice with a charge to cash of its whole amount
+	 * WHEN: the invoice is settled
+	 * THEN: the invoice is PAID
+	 */
+	@Test
+	void testSettleWithCash() {
+		new Charge(invoice, new Cash(client), invoice.getAmount());
+
+		invoice.settle();
+
+		assertTrue(invoice.isSettled());
+	}
+
+	/**
+	 * GIVEN: an invoice of 121.0 paid with a hundred vouchers of 1.0 and
+	 * 	a credit card the rest
+	 * WHEN: the invoice is settled
+	 * THEN: the invoice is PAID
+	 * AND: the charges are not touched
+	 */
+	@Test
+	void testSettleWithManyPaymentMeans() {
+		for (int i = 0; i < 100; i++) {
+			new Charge(invoice, new Voucher("V" + i, "flota", 1.0), 1.0);
+		}
+		CreditCard card = new CreditCard("1234", "visa",
+				LocalDate.now().plusYears(1));
+		new Charge(invoice, card, 21.0);
+
+		invoice.settle();
+
+		assertTrue(invoice.isSettled());
+		assertEquals(101, invoice.getCharges().size());
+		assertEquals(21.0, card.getAccumulated());
+	}
+
+	/**
+	 * GIVEN: an invoice charged to a voucher with just its amount
+	 * WHEN: the invoice is settled
+	 * THEN: the invoice is PAID, the voucher paid it when charged
+	 */
+	@Test
+	void testSettleWithUsedUpVoucher() {
+		Voucher voucher = new Voucher("V001", "regalo", invoice.getAmount());
+		new Charge(invoice, voucher, invoice.getAmount());
+
+		invoice.settle();
+
+		assertTrue(invoice.isSettled());
+		assertEquals(0.0, voucher.getAvailable());
+	}
+
+	/**
+	 * GIVEN: an invoice of 121.0 split in three charges of 40.33
+	 * WHEN: the invoice is settled
+	 * THEN: the invoice is PAID, the cent lost is tolerated
+	 */
+	@Test
+	void testSettleToleratesACent() {
+		new Charge(invoice, new Cash(client), 40.33);
+		new Charge(invoice, new Voucher("V001", "regalo", 50.0), 40.33);
+		new Charge(invoice, new Voucher("V002", "regalo", 50.0), 40.33);
+
+		invoice.settle();
+
+		assertTrue(invoice.isSettled());
+	}
+
+	/**
+	 * GIVEN: an invoice with charges two cents short of its amount
+	 * WHEN: the invoice is settled
+	 * THEN: an IllegalStateException is thrown
+	 * AND: the invoice is still NOT_YET_PAID
+	 */
+	@Test
+	void testNotCoveredThrowsISE() {
+		new Charge(invoice, new Cash(client), invoice.getAmount() - 0.02);
+
+		assertThrows(IllegalStateException.class, () -> invoice.settle());
+		assertTrue(invoice.isNotSettled());
+	}
+
+	/**
+	 * GIVEN: an invoice charged to a payment mean that could pay then
+	 * 	but cannot any more
+	 * WHEN: the invoice is settled
+	 * THEN: an IllegalStateException is thrown
+	 * AND: the invoice is still NOT_YET_PAID
+	 */
+	@Test
+	void testMeanThatCannotPayThrowsISE() {
+		PaymentMean mean = mock(PaymentMean.class);
+		when(mean.canPay(any())).thenReturn(true);
+		new Charge(invoice, mean, invoice.getAmount());
+		when(mean.canSettle(anyLong())).thenReturn(false);
+
+		assertThrows(IllegalStateException.class, () -> invoice.settle());
+		assertTrue(invoice.isNotSettled());
+	}
+
+	/**
+	 * GIVEN: a settled invoice
+	 * WHEN: it is settled again
+	 * THEN: an IllegalStateException is thrown
+	 */
+	@Test
+	void testSettleTwiceThrowsISE() {
+		new Charge(invoice, new Cash(client), invoice.getAmount());
+		invoice.settle();
+
+		assertThrows(IllegalStateException.class, () -> invoice.settle());
+	}
+
+}
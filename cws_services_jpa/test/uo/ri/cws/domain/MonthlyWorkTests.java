@@ -0,0 +1,175 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - Minutes add up by the month of the intervention, and go on unlink
+ * - The amount billed adds up when the work order is invoiced, and goes
+ * 	when the invoice drops it
+ * - A work order counts once for a mechanic with several interventions on it
+ * - A work order counts whole for every mechanic that worked on it
+ * - The monthly work gives the payroll Payroll(contract, date) computes
+ */
+class MonthlyWorkTests {
+
+	private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 4, 9, 0);
+	private static final YearMonth MARCH = YearMonth.of(2024, 3);
+
+	private Vehicle vehicle;
+	private Mechanic mechanic;
+
+	@BeforeEach
+	void setUp() {
+		vehicle = new Vehicle("1234-ABC", "seat", "ibiza");
+		Associations.Classifies.link(new VehicleType("coche", 50.0), vehicle);
+		mechanic = new Mechanic("nif-ana", "garcía", "ana");
+	}
+
+	/**
+	 * GIVEN: a mechanic with no work
+	 * WHEN: it intervenes 60 minutes in March, 30 in March and 45 in April,
+	 * 	and then the April one is unlinked
+	 * THEN: March has 90 minutes and April none, nothing billed
+	 */
+	@Test
+	void testMinutesByMonth() {
+		WorkOrder wo = assigned(DATE);
+		new Intervention(DATE, 60, wo, mechanic);
+		new Intervention(DATE.plusDays(1), 30, wo, mechanic);
+		Intervention april = new Intervention(DATE.plusMonths(1), 45, wo,
+				mechanic);
+		assertEquals(45, mechanic.getMonthlyWork(MARCH.plusMonths(1))
+				.getMinutes());
+
+		Associations.Intervenes.unlink(april);
+
+		assertEquals(new MonthlyWork(90, 0), mechanic.getMonthlyWork(MARCH));
+		assertSame(MonthlyWork.NONE,
+				mechanic.getMonthlyWork(MARCH.plusMonths(1)));
+	}
+
+	/**
+	 * GIVEN: a finished work order of an hour (50 €) of the mechanic
+	 * WHEN: it is invoiced, and then the invoice drops it
+	 * THEN: 50 € are billed in March, and then none
+	 */
+	@Test
+	void testBilledWhenInvoiced() {
+		WorkOrder wo = finished(DATE, mechanic);
+		assertEquals(0.0, mechanic.getMonthlyWork(MARCH).getBilledAmount());
+
+		Invoice invoice = new Invoice(1L, DATE.toLocalDate(), List.of(wo));
+		assertEquals(50.0, mechanic.getMonthlyWork(MARCH).getBilledAmount(),
+				0.001);
+
+		invoice.removeWorkOrder(wo);
+		assertEquals(0.0, mechanic.getMonthlyWork(MARCH).getBilledAmount());
+	}
+
+	/**
+	 * GIVEN: a work order with two hours of the mechanic (100 €)
+	 * WHEN: it is invoiced
+	 * THEN: 100 € are billed, once
+	 */
+	@Test
+	void testSeveralInterventionsCountOnce() {
+		WorkOrder wo = finished(DATE, mechanic, mechanic);
+
+		new Invoice(1L, DATE.toLocalDate(), List.of(wo));
+
+		assertEquals(new MonthlyWork(120, 100_00),
+				mechanic.getMonthlyWork(MARCH));
+	}
+
+	/**
+	 * GIVEN: a work order with an hour of two mechanics each (100 €)
+	 * WHEN: it is invoiced
+	 * THEN: both are billed the 100 €, with an hour each
+	 */
+	@Test
+	void testSharedWorkOrder() {
+		Mechanic luis = new Mechanic("nif-luis", "pérez", "luis");
+		WorkOrder wo = finished(DATE, mechanic, luis);
+
+		new Invoice(1L, DATE.toLocalDate(), List.of(wo));
+
+		assertEquals(new MonthlyWork(60, 100_00),
+				mechanic.getMonthlyWork(MARCH));
+		assertEquals(new MonthlyWork(60, 100_00), luis.getMonthlyWork(MARCH));
+	}
+
+	/**
+	 * GIVEN: a contract of the mechanic, and work orders invoiced in March
+	 * 	and February and one not invoiced
+	 * WHEN: the payroll of March is built from the monthly work
+	 * THEN: its productivity earning is the one Payroll(contract, date)
+	 * 	computes walking the interventions
+	 */
+	@Test
+	void testSameProductivityAsPayroll() {
+		Contract contract = new Contract(mechanic,
+				new ContractType("INDEFINITE", 20),
+				new ProfessionalGroup("oficial", 30.0, 0.05),
+				LocalDate.of(2020, 1, 1), 30_000);
+		new Invoice(1L, DATE.toLocalDate(),
+				List.of(finished(DATE, mechanic, mechanic)));
+		new Invoice(2L, DATE.toLocalDate(),
+				List.of(finished(DATE.minusMonths(1), mechanic)));
+		finished(DATE.plusDays(1), mechanic);
+		LocalDate date = MARCH.atEndOfMonth();
+
+		Payroll expected = new Payroll(contract, date);
+		Associations.Runs.unlink(contract, expected);
+		Payroll actual = new Payroll(contract, date, mechanic
+				.getMonthlyWork(MARCH)
+				.getBilledAmountInCents(), 30.0);
+
+		assertEquals(expected.getProductivityEarning(),
+				actual.getProductivityEarning(), 0.001);
+		assertEquals(expected.getTaxDeduction(), actual.getTaxDeduction(),
+				0.001);
+	}
+
+	/**
+	 * GIVEN: a mechanic
+	 * WHEN: its monthly work for a null month is asked for
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testNullMonth() {
+		assertThrows(IllegalArgumentException.class,
+				() -> mechanic.getMonthlyWork(null));
+	}
+
+	private WorkOrder assigned(LocalDateTime date) {
+		WorkOrder wo = new WorkOrder(vehicle, date, "revisión");
+		wo.assignTo(mechanic);
+		return wo;
+	}
+
+	/*
+	 * A work order with an hour of work (50 €) of each mechanic, the first
+	 * one assigned, finished
+	 */
+	private WorkOrder finished(LocalDateTime date, Mechanic... mechanics) {
+		WorkOrder wo = new WorkOrder(vehicle, date, "revisión");
+		wo.assignTo(mechanics[0]);
+		for (int i = 0; i < mechanics.length; i++) {
+			new Intervention(date.plusMinutes(i), 60, wo, mechanics[i]);
+		}
+		wo.markAsFinished();
+		return wo;
+	}
+
+}
@@ -0,0 +1,139 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - A vehicle is found by its plate, written with or without blanks,
+ * 		hyphens and lower case letters
+ * - Clients and mechanics are found by nif and invoices by number
+ * - The first entity registered for a key is kept, the identity map
+ * - Unregistering takes the entity out only if it is the one kept
+ * - Keys already normalized are not copied
+ * - Null entities and null keys are rejected
+ */
+class NaturalKeyIndexTests {
+
+	/**
+	 * GIVEN: an index with a vehicle of plate 1234-ABC
+	 * WHEN: it is looked up as 1234-abc, 1234 ABC and 1234ABC
+	 * THEN: it is found every time, and 1234-ABD is not
+	 */
+	@Test
+	void testFindVehicleByPlate() {
+		NaturalKeyIndex<String, Vehicle> index = NaturalKeyIndex.ofVehicles(1);
+		Vehicle vehicle = new Vehicle("1234-ABC", "seat", "ibiza");
+		index.register(vehicle);
+
+		for (String plate : List.of("1234-abc", "1234 ABC", "1234ABC")) {
+			assertSame(vehicle, index.find(plate).get());
+		}
+		assertTrue(index.find("1234-ABD").isEmpty());
+	}
+
+	/**
+	 * GIVEN: indexes of clients, mechanics and invoices
+	 * WHEN: they are looked up by nif and number
+	 * THEN: each one is found
+	 */
+	@Test
+	void testFindByNifAndNumber() {
+		NaturalKeyIndex<String, Client> clients = NaturalKeyIndex.ofClients(1);
+		NaturalKeyIndex<String, Mechanic> mechanics =
+				NaturalKeyIndex.ofMechanics(1);
+		NaturalKeyIndex<Long, Invoice> invoices = NaturalKeyIndex.ofInvoices(1);
+		Client client = new Client("12345678z", "ana", "garcía");
+		Mechanic mechanic = new Mechanic("87654321-X", "luis", "pérez");
+		Invoice invoice = new Invoice(42L);
+
+		clients.register(client);
+		mechanics.register(mechanic);
+		invoices.register(invoice);
+
+		assertSame(client, clients.find("12345678-Z").get());
+		assertSame(mechanic, mechanics.find("87654321x").get());
+		assertSame(invoice, invoices.find(42L).get());
+		assertFalse(invoices.contains(43L));
+	}
+
+	/**
+	 * GIVEN: an index with a vehicle
+	 * WHEN: another vehicle with the same plate, written differently, is
+	 * 	registered
+	 * THEN: the first one is returned and kept
+	 */
+	@Test
+	void testFirstRegisteredIsKept() {
+		NaturalKeyIndex<String, Vehicle> index = NaturalKeyIndex.ofVehicles(1);
+		Vehicle first = new Vehicle("1234-ABC", "seat", "ibiza");
+		Vehicle second = new Vehicle("1234 abc", "seat", "ibiza");
+
+		assertSame(first, index.register(first));
+		assertSame(first, index.register(second));
+
+		assertEquals(1, index.size());
+		assertSame(first, index.find("1234ABC").get());
+	}
+
+	/**
+	 * GIVEN: an index with a vehicle, and another with the same plate not
+	 * 	kept
+	 * WHEN: the other one is unregistered, and then the first one
+	 * THEN: the first one stays until it is unregistered itself
+	 */
+	@Test
+	void testUnregister() {
+		NaturalKeyIndex<String, Vehicle> index = NaturalKeyIndex.ofVehicles(1);
+		Vehicle first = new Vehicle("1234-ABC", "seat", "ibiza");
+		Vehicle second = new Vehicle("1234ABC", "seat", "leon");
+		index.register(first);
+		index.register(second);
+
+		index.unregister(second);
+		assertSame(first, index.find("1234-ABC").get());
+
+		index.unregister(first);
+		assertEquals(0, index.size());
+	}
+
+	/**
+	 * GIVEN: keys with and without blanks, hyphens and lower case letters
+	 * WHEN: they are normalized
+	 * THEN: the normalized ones are returned as they are
+	 */
+	@Test
+	void testNormalize() {
+		String normalized = "1234ABC";
+
+		assertSame(normalized, NaturalKeyIndex.normalize(normalized));
+		assertEquals("1234ABC", NaturalKeyIndex.normalize(" 1234-abc "));
+		assertEquals("", NaturalKeyIndex.normalize(" - "));
+	}
+
+	/**
+	 * GIVEN: an index of vehicles
+	 * WHEN: a null vehicle, a vehicle with null plate or a null plate is
+	 * 	used
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testNullsThrowIAE() {
+		NaturalKeyIndex<String, Vehicle> index = NaturalKeyIndex.ofVehicles(1);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> index.register(null));
+		assertThrows(IllegalArgumentException.class,
+				() -> index.register(new Vehicle(null, "seat", "ibiza")));
+		assertThrows(IllegalArgumentException.class,
+				() -> index.find(null));
+	}
+
+}
@@ -0,0 +1,160 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntToLongFunction;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uo.ri.util.math.Cents;
+
+/**
+ * Several terminals charging the same payment mean at the same time.
+ *
+ * Scenarios:
+ * - Concurrent payments with cash lose no update
+ * - Concurrent payments with a voucher never overdraw it
+ * - Concurrent payments of random amounts keep available + accumulated
+ */
+class PaymentMeanConcurrencyTests {
+	private static final int TERMINALS = 16;
+	private static final int PAYMENTS = 10_000;
+
+	private ExecutorService terminals;
+
+	@BeforeEach
+	void setUp() {
+		terminals = Executors.newFixedThreadPool(TERMINALS);
+	}
+
+	@AfterEach
+	void tearDown() {
+		terminals.shutdownNow();
+	}
+
+	/**
+	 * GIVEN: a cash payment mean
+	 * WHEN: every terminal pays 0.01 many times at the same time
+	 * THEN: the accumulated is the sum of all the payments
+	 */
+	@Test
+	void testCashLosesNoUpdate() throws Exception {
+		Cash cash = new Cash(new Client("nif", "nombre", "apellidos"));
+
+		runOnAllTerminals(terminal -> {
+			for (int i = 0; i < PAYMENTS; i++) {
+				cash.pay(0.01);
+			}
+			return 0L;
+		});
+
+		assertEquals(Cents.toDouble(TERMINALS * PAYMENTS),
+				cash.getAccumulated());
+	}
+
+	/**
+	 * GIVEN: a voucher with 1000.0 available
+	 * WHEN: every terminal tries to pay 1.0 far more times than available
+	 * THEN: exactly 1000 payments succeed and the rest are rejected
+	 * AND: the available is zero and never went below
+	 * AND: the accumulated is 1000.0
+	 */
+	@Test
+	void testVoucherIsNeverOverdrawn() throws Exception {
+		Voucher voucher = new Voucher("V001", "empresa", 1000.0);
+		AtomicBoolean overdrawn = new AtomicBoolean(false);
+
+		long paid = runOnAllTerminals(terminal -> {
+			long ok = 0;
+			for (int i = 0; i < PAYMENTS / 10; i++) {
+				if (tryPay(voucher, 1.0)) {
+					ok++;
+				}
+				if (voucher.getAvailable() < 0) {
+					overdrawn.set(true);
+				}
+			}
+			return ok;
+		});
+
+		assertEquals(1000, paid);
+		assertEquals(0.0, voucher.getAvailable());
+		assertEquals(1000.0, voucher.getAccumulated());
+		assertFalse(overdrawn.get());
+		assertFalse(voucher.canPay(0.01));
+	}
+
+	/**
+	 * GIVEN: a voucher with 5000.0 available
+	 * WHEN: every terminal pays random amounts until it is rejected
+	 * THEN: the amounts paid add up to the accumulated
+	 * AND: available + accumulated is still 5000.0
+	 */
+	@Test
+	void testVoucherRandomAmountsAddUp() throws Exception {
+		Voucher voucher = new Voucher("V002", "empresa", 5000.0);
+
+		long paidInCents = runOnAllTerminals(terminal -> {
+			Random rnd = new Random(terminal);
+			long paid = 0;
+			for (int i = 0; i < PAYMENTS; i++) {
+				long cents = 1 + rnd.nextInt(500);
+				if (tryPay(voucher, Cents.toDouble(cents))) {
+					paid += cents;
+				}
+			}
+			return paid;
+		});
+
+		assertEquals(Cents.toDouble(paidInCents), voucher.getAccumulated());
+		assertEquals(5000.0,
+				voucher.getAvailable() + voucher.getAccumulated(), 0.001);
+		assertTrue(voucher.getAvailable() >= 0);
+	}
+
+	private boolean tryPay(Voucher voucher, double amount) {
+		try {
+			voucher.pay(amount);
+			return true;
+		} catch (IllegalStateException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Runs the task on every terminal, all of them starting at once, given
+	 * the number of the terminal
+	 * @return the sum of the results
+	 */
+	private long runOnAllTerminals(IntToLongFunction task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Long>> results = new ArrayList<>();
+		for (int i = 0; i < TERMINALS; i++) {
+			int terminal = i;
+			results.add(terminals.submit(() -> {
+				start.await();
+				return task.applyAsLong(terminal);
+			}));
+		}
+		start.countDown();
+
+		long res = 0;
+		for (Future<Long> f : results) {
+			res += f.get();
+		}
+		return res;
+	}
+
+}
@@ -0,0 +1,259 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - The payroll generated is the same Payroll(contract, date) computes
+ * - A work order counts once for each mechanic that worked on it
+ * - A mechanic intervening on an invoiced work order is paid for it, and
+ * 	not any more once the intervention is unlinked
+ * - Contracts not in force during the month, or already paid, are skipped
+ * - Thousands of contracts are paid in parallel, each one once
+ * - Null or repeated contracts are rejected and nothing is generated
+ */
+class PayrollEngineTests {
+
+	private static final LocalDate MARCH = LocalDate.of(2024, 3, 31);
+	private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 4, 9, 0);
+	private static final double SALARY = 30_000;
+
+	private PayrollEngine engine = new PayrollEngine();
+	private Vehicle vehicle;
+	private ContractType type;
+	private ProfessionalGroup group;
+	private long invoiceNumber;
+
+	@BeforeEach
+	void setUp() {
+		vehicle = new Vehicle("1234-ABC", "seat", "ibiza");
+		Associations.Classifies.link(new VehicleType("coche", 50.0), vehicle);
+		type = new ContractType("INDEFINITE", 20);
+		group = new ProfessionalGroup("oficial", 30.0, 0.05);
+		invoiceNumber = 1;
+	}
+
+	/**
+	 * GIVEN: a mechanic that worked twice on a work order invoiced in March,
+	 * 	and on one of February and one of March not invoiced
+	 * WHEN: the payrolls of March are generated
+	 * THEN: the payroll has the same concepts new Payroll() computes, with
+	 * 	the productivity over the March invoiced one only (100 €)
+	 */
+	@Test
+	void testSameAsPayroll() {
+		Mechanic mechanic = new Mechanic("nif-ana", "garcía", "ana");
+		Contract contract = contract(mechanic, LocalDate.of(2018, 5, 1));
+		invoiced(DATE, mechanic, mechanic);
+		invoiced(DATE.minusMonths(1), mechanic);
+		finished(DATE.plusDays(1), mechanic);
+
+		List<Payroll> generated = engine.generate(List.of(contract), MARCH);
+
+		assertEquals(1, generated.size());
+		Payroll payroll = generated.get(0);
+		assertEquals(100 * 0.05, payroll.getProductivityEarning(), 0.001);
+		Associations.Runs.unlink(contract, payroll);
+		assertSameConcepts(new Payroll(contract, MARCH), payroll);
+	}
+
+	/**
+	 * GIVEN: two mechanics that worked on the same work order
+	 * WHEN: the payrolls of the month are generated
+	 * THEN: both have the productivity over the whole work order
+	 */
+	@Test
+	void testSharedWorkOrder() {
+		Mechanic ana = new Mechanic("nif-ana", "garcía", "ana");
+		Mechanic luis = new Mechanic("nif-luis", "pérez", "luis");
+		Contract first = contract(ana, LocalDate.of(2023, 1, 1));
+		Contract second = contract(luis, LocalDate.of(2023, 1, 1));
+		invoiced(DATE, ana, luis);
+
+		List<Payroll> generated = engine.generate(List.of(first, second), MARCH);
+
+		assertEquals(2, generated.size());
+		for (Payroll payroll : generated) {
+			assertEquals(100 * 0.05, payroll.getProductivityEarning(), 0.001);
+		}
+	}
+
+	/**
+	 * GIVEN: a work order of ana invoiced in March
+	 * WHEN: luis intervenes on it once invoiced, and the payrolls of March
+	 * 	are generated
+	 * THEN: the payroll of luis has the productivity over the work order,
+	 * 	the same new Payroll() computes
+	 */
+	@Test
+	void testInterventionOnInvoiced() {
+		Mechanic ana = new Mechanic("nif-ana", "garcía", "ana");
+		Mechanic luis = new Mechanic("nif-luis", "pérez", "luis");
+		Contract contract = contract(luis, LocalDate.of(2023, 1, 1));
+		WorkOrder wo = invoiced(DATE, ana);
+
+		new Intervention(DATE.plusHours(1), 30, wo, luis);
+		new Intervention(DATE.plusHours(2), 30, wo, luis);
+		Payroll payroll = engine.generate(List.of(contract), MARCH).get(0);
+
+		assertEquals(50 * 0.05, payroll.getProductivityEarning(), 0.001);
+		Associations.Runs.unlink(contract, payroll);
+		assertSameConcepts(new Payroll(contract, MARCH), payroll);
+	}
+
+	/**
+	 * GIVEN: a work order of ana and luis invoiced in March
+	 * WHEN: the intervention of luis is unlinked, and the payrolls of March
+	 * 	are generated
+	 * THEN: the payroll of luis has no productivity, the same new Payroll()
+	 * 	computes, and ana keeps hers
+	 */
+	@Test
+	void testInterventionUnlinkedFromInvoiced() {
+		Mechanic ana = new Mechanic("nif-ana", "garcía", "ana");
+		Mechanic luis = new Mechanic("nif-luis", "pérez", "luis");
+		Contract first = contract(ana, LocalDate.of(2023, 1, 1));
+		Contract second = contract(luis, LocalDate.of(2023, 1, 1));
+		WorkOrder wo = invoiced(DATE, ana, luis);
+		Intervention intervention = wo.getInterventionsView()
+				.stream()
+				.filter(i -> i.getMechanic() == luis)
+				.findFirst()
+				.get();
+
+		Associations.Intervenes.unlink(intervention);
+		List<Payroll> generated = engine.generate(List.of(first, second),
+				MARCH);
+
+		assertEquals(100 * 0.05, generated.get(0).getProductivityEarning(),
+				0.001);
+		Payroll payroll = generated.get(1);
+		assertEquals(0.0, payroll.getProductivityEarning(), 0.001);
+		Associations.Runs.unlink(second, payroll);
+		assertSameConcepts(new Payroll(second, MARCH), payroll);
+	}
+
+	/**
+	 * GIVEN: a contract starting in April, one terminated in January, one
+	 * 	already paid in March and one in force
+	 * WHEN: the payrolls of March are generated, twice
+	 * THEN: only the one in force is paid, and only the first time
+	 */
+	@Test
+	void testSkipsNotDue() {
+		Contract future = contract(new Mechanic("nif-1", "s", "n"),
+				LocalDate.of(2024, 4, 1));
+		Contract terminated = contract(new Mechanic("nif-2", "s", "n"),
+				LocalDate.of(2023, 1, 1));
+		terminated.terminate(LocalDate.of(2024, 1, 15));
+		Contract paid = contract(new Mechanic("nif-3", "s", "n"),
+				LocalDate.of(2023, 1, 1));
+		new Payroll(paid, MARCH);
+		Contract due = contract(new Mechanic("nif-4", "s", "n"),
+				LocalDate.of(2023, 1, 1));
+		List<Contract> contracts = List.of(future, terminated, paid, due);
+
+		List<Payroll> generated = engine.generate(contracts, MARCH);
+
+		assertEquals(1, generated.size());
+		assertSame(due, generated.get(0).getContract());
+		assertTrue(engine.generate(contracts, MARCH).isEmpty());
+	}
+
+	/**
+	 * GIVEN: 5.000 contracts in force
+	 * WHEN: the payrolls of the month are generated
+	 * THEN: every contract has one, linked, in the order of the contracts
+	 */
+	@Test
+	void testLargeBatch() {
+		List<Contract> contracts = new ArrayList<>();
+		for (int i = 0; i < 5_000; i++) {
+			contracts.add(contract(new Mechanic("nif-" + i, "s", "n"),
+					LocalDate.of(2020, 1, 1)));
+		}
+
+		List<Payroll> generated = engine.generate(contracts, MARCH);
+
+		assertEquals(contracts.size(), generated.size());
+		for (int i = 0; i < contracts.size(); i++) {
+			Payroll payroll = generated.get(i);
+			assertSame(contracts.get(i), payroll.getContract());
+			assertEquals(1, contracts.get(i).getPayrollsView().size());
+			assertEquals(SALARY / 14, payroll.getMonthlyBaseSalary(), 0.001);
+		}
+	}
+
+	/**
+	 * GIVEN: a contract in force
+	 * WHEN: the payrolls are generated with null arguments, a null contract
+	 * 	or the contract twice
+	 * THEN: an IllegalArgumentException is thrown and the contract is not
+	 * 	paid
+	 */
+	@Test
+	void testInvalidArguments() {
+		Contract contract = contract(new Mechanic("nif-1", "s", "n"),
+				LocalDate.of(2023, 1, 1));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.generate(null, MARCH));
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.generate(List.of(contract), null));
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.generate(Arrays.asList(contract, null), MARCH));
+		assertThrows(IllegalArgumentException.class,
+				() -> engine.generate(List.of(contract, contract), MARCH));
+		assertTrue(contract.getPayrollsView().isEmpty());
+	}
+
+	private Contract contract(Mechanic mechanic, LocalDate signingDate) {
+		return new Contract(mechanic, type, group, signingDate, SALARY);
+	}
+
+	/*
+	 * A work order with an hour of work (50 €) of each mechanic, the first
+	 * one assigned, finished
+	 */
+	private WorkOrder finished(LocalDateTime date, Mechanic... mechanics) {
+		WorkOrder wo = new WorkOrder(vehicle, date, "revisión");
+		wo.assignTo(mechanics[0]);
+		for (int i = 0; i < mechanics.length; i++) {
+			new Intervention(date.plusMinutes(i), 60, wo, mechanics[i]);
+		}
+		wo.markAsFinished();
+		return wo;
+	}
+
+	private WorkOrder invoiced(LocalDateTime date, Mechanic... mechanics) {
+		WorkOrder wo = finished(date, mechanics);
+		new Invoice(invoiceNumber++, date.toLocalDate(), List.of(wo));
+		return wo;
+	}
+
+	private void assertSameConcepts(Payroll expected, Payroll actual) {
+		assertEquals(expected.getDate(), actual.getDate());
+		assertEquals(expected.getMonthlyBaseSalary(),
+				actual.getMonthlyBaseSalary(), 0.001);
+		assertEquals(expected.getExtraSalary(), actual.getExtraSalary(), 0.001);
+		assertEquals(expected.getProductivityEarning(),
+				actual.getProductivityEarning(), 0.001);
+		assertEquals(expected.getTrienniumEarning(),
+				actual.getTrienniumEarning(), 0.001);
+		assertEquals(expected.getTaxDeduction(), actual.getTaxDeduction(), 0.001);
+		assertEquals(expected.getNicDeduction(), actual.getNicDeduction(), 0.001);
+	}
+
+}
@@ -0,0 +1,293 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - A substitution takes its quantity from the stock
+ * - Unlinking a substitution gives the quantity back
+ * - A part substituted twice in an intervention is rejected, with no stock
+ * 	taken
+ * - Substitutions made at the same time from several threads, each on its
+ * 	own work order, lose no unit
+ * - Crossing minStock queues the part once, however many substitutions
+ * - A batch suggests the units up to maxStock
+ * - A batch processes up to its size, the first queued first
+ * - A part restocked before the batch gets no suggestion
+ * - A part restocked and crossing again is queued again
+ * - A part watched while below its minimum is queued
+ * - A part in another engine is rejected
+ */
+class ReorderEngineTests {
+
+	private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 8, 9, 0);
+
+	private ReorderEngine engine;
+	private SparePart part;
+	private Intervention intervention;
+	private Mechanic mechanic;
+	private WorkOrder workOrder;
+	private int sequence = 0;
+
+	@BeforeEach
+	void setUp() {
+		engine = new ReorderEngine();
+		part = new SparePart("SP-1", "filtro", 10.0, 20, 5, 30);
+		engine.watch(part);
+
+		VehicleType vehicleType = new VehicleType("coche", 50.0);
+		Vehicle vehicle = new Vehicle("1234-ABC", "seat", "ibiza");
+		Associations.Classifies.link(vehicleType, vehicle);
+		mechanic = new Mechanic("nif-ana", "apellidos", "ana");
+		workOrder = new WorkOrder(vehicle, DATE, "revisión");
+		workOrder.assignTo(mechanic);
+		intervention = newIntervention();
+	}
+
+	/**
+	 * GIVEN: a spare part with 20 units
+	 * WHEN: a substitution of 3 units is made
+	 * THEN: 17 units are left
+	 */
+	@Test
+	void testSubstitutionTakesFromStock() {
+		new Substitution(part, intervention, 3);
+
+		assertEquals(17, part.getStock());
+	}
+
+	/**
+	 * GIVEN: a substitution of 3 units
+	 * WHEN: it is unlinked
+	 * THEN: the stock is 20 again
+	 */
+	@Test
+	void testUnlinkGivesBackStock() {
+		Substitution s = new Substitution(part, intervention, 3);
+
+		Associations.Substitutes.unlink(s);
+
+		assertEquals(20, part.getStock());
+	}
+
+	/**
+	 * GIVEN: a substitution of 10 units of the part in an intervention
+	 * WHEN: another one of the part in the same intervention is made
+	 * THEN: an IllegalStateException is thrown
+	 * AND: 10 units are left and the intervention has one substitution
+	 */
+	@Test
+	void testRepeatedSubstitutionThrowsISE() {
+		new Substitution(part, intervention, 10);
+
+		assertThrows(IllegalStateException.class,
+				() -> new Substitution(part, intervention, 6));
+		assertEquals(10, part.getStock());
+		assertEquals(1, intervention.getSubstitutionsView().size());
+		assertEquals(1, part.getSubstitutionsView().size());
+	}
+
+	/**
+	 * GIVEN: a spare part with 20 units and 8 threads, each with its own
+	 * 	work order
+	 * WHEN: every thread makes a thousand substitutions of one unit at the
+	 * 	same time, each in a new intervention
+	 * THEN: the stock is 20 - 8000, no unit is lost
+	 * AND: the part has the 8000 substitutions, and every work order the
+	 * 	amount of its thousand units
+	 * AND: the part is queued once
+	 */
+	@Test
+	void testConcurrentSubstitutionsLoseNoUnit() throws InterruptedException {
+		int threads = 8;
+		int times = 1_000;
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>();
+		List<WorkOrder> workOrders = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Mechanic worker = new Mechanic("nif-" + t, "apellidos", "nombre");
+			WorkOrder wo = new WorkOrder(workOrder.getVehicle(),
+					DATE.plusDays(t + 1), "revisión");
+			wo.assignTo(worker);
+			workOrders.add(wo);
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < times; i++) {
+					Intervention intervention = new Intervention(
+							wo.getDate().plusMinutes(i), 0, wo, worker);
+					new Substitution(part, intervention, 1);
+				}
+			});
+			thread.start();
+			workers.add(thread);
+		}
+
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		assertEquals(20 - threads * times, part.getStock());
+		assertEquals(threads * times, part.getSubstitutions().size());
+		for (WorkOrder wo : workOrders) {
+			wo.markAsFinished();
+			assertEquals(times * 10.0, wo.getAmount(), 0.001);
+		}
+		assertEquals(1, engine.getQueued());
+	}
+
+	/**
+	 * GIVEN: a spare part with 20 units, minimum 5 and maximum 30
+	 * WHEN: substitutions take it to 4 and then to 2
+	 * THEN: it is queued once
+	 * AND: the batch suggests 28 units
+	 */
+	@Test
+	void testCrossingMinStockSuggestsUpToMaxStock() {
+		new Substitution(part, intervention, 10);
+		assertEquals(0, engine.getQueued());
+
+		new Substitution(part, newIntervention(), 6);
+		new Substitution(part, newIntervention(), 2);
+
+		assertEquals(1, engine.getQueued());
+		List<PurchaseSuggestion> batch = engine.processBatch();
+		assertEquals(1, batch.size());
+		assertSame(part, batch.get(0).getSparePart());
+		assertEquals(28, batch.get(0).getQuantity());
+		assertEquals(0, engine.getQueued());
+	}
+
+	/**
+	 * GIVEN: three parts below their minimum, queued one after the other
+	 * WHEN: a batch of two is processed, and then another
+	 * THEN: the first gets the first two parts and the second the other
+	 */
+	@Test
+	void testBatchSize() {
+		SparePart second = new SparePart("SP-2", "bujía", 5.0, 1, 2, 10);
+		SparePart third = new SparePart("SP-3", "aceite", 5.0, 1, 2, 10);
+		part._takeFromStock(20);
+		engine.watch(second);
+		engine.watch(third);
+
+		List<PurchaseSuggestion> first = engine.processBatch(2);
+		List<PurchaseSuggestion> last = engine.processBatch(2);
+
+		assertEquals(2, first.size());
+		assertSame(part, first.get(0).getSparePart());
+		assertSame(second, first.get(1).getSparePart());
+		assertEquals(1, last.size());
+		assertSame(third, last.get(0).getSparePart());
+		assertTrue(engine.processBatch(2).isEmpty());
+	}
+
+	/**
+	 * GIVEN: a part queued
+	 * WHEN: it is restocked before the batch
+	 * THEN: there is no suggestion for it
+	 */
+	@Test
+	void testRestockedBeforeBatchIsNotSuggested() {
+		new Substitution(part, intervention, 18);
+
+		part.addToStock(10);
+
+		assertTrue(engine.processBatch().isEmpty());
+	}
+
+	/**
+	 * GIVEN: a part that crossed its minimum and was processed
+	 * WHEN: it is restocked and crosses its minimum again
+	 * THEN: it is queued again
+	 */
+	@Test
+	void testRestockedCrossesAgain() {
+		new Substitution(part, intervention, 18);
+		engine.processBatch();
+		part.addToStock(28);
+
+		new Substitution(part, newIntervention(), 26);
+
+		List<PurchaseSuggestion> batch = engine.processBatch();
+		assertEquals(1, batch.size());
+		assertEquals(26, batch.get(0).getQuantity());
+	}
+
+	/**
+	 * GIVEN: a part below its minimum, not watched
+	 * WHEN: it is watched
+	 * THEN: it is queued
+	 */
+	@Test
+	void testWatchBelowMinStock() {
+		SparePart low = new SparePart("SP-2", "bujía", 5.0, 1, 2, 10);
+
+		engine.watch(low);
+
+		assertEquals(1, engine.getQueued());
+		assertEquals(9, engine.processBatch().get(0).getQuantity());
+	}
+
+	/**
+	 * GIVEN: a part queued
+	 * WHEN: it is unwatched
+	 * THEN: it is not queued any more and later crossings are not queued
+	 */
+	@Test
+	void testUnwatch() {
+		new Substitution(part, intervention, 18);
+
+		engine.unwatch(part);
+		part.addToStock(18);
+		new Substitution(part, newIntervention(), 18);
+
+		assertEquals(0, engine.getQueued());
+		assertTrue(engine.processBatch().isEmpty());
+	}
+
+	/**
+	 * GIVEN: a part watched by an engine
+	 * WHEN: it is watched by another
+	 * THEN: an IllegalStateException is thrown
+	 */
+	@Test
+	void testWatchedByAnotherThrowsISE() {
+		assertThrows(IllegalStateException.class,
+				() -> new ReorderEngine().watch(part));
+	}
+
+	/**
+	 * GIVEN: a part
+	 * WHEN: a negative quantity is added to its stock
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testAddNegativeToStockThrowsIAE() {
+		assertThrows(IllegalArgumentException.class,
+				() -> part.addToStock(-1));
+		assertFalse(part.isBelowMinStock());
+	}
+
+	private Intervention newIntervention() {
+		return new Intervention(DATE.plusMinutes(sequence++), 30, workOrder,
+				mechanic);
+	}
+
+}
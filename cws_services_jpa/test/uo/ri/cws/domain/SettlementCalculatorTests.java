@@ -0,0 +1,195 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - The settlements are the ones Contract.terminate computes
+ * - The full years of service are the ones of ChronoUnit.MONTHS, for any
+ * 	start and end dates, not only whole months
+ * - Large batches, computed in parallel, give the same settlements
+ * - Null arrays, arrays of different length or an end before its start are
+ * 	rejected
+ */
+class SettlementCalculatorTests {
+
+	private static final LocalDate FIRST = LocalDate.of(2000, 1, 1);
+
+	private SettlementCalculator calculator = new SettlementCalculator();
+	private ContractType[] types;
+	private ProfessionalGroup group;
+	private Random random;
+
+	@BeforeEach
+	void setUp() {
+		types = new ContractType[] {
+				new ContractType("INDEFINITE", 33),
+				new ContractType("SEASONAL", 12.5),
+				new ContractType("INTERNSHIP", 0) };
+		group = new ProfessionalGroup("oficial", 30.0, 0.05);
+		random = new Random(42);
+	}
+
+	/**
+	 * GIVEN: 300 contracts of random types, salaries and dates, some less
+	 * 	than a year long, with payrolls for up to their last 20 months, and
+	 * 	terminated
+	 * WHEN: their settlements are computed in bulk
+	 * THEN: every one is, to the cent, the one of the contract
+	 */
+	@Test
+	void testSameAsTerminate() {
+		List<Contract> contracts = terminatedContracts(300);
+
+		long[] settlements = settle(contracts);
+
+		for (int i = 0; i < contracts.size(); i++) {
+			assertEquals(contracts.get(i).getSettlementInCents(),
+					settlements[i], contracts.get(i).toString());
+		}
+	}
+
+	/**
+	 * GIVEN: every pair of start and end dates in 1999-2001, with end not
+	 * 	before start, and a year of service worth 1 €
+	 * WHEN: their settlements are computed in bulk
+	 * THEN: every one is 1 € for every full year of ChronoUnit.MONTHS from
+	 * 	the start to the day after the end
+	 */
+	@Test
+	void testFullYearsOfService() {
+		int first = (int) LocalDate.of(1999, 1, 1).toEpochDay();
+		int last = (int) LocalDate.of(2001, 12, 31).toEpochDay();
+		int n = (last - first + 1) * (last - first + 2) / 2;
+		int[] starts = new int[n];
+		int[] ends = new int[n];
+		int k = 0;
+		for (int start = first; start <= last; start++) {
+			for (int end = start; end <= last; end++) {
+				starts[k] = start;
+				ends[k++] = end;
+			}
+		}
+		double[] salaries = filled(n, 365.0);
+		double[] days = filled(n, 1.0);
+
+		long[] settlements = calculator.settle(starts, ends, salaries, days);
+
+		for (int i = 0; i < n; i++) {
+			LocalDate start = LocalDate.ofEpochDay(starts[i]);
+			LocalDate end = LocalDate.ofEpochDay(ends[i]);
+			long years = ChronoUnit.MONTHS.between(start, end.plusDays(1)) / 12;
+			assertEquals(years * 100, settlements[i], start + " - " + end);
+		}
+	}
+
+	/**
+	 * GIVEN: 200 terminated contracts, repeated to 50.000 positions
+	 * WHEN: their settlements are computed in bulk
+	 * THEN: every position has the settlement of its contract
+	 */
+	@Test
+	void testLargeBatch() {
+		List<Contract> contracts = terminatedContracts(200);
+		List<Contract> repeated = new ArrayList<>();
+		for (int i = 0; i < 250; i++) {
+			repeated.addAll(contracts);
+		}
+
+		long[] settlements = settle(repeated);
+
+		for (int i = 0; i < repeated.size(); i++) {
+			assertEquals(repeated.get(i).getSettlementInCents(),
+					settlements[i]);
+		}
+	}
+
+	/**
+	 * GIVEN: the columns of two contracts
+	 * WHEN: any is null, of another length or an end is before its start
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testInvalidArguments() {
+		int[] starts = { 100, 200 };
+		int[] ends = { 500, 600 };
+		double[] salaries = { 20_000, 30_000 };
+		double[] days = { 20, 20 };
+
+		assertThrows(IllegalArgumentException.class,
+				() -> calculator.settle(null, ends, salaries, days));
+		assertThrows(IllegalArgumentException.class,
+				() -> calculator.settle(starts, null, salaries, days));
+		assertThrows(IllegalArgumentException.class,
+				() -> calculator.settle(starts, ends, null, days));
+		assertThrows(IllegalArgumentException.class,
+				() -> calculator.settle(starts, ends, salaries, null));
+		assertThrows(IllegalArgumentException.class,
+				() -> calculator.settle(starts, new int[] { 500 }, salaries,
+						days));
+		assertThrows(IllegalArgumentException.class,
+				() -> calculator.settle(starts, new int[] { 500, 199 },
+						salaries, days));
+		assertArrayEquals(new long[0], calculator.settle(new int[0],
+				new int[0], new double[0], new double[0]));
+	}
+
+	private long[] settle(List<Contract> contracts) {
+		int n = contracts.size();
+		int[] starts = new int[n];
+		int[] ends = new int[n];
+		double[] salaries = new double[n];
+		double[] days = new double[n];
+		for (int i = 0; i < n; i++) {
+			Contract c = contracts.get(i);
+			starts[i] = (int) c.getStartDate().toEpochDay();
+			ends[i] = (int) c.getEndDate().toEpochDay();
+			salaries[i] = c.getLastAnnualGrossSalary();
+			days[i] = c.getContractType().getCompensationDaysPerYear();
+		}
+		return calculator.settle(starts, ends, salaries, days);
+	}
+
+	private List<Contract> terminatedContracts(int n) {
+		List<Contract> res = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			Mechanic mechanic = new Mechanic("nif-" + i, "s", "n");
+			LocalDate start = FIRST.plusDays(random.nextInt(7_000));
+			LocalDate end = start.plusDays(random.nextInt(3_000));
+			double salary = 12_000 + random.nextInt(40_000)
+					+ random.nextInt(100) / 100.0;
+			Contract contract = new Contract(mechanic,
+					types[random.nextInt(types.length)], group, start, salary);
+
+			LocalDate payroll = end.minusMonths(random.nextInt(20));
+			if (payroll.isBefore(contract.getStartDate())) {
+				payroll = contract.getStartDate();
+			}
+			for (; !payroll.isAfter(end); payroll = payroll.plusMonths(1)) {
+				new Payroll(contract, payroll);
+			}
+			contract.terminate(end);
+			res.add(contract);
+		}
+		return res;
+	}
+
+	private static double[] filled(int n, double value) {
+		double[] res = new double[n];
+		Arrays.fill(res, value);
+		return res;
+	}
+
+}
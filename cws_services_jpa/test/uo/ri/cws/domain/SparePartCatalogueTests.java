@@ -0,0 +1,173 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Scenarios:
+ * - A part is found by its code, an unknown code is not
+ * - All the parts of a big catalogue are found
+ * - Parts are found by a prefix of their code, up to a limit
+ * - Parts are found by a prefix of their description ignoring case
+ * - A catalogue is reloaded from a csv file
+ * - A file with a bad line names it and leaves the catalogue as it was
+ * - Repeated codes are rejected
+ */
+class SparePartCatalogueTests {
+
+	@TempDir
+	Path dir;
+
+	private SparePartCatalogue catalogue;
+	private SparePart filter;
+	private SparePart filterPlus;
+	private SparePart plug;
+
+	@BeforeEach
+	void setUp() {
+		catalogue = new SparePartCatalogue();
+		filter = new SparePart("FIL-100", "Filtro de aceite", 10.0);
+		filterPlus = new SparePart("FIL-101", "filtro de aire", 12.0);
+		plug = new SparePart("BUJ-200", "Bujía", 5.0);
+		catalogue.reload(List.of(filter, filterPlus, plug));
+	}
+
+	/**
+	 * GIVEN: a catalogue with three parts
+	 * WHEN: they are looked up by code
+	 * THEN: each code gives its part and an unknown code none
+	 */
+	@Test
+	void testFindByCode() {
+		assertSame(filter, catalogue.findByCode("FIL-100").get());
+		assertSame(plug, catalogue.findByCode("BUJ-200").get());
+		assertTrue(catalogue.findByCode("FIL-1").isEmpty());
+		assertEquals(3, catalogue.size());
+	}
+
+	/**
+	 * GIVEN: a catalogue with 200.000 parts with sequential codes
+	 * WHEN: they are looked up by code
+	 * THEN: every one is found
+	 */
+	@Test
+	void testBigCatalogue() {
+		List<SparePart> parts = new ArrayList<>();
+		for (int i = 0; i < 200_000; i++) {
+			parts.add(new SparePart("R" + i, "pieza " + i, 1.0));
+		}
+
+		catalogue.reload(parts);
+
+		assertEquals(200_000, catalogue.size());
+		for (SparePart part : parts) {
+			assertSame(part, catalogue.findByCode(part.getCode()).get());
+		}
+		assertTrue(catalogue.findByCode("R200000").isEmpty());
+	}
+
+	/**
+	 * GIVEN: a catalogue with two codes starting with FIL
+	 * WHEN: parts are looked up by the prefix FIL, with limit 1 and 10
+	 * THEN: the first one, and then both, sorted by code
+	 */
+	@Test
+	void testFindByCodePrefix() {
+		assertEquals(List.of(filter),
+				catalogue.findByCodePrefix("FIL", 1));
+		assertEquals(List.of(filter, filterPlus),
+				catalogue.findByCodePrefix("FIL", 10));
+		assertTrue(catalogue.findByCodePrefix("fil", 10).isEmpty());
+	}
+
+	/**
+	 * GIVEN: a catalogue with two descriptions starting with filtro, with
+	 * 	different case
+	 * WHEN: parts are looked up by the description prefix FILTRO DE A
+	 * THEN: both are returned, sorted by description
+	 */
+	@Test
+	void testFindByDescriptionPrefix() {
+		assertEquals(List.of(filter, filterPlus),
+				catalogue.findByDescriptionPrefix("FILTRO DE A", 10));
+		assertEquals(List.of(filterPlus),
+				catalogue.findByDescriptionPrefix("filtro de ai", 10));
+		assertEquals(List.of(plug, filter, filterPlus),
+				catalogue.findByDescriptionPrefix("", 10));
+	}
+
+	/**
+	 * GIVEN: a csv file with a comment, a blank line and two parts
+	 * WHEN: the catalogue is reloaded from it
+	 * THEN: it has the two parts, with their values
+	 */
+	@Test
+	void testReloadFromCsv() throws IOException {
+		Path csv = dir.resolve("parts.csv");
+		Files.writeString(csv, String.join("\n",
+				"# code;description;price;stock;minStock;maxStock",
+				"P-1;Pastillas de freno;35.5;10;2;20",
+				"",
+				"P-2;Disco de freno;80;4;1;8"));
+
+		catalogue.reload(csv);
+
+		assertEquals(2, catalogue.size());
+		SparePart part = catalogue.findByCode("P-1").get();
+		assertEquals("Pastillas de freno", part.getDescription());
+		assertEquals(35.5, part.getPrice(), 0.001);
+		assertEquals(10, part.getStock());
+		assertEquals(20, part.getMaxStock());
+		assertTrue(catalogue.findByCode("FIL-100").isEmpty());
+	}
+
+	/**
+	 * GIVEN: a csv file whose third line has a bad price
+	 * WHEN: the catalogue is reloaded from it
+	 * THEN: an IllegalArgumentException naming the line is thrown
+	 * AND: the catalogue keeps its parts
+	 */
+	@Test
+	void testBadLineKeepsCatalogue() throws IOException {
+		Path csv = dir.resolve("parts.csv");
+		Files.writeString(csv, String.join("\n",
+				"P-1;Pastillas de freno;35.5;10;2;20",
+				"P-2;Disco de freno;80;4;1;8",
+				"P-3;Zapata;caro;4;1;8"));
+
+		IllegalArgumentException e = assertThrows(
+				IllegalArgumentException.class, () -> catalogue.reload(csv));
+
+		assertTrue(e.getMessage().startsWith("Invalid line 3"));
+		assertEquals(3, catalogue.size());
+		assertSame(filter, catalogue.findByCode("FIL-100").get());
+	}
+
+	/**
+	 * GIVEN: two parts with the same code
+	 * WHEN: the catalogue is reloaded with them
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testRepeatedCodeThrowsIAE() {
+		List<SparePart> parts = List.of(filter,
+				new SparePart("FIL-100", "otro", 1.0));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> catalogue.reload(parts));
+		assertEquals(3, catalogue.size());
+	}
+
+}
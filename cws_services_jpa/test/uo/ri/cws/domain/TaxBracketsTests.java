@@ -0,0 +1,103 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - The rate of a bracket applies from its lowest salary on
+ * - The rate of a bracket applies up to the lowest salary of the next one
+ * - The last bracket applies to any higher salary
+ * - Brackets not starting at 0 and negative salaries are rejected
+ * - The default table has 19% for 10.000 € and 30% for 30.000 €, the same
+ * 	for every year since 2000, and none before
+ */
+class TaxBracketsTests {
+
+	private TaxBrackets brackets;
+
+	@BeforeEach
+	void setUp() {
+		Map<Double, Double> rates = new HashMap<>();
+		rates.put(20_000.0, 30.0);
+		rates.put(0.0, 19.0);
+		rates.put(10_000.0, 24.0);
+		brackets = new TaxBrackets(rates);
+	}
+
+	/**
+	 * GIVEN: three brackets
+	 * WHEN: looking up the rate of the lowest salary of each one
+	 * THEN: the rate of that bracket is returned
+	 */
+	@Test
+	void testLowestSalaryOfBracket() {
+		assertEquals(19.0, brackets.rateFor(0));
+		assertEquals(24.0, brackets.rateFor(10_000));
+		assertEquals(30.0, brackets.rateFor(20_000));
+	}
+
+	/**
+	 * GIVEN: three brackets
+	 * WHEN: looking up the rate of a cent less than the next bracket
+	 * THEN: the rate of the previous bracket is returned
+	 */
+	@Test
+	void testHighestSalaryOfBracket() {
+		assertEquals(19.0, brackets.rateFor(9_999.99));
+		assertEquals(24.0, brackets.rateFor(19_999.99));
+	}
+
+	/**
+	 * GIVEN: three brackets
+	 * WHEN: looking up the rate of a salary far over the last one
+	 * THEN: the rate of the last bracket is returned
+	 */
+	@Test
+	void testOverLastBracket() {
+		assertEquals(30.0, brackets.rateFor(1_000_000));
+	}
+
+	/**
+	 * GIVEN: brackets with none starting at 0, and valid brackets
+	 * WHEN: the table is built, or the rate of a negative salary asked for
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testInvalidBracketsThrowIAE() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new TaxBrackets(Map.of(1_000.0, 19.0)));
+		assertThrows(IllegalArgumentException.class,
+				() -> new TaxBrackets(Map.of()));
+		assertThrows(IllegalArgumentException.class,
+				() -> new TaxBrackets(Map.of(0.0, -1.0)));
+		assertThrows(IllegalArgumentException.class,
+				() -> brackets.rateFor(-0.01));
+	}
+
+	/**
+	 * GIVEN: the table loaded from tax_brackets.properties
+	 * WHEN: looking up the rates of 10.000 € and 30.000 € in 2000 and 2024,
+	 * 	and the brackets of 1999
+	 * THEN: they are 19% and 30%, from the same brackets, and there are
+	 * 	none for 1999
+	 */
+	@Test
+	void testDefaultTable() {
+		TaxBrackets table = TaxBrackets.forYear(2024);
+
+		assertEquals(19.0, table.rateFor(10_000));
+		assertEquals(30.0, table.rateFor(30_000));
+		assertSame(table, TaxBrackets.forYear(2000));
+		assertThrows(IllegalStateException.class,
+				() -> TaxBrackets.forYear(1999));
+	}
+
+}
@@ -0,0 +1,98 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - The rate of a regime applies from its first day on
+ * - The rate of a regime applies until the day before the next one
+ * - The last regime applies to any later date
+ * - A date before the first regime has no rate
+ * - The default table keeps 18% before 1/7/2012, whatever the date, and 21%
+ * 	since then
+ */
+class VatRatesTests {
+	private static final LocalDate JAN_1_2000 = LocalDate.of(2000, 1, 1);
+	private static final LocalDate JAN_1_2010 = LocalDate.of(2010, 1, 1);
+	private static final LocalDate JAN_1_2020 = LocalDate.of(2020, 1, 1);
+
+	private VatRates rates;
+
+	@BeforeEach
+	void setUp() {
+		Map<LocalDate, Double> regimes = new HashMap<>();
+		regimes.put(JAN_1_2020, 21.0);
+		regimes.put(JAN_1_2000, 16.0);
+		regimes.put(JAN_1_2010, 18.0);
+		rates = new VatRates(regimes);
+	}
+
+	/**
+	 * GIVEN: three regimes
+	 * WHEN: looking up the rate at the first day of each one
+	 * THEN: the rate of that regime is returned
+	 */
+	@Test
+	void testFirstDayOfRegime() {
+		assertEquals(16.0, rates.rateAt(JAN_1_2000));
+		assertEquals(18.0, rates.rateAt(JAN_1_2010));
+		assertEquals(21.0, rates.rateAt(JAN_1_2020));
+	}
+
+	/**
+	 * GIVEN: three regimes
+	 * WHEN: looking up the rate the day before a regime begins
+	 * THEN: the rate of the previous regime is returned
+	 */
+	@Test
+	void testLastDayOfRegime() {
+		assertEquals(16.0, rates.rateAt(JAN_1_2010.minusDays(1)));
+		assertEquals(18.0, rates.rateAt(JAN_1_2020.minusDays(1)));
+	}
+
+	/**
+	 * GIVEN: three regimes
+	 * WHEN: looking up the rate long after the last one begins
+	 * THEN: the rate of the last regime is returned
+	 */
+	@Test
+	void testAfterLastRegime() {
+		assertEquals(21.0, rates.rateAt(LocalDate.of(2100, 6, 15)));
+	}
+
+	/**
+	 * GIVEN: three regimes
+	 * WHEN: looking up the rate before the first one begins
+	 * THEN: an IllegalStateException is thrown
+	 */
+	@Test
+	void testBeforeFirstRegimeThrowsISE() {
+		assertThrows(IllegalStateException.class,
+				() -> rates.rateAt(JAN_1_2000.minusDays(1)));
+	}
+
+	/**
+	 * GIVEN: the table loaded from vat_rates.properties
+	 * WHEN: looking up the rates around 1/7/2012, and long before
+	 * THEN: it is 18% the day before and any earlier date, and 21% from
+	 * 	that day on
+	 */
+	@Test
+	void testDefaultTable() {
+		VatRates table = VatRates.getDefault();
+
+		assertEquals(18.0, table.rateAt(LocalDate.of(1950, 1, 1)));
+		assertEquals(18.0, table.rateAt(LocalDate.of(1985, 12, 31)));
+		assertEquals(18.0, table.rateAt(LocalDate.of(2012, 6, 30)));
+		assertEquals(21.0, table.rateAt(LocalDate.of(2012, 7, 1)));
+	}
+
+}
@@ -0,0 +1,121 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uo.ri.util.math.Cents;
+
+/**
+ * The amount of a work order is computed from subtotals maintained as
+ * interventions and substitutions are linked and unlinked.
+ *
+ * Scenarios:
+ * - Many interventions and substitutions, the amount matches a full recompute
+ * - Unlinking substitutions and interventions updates the subtotals
+ * - Reopening and finishing again uses the updated subtotals
+ * - With verification enabled, a corrupted subtotal is detected
+ */
+class WorkOrderIncrementalAmountTests {
+
+	private static final double EUR_50_PER_HOUR = 50.0;
+	private static final int NUM_OF_INTERVENTIONS = 500;
+	private Mechanic mechanic;
+	private Vehicle vehicle;
+	private SparePart sparePart;
+	private LocalDateTime date;
+
+	@BeforeEach
+	void setUp() {
+		vehicle = new Vehicle("1234 GJI", "ibiza", "seat");
+		VehicleType vehicleType = new VehicleType("coche", EUR_50_PER_HOUR);
+		Associations.Classifies.link(vehicleType, vehicle);
+
+		mechanic = new Mechanic("nif-mecanico", "nombre", "apellidos");
+		sparePart = new SparePart("R1001", "junta la trocla", 12.35, 10, 1, 20);
+		date = LocalDateTime.of(2024, 1, 1, 8, 0);
+		WorkOrder.setAmountVerification(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		WorkOrder.setAmountVerification(false);
+	}
+
+	/**
+	 * GIVEN: an assigned work order with many interventions and substitutions
+	 * WHEN: it is marked as finished
+	 * THEN: the amount matches the one computed walking every intervention
+	 */
+	@Test
+	void testManyInterventionsMatchFullRecompute() {
+		WorkOrder wo = new WorkOrder(vehicle, date, "revisión");
+		wo.assignTo(mechanic);
+		addInterventions(wo, NUM_OF_INTERVENTIONS);
+
+		wo.markAsFinished();
+
+		assertEquals(Cents.toDouble(wo.computeFullAmount()), wo.getAmount());
+	}
+
+	/**
+	 * GIVEN: a finished work order
+	 * WHEN: it is reopened, an intervention and a substitution are unlinked
+	 * 	and it is finished again
+	 * THEN: the amount matches the one computed walking every intervention
+	 */
+	@Test
+	void testUnlinkUpdatesSubtotals() {
+		WorkOrder wo = new WorkOrder(vehicle, date, "revisión");
+		wo.assignTo(mechanic);
+		addInterventions(wo, 3);
+		wo.markAsFinished();
+		double previous = wo.getAmount();
+
+		wo.reopen();
+		wo.assignTo(mechanic);
+		Intervention one = wo.getInterventions().iterator().next();
+		Substitution s = one.getSubstitutions().iterator().next();
+		Intervention other = wo.getInterventions().stream()
+				.filter(i -> i != one)
+				.findFirst()
+				.get();
+		double removed = s.getAmount() + other.getAmount();
+		Associations.Substitutes.unlink(s);
+		Associations.Intervenes.unlink(other);
+		wo.markAsFinished();
+
+		assertEquals(previous - removed, wo.getAmount(), 0.001);
+		assertEquals(Cents.toDouble(wo.computeFullAmount()), wo.getAmount());
+	}
+
+	/**
+	 * GIVEN: an assigned work order whose subtotals got out of sync
+	 * WHEN: it is marked as finished with verification enabled
+	 * THEN: the mismatch is reported
+	 */
+	@Test
+	void testVerificationDetectsMismatch() {
+		WorkOrder wo = new WorkOrder(vehicle, date, "revisión");
+		wo.assignTo(mechanic);
+		addInterventions(wo, 2);
+		wo._addToSubtotals(0, 100);
+
+		assertThrows(RuntimeException.class, () -> wo.markAsFinished());
+	}
+
+	private void addInterventions(WorkOrder wo, int qty) {
+		for (int i = 0; i < qty; i++) {
+			date = date.plusMinutes(1);
+			Intervention intervention = new Intervention(date, 15 + i % 60,
+					wo, mechanic);
+			new Substitution(sparePart, intervention, 1 + i % 3);
+		}
+	}
+
+}
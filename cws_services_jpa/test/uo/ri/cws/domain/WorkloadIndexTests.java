@@ -0,0 +1,214 @@
+package uo.ri.cws.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Scenarios:
+ * - Assigning and unassigning work orders updates the assigned count
+ * - Finishing a work order takes it out of the workload
+ * - Linking and unlinking interventions updates the minutes
+ * - The least loaded mechanic is the one with less work orders, then
+ * 		less minutes
+ * - Dispatching thousands of work orders spreads them evenly
+ * - A mechanic unregistered is not returned any more
+ * - An empty index has no least loaded mechanic and cannot assign
+ * - A repeated nif or a mechanic in another index is rejected
+ */
+class WorkloadIndexTests {
+
+	private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 8, 9, 0);
+
+	private WorkloadIndex index;
+	private VehicleType vehicleType;
+	private Mechanic ana;
+	private Mechanic luis;
+	private int sequence = 0;
+
+	@BeforeEach
+	void setUp() {
+		index = new WorkloadIndex();
+		vehicleType = new VehicleType("coche", 50.0);
+		ana = new Mechanic("nif-ana", "apellidos", "ana");
+		luis = new Mechanic("nif-luis", "apellidos", "luis");
+		index.register(ana);
+		index.register(luis);
+	}
+
+	/**
+	 * GIVEN: a mechanic in the index
+	 * WHEN: two work orders are assigned to it and one unassigned
+	 * THEN: its assigned count is one
+	 */
+	@Test
+	void testAssignedCount() {
+		WorkOrder first = newWorkOrder();
+		first.assignTo(ana);
+		newWorkOrder().assignTo(ana);
+
+		first.unassign();
+
+		assertEquals(1, ana.getAssignedCount());
+		assertEquals(ana.getAssigned().size(), ana.getAssignedCount());
+	}
+
+	/**
+	 * GIVEN: a mechanic with a work order assigned
+	 * WHEN: the work order is finished
+	 * THEN: its assigned count is zero again
+	 */
+	@Test
+	void testFinishedIsNotCounted() {
+		WorkOrder wo = newWorkOrder();
+		wo.assignTo(ana);
+		new Intervention(DATE, 30, wo, ana);
+
+		wo.markAsFinished();
+
+		assertEquals(0, ana.getAssignedCount());
+		assertEquals(30, ana.getInterventionMinutes());
+	}
+
+	/**
+	 * GIVEN: a mechanic with two interventions
+	 * WHEN: one of them is unlinked
+	 * THEN: its minutes are the ones of the other
+	 */
+	@Test
+	void testInterventionMinutes() {
+		WorkOrder wo = newWorkOrder();
+		wo.assignTo(ana);
+		Intervention first = new Intervention(DATE, 30, wo, ana);
+		new Intervention(DATE.plusHours(1), 45, wo, ana);
+
+		Associations.Intervenes.unlink(first);
+
+		assertEquals(45, ana.getInterventionMinutes());
+	}
+
+	/**
+	 * GIVEN: two mechanics, one with a work order more
+	 * WHEN: the least loaded is queried
+	 * THEN: it is the one with less work orders
+	 * AND: when both have the same work orders, the one with less minutes
+	 */
+	@Test
+	void testLeastLoaded() {
+		WorkOrder anaOrder = newWorkOrder();
+		anaOrder.assignTo(ana);
+		new Intervention(DATE, 120, anaOrder, ana);
+		assertSame(luis, index.leastLoaded().get());
+
+		WorkOrder luisOrder = newWorkOrder();
+		luisOrder.assignTo(luis);
+		new Intervention(DATE, 30, luisOrder, luis);
+		assertSame(luis, index.leastLoaded().get());
+
+		new Intervention(DATE.plusHours(1), 120, luisOrder, luis);
+		assertSame(ana, index.leastLoaded().get());
+	}
+
+	/**
+	 * GIVEN: an index with a thousand mechanics
+	 * WHEN: ten thousand work orders are dispatched to the least loaded
+	 * THEN: every mechanic gets ten of them
+	 * AND: the index is still ordered by load
+	 */
+	@Test
+	void testDispatchSpreadsEvenly() {
+		index = new WorkloadIndex();
+		List<Mechanic> mechanics = new ArrayList<>();
+		for (int i = 0; i < 1_000; i++) {
+			Mechanic m = new Mechanic("nif-" + i, "apellidos", "nombre");
+			index.register(m);
+			mechanics.add(m);
+		}
+
+		for (int i = 0; i < 10_000; i++) {
+			WorkOrder wo = newWorkOrder();
+			Mechanic m = index.assign(wo);
+			new Intervention(DATE, 1 + i % 7, wo, m);
+		}
+
+		assertTrue(mechanics.stream().allMatch(m -> m.getAssignedCount() == 10));
+		Mechanic least = mechanics.stream()
+				.min(Comparator.comparingLong(Mechanic::getInterventionMinutes)
+						.thenComparing(Mechanic::getNif))
+				.get();
+		assertSame(least, index.leastLoaded().get());
+	}
+
+	/**
+	 * GIVEN: an index with two mechanics
+	 * WHEN: the least loaded one is unregistered
+	 * THEN: the other one is the least loaded
+	 * AND: its workload changes do not put it back
+	 */
+	@Test
+	void testUnregister() {
+		newWorkOrder().assignTo(luis);
+
+		index.unregister(ana);
+		newWorkOrder().assignTo(ana);
+
+		assertSame(luis, index.leastLoaded().get());
+		assertFalse(index.findByNif("nif-ana").isPresent());
+		assertEquals(1, index.size());
+	}
+
+	/**
+	 * GIVEN: an empty index
+	 * WHEN: the least loaded is queried or a work order assigned
+	 * THEN: there is none and an IllegalStateException is thrown
+	 */
+	@Test
+	void testEmptyIndex() {
+		WorkloadIndex empty = new WorkloadIndex();
+
+		assertTrue(empty.leastLoaded().isEmpty());
+		assertThrows(IllegalStateException.class,
+				() -> empty.assign(newWorkOrder()));
+	}
+
+	/**
+	 * GIVEN: an index with a mechanic
+	 * WHEN: another mechanic with its nif is registered
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testRepeatedNifThrowsIAE() {
+		Mechanic other = new Mechanic("nif-ana", "otros", "ana");
+
+		assertThrows(IllegalArgumentException.class,
+				() -> index.register(other));
+	}
+
+	/**
+	 * GIVEN: a mechanic in an index
+	 * WHEN: it is registered in another index
+	 * THEN: an IllegalStateException is thrown
+	 */
+	@Test
+	void testMechanicInAnotherIndexThrowsISE() {
+		assertThrows(IllegalStateException.class,
+				() -> new WorkloadIndex().register(ana));
+	}
+
+	private WorkOrder newWorkOrder() {
+		Vehicle vehicle = new Vehicle("P-" + sequence++, "seat", "ibiza");
+		Associations.Classifies.link(vehicleType, vehicle);
+		return new WorkOrder(vehicle, DATE, "revisión");
+	}
+
+}
@@ -0,0 +1,293 @@
+package uo.ri.cws.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.persistence.EntityManager;
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.SparePart;
+import uo.ri.cws.domain.Substitution;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.WorkOrder;
+import uo.ri.cws.infrastructure.persistence.jpa.util.BatchWriter;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+
+/**
+ * Scenarios:
+ * - Thousands of interventions and substitutions are stored
+ * - They go to the database in JDBC batches, not a statement per row
+ * - The persistence context never holds more than the flush interval
+ * - Detached entities are updated through merge
+ * - The counters of the entities kept are saved across flushes
+ * - The flush interval defaults to ten times hibernate.jdbc.batch_size
+ * - A flush interval under one is rejected
+ */
+class BatchWriterTests {
+	private static final int INTERVENTIONS = 5_000;
+	private static final int INTERVENTIONS_PER_WORK_ORDER = 10;
+	private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 8, 9, 0);
+
+	private EntityManager em;
+	private Statistics statistics;
+
+	private VehicleType vehicleType;
+	private Mechanic mechanic;
+	private SparePart sparePart;
+
+	@AfterAll
+	static void tearDownFactory() {
+		Jpa.close();
+	}
+
+	@BeforeEach
+	void setUp() {
+		statistics = Jpa.getEntityManagerFactory()
+				.unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.setStatisticsEnabled(true);
+
+		vehicleType = new VehicleType("coche", 50.0);
+		mechanic = new Mechanic("nif-mecanico", "apellidos", "nombre");
+		sparePart = new SparePart("R1001", "filtro", 10.0);
+
+		em = Jpa.createEntityManager();
+		em.getTransaction().begin();
+		em.persist(vehicleType);
+		em.persist(mechanic);
+		em.persist(sparePart);
+		em.getTransaction().commit();
+		em.clear();
+		statistics.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (em.getTransaction().isActive()) {
+			em.getTransaction().rollback();
+		}
+		em.getTransaction().begin();
+		for (String entity : List.of("Substitution", "Intervention",
+				"WorkOrder", "Vehicle", "VehicleType", "SparePart",
+				"Mechanic")) {
+			em.createQuery("delete from " + entity).executeUpdate();
+		}
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	/**
+	 * GIVEN: a batch writer with the default flush interval
+	 * WHEN: thousands of interventions, with a substitution each, are written
+	 * THEN: all of them are stored
+	 * AND: far less statements than rows are prepared
+	 */
+	@Test
+	void testInterventionsAreBatched() {
+		BatchWriter writer = new BatchWriter(em);
+
+		em.getTransaction().begin();
+		writeInterventions(writer, INTERVENTIONS);
+		writer.flush();
+		em.getTransaction().commit();
+
+		assertEquals(INTERVENTIONS, count("Intervention"));
+		assertEquals(INTERVENTIONS, count("Substitution"));
+		long rows = 2 * INTERVENTIONS
+				+ INTERVENTIONS / INTERVENTIONS_PER_WORK_ORDER * 2;
+		long statements = statistics.getPrepareStatementCount();
+		assertTrue(statements < rows / 10,
+				statements + " statements for " + rows + " rows");
+	}
+
+	/**
+	 * GIVEN: a batch writer
+	 * WHEN: more entities than the flush interval are written
+	 * THEN: the persistence context never holds more than the interval
+	 * AND: the first entities written get detached
+	 */
+	@Test
+	void testPersistenceContextIsBounded() {
+		BatchWriter writer = new BatchWriter(em, 20);
+		Session session = em.unwrap(Session.class);
+		WorkOrder first = newWorkOrder(0);
+
+		em.getTransaction().begin();
+		writer.persist(first.getVehicle());
+		writer.persist(first);
+		int max = 0;
+		for (int i = 0; i < 200; i++) {
+			writer.persist(new Intervention(DATE.plusMinutes(i), 30, first,
+					mechanic));
+			max = Math.max(max, session.getStatistics().getEntityCount());
+		}
+		writer.flush();
+		em.getTransaction().commit();
+
+		assertTrue(max <= 20, "Up to " + max + " managed entities");
+		assertFalse(em.contains(first));
+		assertEquals(200, count("Intervention"));
+	}
+
+	/**
+	 * GIVEN: stored work orders, detached
+	 * WHEN: they are assigned and merged through the writer
+	 * THEN: the new state is stored
+	 */
+	@Test
+	void testMergeUpdatesDetached() {
+		BatchWriter writer = new BatchWriter(em, 7);
+		List<WorkOrder> workOrders = new ArrayList<>();
+		em.getTransaction().begin();
+		for (int i = 0; i < 30; i++) {
+			WorkOrder wo = newWorkOrder(i);
+			writer.persist(wo.getVehicle());
+			writer.persist(wo);
+			workOrders.add(wo);
+		}
+		writer.flush();
+		em.getTransaction().commit();
+
+		em.getTransaction().begin();
+		for (WorkOrder wo : workOrders) {
+			wo.assignTo(mechanic);
+			writer.merge(wo);
+		}
+		writer.flush();
+		em.getTransaction().commit();
+
+		assertEquals(30L, em.createQuery(
+				"select count(w) from WorkOrder w where w.mechanic.nif = ?1",
+				Long.class)
+				.setParameter(1, mechanic.getNif())
+				.getSingleResult());
+	}
+
+	/**
+	 * GIVEN: a batch writer flushing every 5 writes, keeping a work order,
+	 * 	the mechanic and the spare part
+	 * WHEN: 10 interventions of 60 minutes are written, with a substitution
+	 * 	of a 10 € part each
+	 * THEN: the stored work order has 600 minutes and 100 € of parts
+	 * AND: the stored mechanic has 600 minutes, in the month too
+	 * AND: the stored spare part has 10 units less
+	 */
+	@Test
+	void testKeptCountersAreSaved() {
+		BatchWriter writer = new BatchWriter(em, 5);
+		em.getTransaction().begin();
+		Mechanic worker = writer.keep(em.find(Mechanic.class, mechanic.getId()));
+		SparePart part = writer.keep(em.find(SparePart.class,
+				sparePart.getId()));
+		int stock = part.getStock();
+		WorkOrder wo = newWorkOrder(0);
+		writer.persist(wo.getVehicle());
+		writer.persist(wo);
+		writer.keep(wo);
+		for (int i = 0; i < 10; i++) {
+			Intervention intervention = new Intervention(DATE.plusMinutes(i),
+					60, wo, worker);
+			writer.persist(intervention);
+			writer.persist(new Substitution(part, intervention, 1));
+		}
+		writer.flush();
+		em.getTransaction().commit();
+		em.clear();
+
+		Object[] subtotals = em.createQuery(
+				"select w.laborMinutes, w.sparePartsAmount from WorkOrder w",
+				Object[].class)
+				.getSingleResult();
+		assertEquals(600, ((Number) subtotals[0]).longValue());
+		assertEquals(100_00L, ((Number) subtotals[1]).longValue());
+		Mechanic loaded = em.find(Mechanic.class, mechanic.getId());
+		assertEquals(600L, loaded.getInterventionMinutes());
+		assertEquals(600L, loaded.getMonthlyWork(YearMonth.from(DATE))
+				.getMinutes());
+		assertEquals(stock - 10,
+				em.find(SparePart.class, sparePart.getId()).getStock());
+	}
+
+	/**
+	 * GIVEN: a batch writer
+	 * WHEN: an entity not managed is kept
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testKeepDetachedThrowsIAE() {
+		BatchWriter writer = new BatchWriter(em);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> writer.keep(mechanic));
+	}
+
+	/**
+	 * GIVEN: the persistence unit with hibernate.jdbc.batch_size set
+	 * WHEN: a batch writer is created with no interval
+	 * THEN: it flushes every ten batches
+	 */
+	@Test
+	void testDefaultFlushInterval() {
+		Object configured = em.getEntityManagerFactory()
+				.getProperties()
+				.get(BatchWriter.BATCH_SIZE);
+
+		assertEquals(10 * Integer.parseInt(configured.toString()),
+				new BatchWriter(em).getFlushInterval());
+	}
+
+	/**
+	 * GIVEN: an entity manager
+	 * WHEN: a batch writer is created with interval zero
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testZeroFlushIntervalThrowsIAE() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new BatchWriter(em, 0));
+	}
+
+	private void writeInterventions(BatchWriter writer, int qty) {
+		WorkOrder wo = null;
+		for (int i = 0; i < qty; i++) {
+			if (i % INTERVENTIONS_PER_WORK_ORDER == 0) {
+				wo = newWorkOrder(i);
+				writer.persist(wo.getVehicle());
+				writer.persist(wo);
+			}
+			Intervention intervention = new Intervention(DATE.plusMinutes(i),
+					30, wo, mechanic);
+			writer.persist(intervention);
+			writer.persist(new Substitution(sparePart, intervention, 1));
+		}
+	}
+
+	private WorkOrder newWorkOrder(int i) {
+		Vehicle vehicle = new Vehicle("P-" + i, "seat", "ibiza");
+		Associations.Classifies.link(vehicleType, vehicle);
+		return new WorkOrder(vehicle, DATE.plusMinutes(i), "revisión");
+	}
+
+	private long count(String entity) {
+		return em.createQuery("select count(e) from " + entity + " e",
+				Long.class).getSingleResult();
+	}
+
+}
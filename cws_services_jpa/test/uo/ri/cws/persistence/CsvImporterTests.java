@@ -0,0 +1,291 @@
+package uo.ri.cws.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import uo.ri.cws.domain.Client;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.WorkOrder;
+import uo.ri.cws.domain.base.BaseEntity;
+import uo.ri.cws.infrastructure.importer.BatchSink;
+import uo.ri.cws.infrastructure.importer.CsvImporter;
+import uo.ri.cws.infrastructure.importer.ImportReport;
+import uo.ri.cws.infrastructure.importer.ParallelJpaSink;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+
+/**
+ * Scenarios:
+ * - Clients, vehicles and work orders are built and linked
+ * - Bad rows are reported with their line and the rest imported
+ * - Only the first MAX_ERRORS errors are kept, all of them are counted
+ * - The entities go to the sink in batches, drained after every file
+ * - Thousands of rows are stored through the parallel sink
+ * - A batch that fails is rolled back and drain throws its failure
+ */
+class CsvImporterTests {
+
+	@TempDir
+	Path dir;
+
+	private EntityManager em;
+	private VehicleType car;
+	private List<List<BaseEntity>> batches;
+	private int drains;
+	private BatchSink collector;
+
+	@AfterAll
+	static void tearDownFactory() {
+		Jpa.close();
+	}
+
+	@BeforeEach
+	void setUp() {
+		car = new VehicleType("coche", 50.0);
+		em = Jpa.createEntityManager();
+		em.getTransaction().begin();
+		em.persist(car);
+		em.getTransaction().commit();
+		em.clear();
+
+		batches = new ArrayList<>();
+		drains = 0;
+		collector = new BatchSink() {
+			@Override
+			public void accept(List<BaseEntity> batch) {
+				batches.add(batch);
+			}
+
+			@Override
+			public void drain() {
+				drains++;
+			}
+		};
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (em.getTransaction().isActive()) {
+			em.getTransaction().rollback();
+		}
+		em.getTransaction().begin();
+		for (String entity : List.of("WorkOrder", "Vehicle", "VehicleType",
+				"Client")) {
+			em.createQuery("delete from " + entity).executeUpdate();
+		}
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	/**
+	 * GIVEN: files with a client, with and without address, their vehicles
+	 * 	and a work order
+	 * WHEN: they are imported
+	 * THEN: the entities are built and linked
+	 */
+	@Test
+	void testEntitiesAreLinked() throws IOException {
+		CsvImporter importer = new CsvImporter(List.of(car), collector);
+
+		importer.importClients(csv("clients.csv",
+				"# nif;name;surname;email;phone;street;city;zipCode",
+				"11A;Ana;García;ana@mail.com;600100200;Uría 1;Oviedo;33001",
+				"22B;Luis;Pérez;luis@mail.com;600100300;;;"));
+		importer.importVehicles(csv("vehicles.csv",
+				"1111-AAA;seat;ibiza;11A;coche",
+				"2222-BBB;opel;corsa;22B;coche"));
+		ImportReport report = importer.importWorkOrders(csv("workorders.csv",
+				"1111-AAA;2024-01-08T09:30;revisión"));
+
+		assertEquals(1, report.getImported());
+		Client ana = (Client) batches.get(0).get(0);
+		Client luis = (Client) batches.get(0).get(1);
+		Vehicle ibiza = (Vehicle) batches.get(1).get(0);
+		WorkOrder wo = (WorkOrder) batches.get(2).get(0);
+		assertEquals("Oviedo", ana.getAddress().getCity());
+		assertNull(luis.getAddress());
+		assertSame(ana, ibiza.getClient());
+		assertTrue(ana.getVehicles().contains(ibiza));
+		assertSame(car, ibiza.getVehicleType());
+		assertSame(ibiza, wo.getVehicle());
+		assertEquals(LocalDateTime.of(2024, 1, 8, 9, 30), wo.getDate());
+	}
+
+	/**
+	 * GIVEN: files with bad rows: fields missing, a blank email, an unknown
+	 * 	client and vehicle type, a repeated plate, a bad date
+	 * WHEN: they are imported
+	 * THEN: those rows are rejected, naming the line, and the rest imported
+	 */
+	@Test
+	void testBadRowsAreReported() throws IOException {
+		CsvImporter importer = new CsvImporter(List.of(car), collector);
+
+		ImportReport clients = importer.importClients(csv("clients.csv",
+				"11A;Ana;García;ana@mail.com;600100200;;;",
+				"22B;Luis;Pérez",
+				"33C;Eva;Díaz; ;600100400;;;"));
+		ImportReport vehicles = importer.importVehicles(csv("vehicles.csv",
+				"1111-AAA;seat;ibiza;11A;coche",
+				"2222-BBB;opel;corsa;99Z;coche",
+				"3333-CCC;opel;corsa;11A;camión",
+				"1111-AAA;seat;leon;11A;coche"));
+		ImportReport workOrders = importer.importWorkOrders(csv("wo.csv",
+				"1111-AAA;2024-01-08T09:30;revisión",
+				"1111-AAA;ayer;revisión",
+				"1111-AAA;2024-01-08T09:30;otra"));
+
+		assertEquals(1, clients.getImported());
+		assertEquals(List.of(2, 3), lines(clients));
+		assertEquals(1, vehicles.getImported());
+		assertEquals(List.of(2, 3, 4), lines(vehicles));
+		assertEquals(1, workOrders.getImported());
+		assertEquals(List.of(2, 3), lines(workOrders));
+		assertTrue(vehicles.getErrors().get(0).getMessage().contains("99Z"));
+	}
+
+	/**
+	 * GIVEN: a file with 1.500 bad rows
+	 * WHEN: it is imported
+	 * THEN: all of them are counted, the first MAX_ERRORS kept
+	 */
+	@Test
+	void testErrorsAreCapped() throws IOException {
+		CsvImporter importer = new CsvImporter(List.of(car), collector);
+		String[] rows = IntStream.range(0, 1_500)
+				.mapToObj(i -> "bad")
+				.toArray(String[]::new);
+
+		ImportReport report = importer.importClients(csv("clients.csv", rows));
+
+		assertEquals(1_500, report.getRejected());
+		assertEquals(ImportReport.MAX_ERRORS, report.getErrors().size());
+	}
+
+	/**
+	 * GIVEN: an importer with batches of 10
+	 * WHEN: 25 clients and then their vehicles are imported
+	 * THEN: the sink gets batches of 10, 10 and 5, in the order of the file
+	 * AND: it is drained once per file
+	 */
+	@Test
+	void testBatches() throws IOException {
+		CsvImporter importer = new CsvImporter(List.of(car), collector, 10);
+
+		importer.importClients(clients(25));
+		assertEquals(1, drains);
+		importer.importVehicles(vehicles(25));
+
+		assertEquals(2, drains);
+		assertEquals(List.of(10, 10, 5, 10, 10, 5), batches.stream()
+				.map(List::size)
+				.collect(Collectors.toList()));
+		assertEquals("nif-10", ((Client) batches.get(1).get(0)).getNif());
+	}
+
+	/**
+	 * GIVEN: files with 2.000 clients, their vehicles and a work order each
+	 * WHEN: they are imported through a parallel sink of 4 threads
+	 * THEN: all of them are stored, linked
+	 */
+	@Test
+	void testParallelSinkStoresAll() throws IOException {
+		int rows = 2_000;
+		try (ParallelJpaSink sink = new ParallelJpaSink(4)) {
+			CsvImporter importer = new CsvImporter(List.of(car), sink, 100);
+
+			importer.importClients(clients(rows));
+			importer.importVehicles(vehicles(rows));
+			importer.importWorkOrders(workOrders(rows));
+
+			assertEquals(3 * rows, sink.getWritten());
+		}
+
+		assertEquals(rows, count("Client"));
+		assertEquals(rows, count("Vehicle"));
+		assertEquals(rows, count("WorkOrder"));
+		assertEquals(rows, em.createQuery("select count(v) from Vehicle v "
+				+ "where v.client.nif = concat('nif-', substring("
+				+ "v.plateNumber, 3))", Long.class).getSingleResult());
+	}
+
+	/**
+	 * GIVEN: a client already stored
+	 * WHEN: a file with it and other clients is imported in batches of 10
+	 * THEN: drain throws a PersistenceException
+	 * AND: the batch with the repeated client is not stored, the rest are
+	 */
+	@Test
+	void testFailedBatchIsRolledBack() throws IOException {
+		em.getTransaction().begin();
+		em.persist(new Client("nif-15", "nombre", "apellidos"));
+		em.getTransaction().commit();
+
+		try (ParallelJpaSink sink = new ParallelJpaSink(2)) {
+			CsvImporter importer = new CsvImporter(List.of(car), sink, 10);
+
+			assertThrows(PersistenceException.class,
+					() -> importer.importClients(clients(30)));
+		}
+
+		assertEquals(1 + 20, count("Client"));
+	}
+
+	private List<Integer> lines(ImportReport report) {
+		return report.getErrors().stream()
+				.map(ImportReport.RowError::getLine)
+				.collect(Collectors.toList());
+	}
+
+	private Path clients(int n) throws IOException {
+		return csv("clients.csv", IntStream.range(0, n)
+				.mapToObj(i -> "nif-" + i + ";nombre;apellidos;c" + i
+						+ "@mail.com;600000000;;;")
+				.toArray(String[]::new));
+	}
+
+	private Path vehicles(int n) throws IOException {
+		return csv("vehicles.csv", IntStream.range(0, n)
+				.mapToObj(i -> "P-" + i + ";seat;ibiza;nif-" + i + ";coche")
+				.toArray(String[]::new));
+	}
+
+	private Path workOrders(int n) throws IOException {
+		return csv("workorders.csv", IntStream.range(0, n)
+				.mapToObj(i -> "P-" + i + ";2024-01-08T09:30;revisión")
+				.toArray(String[]::new));
+	}
+
+	private Path csv(String name, String... lines) throws IOException {
+		Path file = dir.resolve(name);
+		Files.write(file, List.of(lines));
+		return file;
+	}
+
+	private long count(String entity) {
+		em.clear();
+		return em.createQuery("select count(e) from " + entity + " e",
+				Long.class).getSingleResult();
+	}
+
+}
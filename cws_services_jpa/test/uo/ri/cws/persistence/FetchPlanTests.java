@@ -0,0 +1,249 @@
+package uo.ri.cws.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.persistence.EntityManager;
+import uo.ri.cws.application.repository.FetchPlan;
+import uo.ri.cws.application.repository.InvoiceRepository;
+import uo.ri.cws.application.repository.MechanicRepository;
+import uo.ri.cws.application.repository.WorkOrderRepository;
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Invoice;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.SparePart;
+import uo.ri.cws.domain.Substitution;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.WorkOrder;
+import uo.ri.cws.infrastructure.persistence.jpa.repository.InvoiceJpaRepository;
+import uo.ri.cws.infrastructure.persistence.jpa.repository.MechanicJpaRepository;
+import uo.ri.cws.infrastructure.persistence.jpa.repository.WorkOrderJpaRepository;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+
+/**
+ * Counts the SQL statements issued to load a vehicle history (work orders,
+ * interventions, substitutions and spare parts) with and without fetch
+ * plans.
+ *
+ * Scenarios:
+ * - Without plan, navigating the history issues a query per object
+ * - With a plan, the whole history is loaded in one query
+ * - The plans of invoices and mechanics load their graphs in one query
+ * - A plan the entity does not define is rejected
+ */
+class FetchPlanTests {
+	private static final String PLATE = "1234 GJI";
+	private static final int WORK_ORDERS = 20;
+	private static final int INTERVENTIONS = 3;
+	private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 8, 9, 0);
+
+	private WorkOrderRepository workOrders = new WorkOrderJpaRepository();
+	private InvoiceRepository invoices = new InvoiceJpaRepository();
+	private MechanicRepository mechanics = new MechanicJpaRepository();
+
+	private EntityManager em;
+	private Statistics statistics;
+
+	@AfterAll
+	static void tearDownFactory() {
+		Jpa.close();
+	}
+
+	@BeforeEach
+	void setUp() {
+		statistics = Jpa.getEntityManagerFactory()
+				.unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.setStatisticsEnabled(true);
+
+		em = Jpa.createEntityManager();
+		em.getTransaction().begin();
+		storeVehicleHistory();
+		em.getTransaction().commit();
+		em.clear();
+		statistics.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		em.getTransaction().begin();
+		for (String entity : List.of("Substitution", "Intervention",
+				"WorkOrder", "Invoice", "SparePart", "Mechanic", "Vehicle",
+				"VehicleType")) {
+			em.createQuery("delete from " + entity).executeUpdate();
+		}
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	/**
+	 * GIVEN: a vehicle with many work orders, interventions and substitutions
+	 * WHEN: its work orders are loaded without plan and all the history is
+	 * 	navigated
+	 * THEN: more statements than work orders are issued
+	 */
+	@Test
+	void testWithoutPlanIsNPlusOne() {
+		List<WorkOrder> loaded = workOrders.findByVehiclePlate(PLATE);
+		int parts = navigate(loaded);
+
+		assertEquals(WORK_ORDERS * INTERVENTIONS * 2, parts);
+		assertTrue(statements() > WORK_ORDERS, statements() + " statements");
+	}
+
+	/**
+	 * GIVEN: a vehicle with many work orders, interventions and substitutions
+	 * WHEN: its work orders are loaded WITH_SUBSTITUTIONS_AND_PARTS and all
+	 * 	the history is navigated
+	 * THEN: one statement is issued
+	 */
+	@Test
+	void testWithSubstitutionsAndPartsIsOneQuery() {
+		List<WorkOrder> loaded = workOrders.findByVehiclePlate(PLATE,
+				FetchPlan.WITH_SUBSTITUTIONS_AND_PARTS);
+		int parts = navigate(loaded);
+
+		assertEquals(WORK_ORDERS, loaded.size());
+		assertEquals(WORK_ORDERS * INTERVENTIONS * 2, parts);
+		assertEquals(1, statements());
+	}
+
+	/**
+	 * GIVEN: a vehicle with many work orders and interventions
+	 * WHEN: its work orders are loaded WITH_INTERVENTIONS and the
+	 * 	interventions and mechanics are navigated
+	 * THEN: one statement is issued
+	 */
+	@Test
+	void testWithInterventionsIsOneQuery() {
+		List<WorkOrder> loaded = workOrders.findByVehiclePlate(PLATE,
+				FetchPlan.WITH_INTERVENTIONS);
+		int count = 0;
+		for (WorkOrder wo : loaded) {
+			for (Intervention i : wo.getInterventions()) {
+				i.getMechanic().getNif();
+				count++;
+			}
+		}
+
+		assertEquals(WORK_ORDERS * INTERVENTIONS, count);
+		assertEquals(1, statements());
+	}
+
+	/**
+	 * GIVEN: an invoice of all the work orders of a vehicle
+	 * WHEN: it is loaded WITH_WORK_ORDERS and the work orders navigated
+	 * THEN: one statement is issued
+	 */
+	@Test
+	void testInvoiceWithWorkOrdersIsOneQuery() {
+		Invoice loaded = invoices.findByNumber(1L, FetchPlan.WITH_WORK_ORDERS)
+				.get();
+		int count = 0;
+		for (WorkOrder wo : loaded.getWorkOrders()) {
+			wo.getVehicle().getPlateNumber();
+			count++;
+		}
+
+		assertEquals(WORK_ORDERS, count);
+		assertEquals(1, statements());
+	}
+
+	/**
+	 * GIVEN: a mechanic with many interventions
+	 * WHEN: it is loaded WITH_INTERVENTIONS and the work orders navigated
+	 * THEN: one statement is issued
+	 */
+	@Test
+	void testMechanicWithInterventionsIsOneQuery() {
+		Mechanic loaded = mechanics.findByNif("nif-mecanico",
+				FetchPlan.WITH_INTERVENTIONS).get();
+		int count = 0;
+		for (Intervention i : loaded.getInterventions()) {
+			i.getWorkOrder().getVehicle().getPlateNumber();
+			count++;
+		}
+
+		assertEquals(WORK_ORDERS * INTERVENTIONS, count);
+		assertEquals(1, statements());
+	}
+
+	/**
+	 * GIVEN: an invoice
+	 * WHEN: it is loaded with a plan of mechanics
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testUnknownPlanThrowsIAE() {
+		assertThrows(IllegalArgumentException.class,
+				() -> invoices.findByNumber(1L, FetchPlan.WITH_ASSIGNED));
+	}
+
+	/**
+	 * @return the number of substitutions reached from the work orders
+	 */
+	private int navigate(List<WorkOrder> loaded) {
+		int parts = 0;
+		for (WorkOrder wo : loaded) {
+			for (Intervention i : wo.getInterventions()) {
+				for (Substitution s : i.getSubstitutions()) {
+					s.getSparePart().getCode();
+					parts++;
+				}
+			}
+		}
+		return parts;
+	}
+
+	private long statements() {
+		return statistics.getPrepareStatementCount();
+	}
+
+	private void storeVehicleHistory() {
+		VehicleType vehicleType = new VehicleType("coche", 50.0);
+		Vehicle vehicle = new Vehicle(PLATE, "seat", "ibiza");
+		Associations.Classifies.link(vehicleType, vehicle);
+		Mechanic mechanic = new Mechanic("nif-mecanico", "apellidos", "nombre");
+		SparePart filter = new SparePart("R1001", "filtro", 10.0);
+		SparePart oil = new SparePart("R1002", "aceite", 20.0);
+		List<Object> graph = new ArrayList<>(List.of(vehicleType, vehicle,
+				mechanic, filter, oil));
+
+		List<WorkOrder> finished = new ArrayList<>();
+		LocalDateTime date = DATE;
+		for (int i = 0; i < WORK_ORDERS; i++) {
+			date = date.plusDays(1);
+			WorkOrder wo = new WorkOrder(vehicle, date, "revisión " + i);
+			wo.assignTo(mechanic);
+			graph.add(wo);
+			for (int j = 0; j < INTERVENTIONS; j++) {
+				Intervention intervention = new Intervention(
+						date.plusHours(j), 30, wo, mechanic);
+				graph.add(intervention);
+				graph.add(new Substitution(filter, intervention, 1));
+				graph.add(new Substitution(oil, intervention, 2));
+			}
+			wo.markAsFinished();
+			finished.add(wo);
+		}
+		graph.add(new Invoice(1L, LocalDate.of(2024, 3, 1), finished));
+
+		graph.forEach(em::persist);
+	}
+
+}
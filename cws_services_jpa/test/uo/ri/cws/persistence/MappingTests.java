@@ -0,0 +1,295 @@
+package uo.ri.cws.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceUtil;
+import uo.ri.cws.domain.Address;
+import uo.ri.cws.domain.Associations;
+import uo.ri.cws.domain.Client;
+import uo.ri.cws.domain.Contract;
+import uo.ri.cws.domain.ContractType;
+import uo.ri.cws.domain.CreditCard;
+import uo.ri.cws.domain.Intervention;
+import uo.ri.cws.domain.Invoice;
+import uo.ri.cws.domain.Mechanic;
+import uo.ri.cws.domain.MonthlyWork;
+import uo.ri.cws.domain.Payroll;
+import uo.ri.cws.domain.ProfessionalGroup;
+import uo.ri.cws.domain.SparePart;
+import uo.ri.cws.domain.Substitution;
+import uo.ri.cws.domain.Vehicle;
+import uo.ri.cws.domain.VehicleType;
+import uo.ri.cws.domain.Voucher;
+import uo.ri.cws.domain.WorkOrder;
+
+/**
+ * Stores a whole invoiced graph of the domain in the in-memory database
+ * and loads it back in a new persistence context.
+ *
+ * Scenarios:
+ * - Every entity gets an id and its attributes are read back
+ * - To-one associations are not loaded until navigated
+ * - Lazy proxies equal the entities they stand for
+ * - The subtotals of the work order survive the round trip
+ * - The payment means hierarchy is stored and read back polymorphically
+ * - A contract is stored and read back with its payroll
+ * - The monthly work of a mechanic is stored and read back
+ */
+class MappingTests {
+	private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 8, 9, 0);
+
+	private static EntityManagerFactory emf;
+	private EntityManager em;
+
+	private Client client;
+	private Vehicle vehicle;
+	private WorkOrder workOrder;
+	private Intervention intervention;
+	private Invoice invoice;
+	private Contract contract;
+	private Payroll payroll;
+
+	@BeforeAll
+	static void setUpFactory() {
+		emf = Persistence.createEntityManagerFactory("carworkshop");
+	}
+
+	@AfterAll
+	static void tearDownFactory() {
+		emf.close();
+	}
+
+	@BeforeEach
+	void setUp() {
+		client = new Client("nif-cliente", "nombre", "apellidos", "email",
+				"phone", new Address("calle", "ciudad", "33000"));
+		vehicle = new Vehicle("1234 GJI", "seat", "ibiza");
+		VehicleType vehicleType = new VehicleType("coche", 50.0);
+		Associations.Owns.link(client, vehicle);
+		Associations.Classifies.link(vehicleType, vehicle);
+
+		Mechanic mechanic = new Mechanic("nif-mecanico", "apellidos", "nombre");
+		SparePart sparePart = new SparePart("R1001", "junta la trocla", 100.0);
+		workOrder = new WorkOrder(vehicle, DATE, "falla la junta la trocla");
+		workOrder.assignTo(mechanic);
+		intervention = new Intervention(DATE.plusHours(1), 60, workOrder,
+				mechanic);
+		Substitution substitution = new Substitution(sparePart, intervention, 2);
+		workOrder.markAsFinished();
+		invoice = new Invoice(1L, LocalDate.of(2024, 1, 9), List.of(workOrder));
+
+		ContractType contractType = new ContractType("INDEFINITE", 20);
+		ProfessionalGroup group = new ProfessionalGroup("oficial", 30.0, 0.05);
+		contract = new Contract(mechanic, contractType, group,
+				LocalDate.of(2020, 1, 15), 30_000);
+		payroll = new Payroll(contract, LocalDate.of(2024, 1, 31));
+
+		CreditCard card = new CreditCard("1234-5678", "visa",
+				LocalDate.of(2030, 1, 1));
+
+		em = emf.createEntityManager();
+		em.getTransaction().begin();
+		for (Object o : List.of(client, vehicleType, vehicle, mechanic,
+				sparePart, workOrder, intervention, substitution, invoice,
+				contractType, group, contract, payroll,
+				card, new Voucher("V001", "regalo", 50.0))) {
+			em.persist(o);
+		}
+		em.getTransaction().commit();
+		em.clear();
+	}
+
+	@AfterEach
+	void tearDown() {
+		em.getTransaction().begin();
+		for (String entity : List.of("Substitution", "Intervention",
+				"WorkOrder", "Invoice", "SparePart", "Payroll", "Contract",
+				"ContractType", "ProfessionalGroup", "Mechanic", "Vehicle",
+				"VehicleType", "Client", "PaymentMean")) {
+			em.createQuery("delete from " + entity).executeUpdate();
+		}
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	/**
+	 * GIVEN: a stored client with a vehicle
+	 * WHEN: it is loaded in a new persistence context
+	 * THEN: its attributes and address are the stored ones
+	 */
+	@Test
+	void testClientRoundTrip() {
+		Client loaded = em.find(Client.class, client.getId());
+
+		assertNotNull(loaded);
+		assertEquals(client, loaded);
+		assertEquals(client.getAddress(), loaded.getAddress());
+		assertEquals(1, loaded.getVehicles().size());
+	}
+
+	/**
+	 * GIVEN: a stored invoiced work order
+	 * WHEN: it is loaded in a new persistence context
+	 * THEN: the vehicle, the mechanic and the invoice are not loaded yet
+	 * AND: they are loaded when navigated
+	 */
+	@Test
+	void testToOneAssociationsAreLazy() {
+		PersistenceUtil util = Persistence.getPersistenceUtil();
+
+		WorkOrder loaded = em.find(WorkOrder.class, workOrder.getId());
+
+		assertFalse(util.isLoaded(loaded, "interventions"));
+		assertFalse(util.isLoaded(loaded.getVehicle()));
+		assertFalse(util.isLoaded(loaded.getInvoice()));
+		assertEquals(vehicle.getPlateNumber(),
+				loaded.getVehicle().getPlateNumber());
+		assertTrue(util.isLoaded(loaded.getVehicle()));
+	}
+
+	/**
+	 * GIVEN: a stored substitution
+	 * WHEN: it is loaded in a new persistence context, with its intervention
+	 * 	and work order as lazy proxies
+	 * THEN: they equal the intervention and work order stored, both ways
+	 * AND: they equal the ones loaded in another persistence context
+	 */
+	@Test
+	void testLazyProxiesAreEqual() {
+		Intervention proxy = em.createQuery("select s from Substitution s",
+				Substitution.class)
+				.getSingleResult()
+				.getIntervention();
+		EntityManager other = emf.createEntityManager();
+		try {
+			Intervention loaded = other.find(Intervention.class,
+					intervention.getId());
+
+			assertFalse(Persistence.getPersistenceUtil().isLoaded(proxy));
+			assertEquals(intervention, proxy);
+			assertEquals(proxy, intervention);
+			assertEquals(loaded, proxy);
+			assertEquals(proxy, loaded);
+			assertEquals(workOrder, proxy.getWorkOrder());
+			assertEquals(loaded.getWorkOrder(), proxy.getWorkOrder());
+		} finally {
+			other.close();
+		}
+	}
+
+	/**
+	 * GIVEN: a stored invoiced work order
+	 * WHEN: it is loaded in a new persistence context
+	 * THEN: its amount, state and intervention are the stored ones
+	 * AND: the amount still matches the one computed from its interventions
+	 */
+	@Test
+	void testWorkOrderRoundTrip() {
+		WorkOrder loaded = em.find(WorkOrder.class, workOrder.getId());
+
+		assertTrue(loaded.isInvoiced());
+		assertEquals(workOrder.getAmount(), loaded.getAmount());
+		assertEquals(1, loaded.getInterventions().size());
+		assertEquals(intervention.getAmount(),
+				loaded.getInterventions().iterator().next().getAmount());
+	}
+
+	/**
+	 * GIVEN: a stored invoice
+	 * WHEN: it is loaded in a new persistence context
+	 * THEN: its amount and vat are the stored ones
+	 */
+	@Test
+	void testInvoiceRoundTrip() {
+		Invoice loaded = em.createQuery(
+				"select i from Invoice i where i.number = :number",
+				Invoice.class)
+				.setParameter("number", 1L)
+				.getSingleResult();
+
+		assertEquals(invoice.getAmount(), loaded.getAmount());
+		assertEquals(invoice.getVat(), loaded.getVat());
+		assertTrue(loaded.isNotSettled());
+		assertEquals(1, loaded.getWorkOrders().size());
+	}
+
+	/**
+	 * GIVEN: a stored credit card and a stored voucher
+	 * WHEN: all the payment means are queried
+	 * THEN: both are returned with their own type
+	 */
+	@Test
+	void testPaymentMeansArePolymorphic() {
+		long cards = em.createQuery("select p from PaymentMean p",
+				Object.class)
+				.getResultList()
+				.stream()
+				.filter(p -> p instanceof CreditCard)
+				.count();
+		long vouchers = em.createQuery("select v from Voucher v",
+				Voucher.class)
+				.getResultList()
+				.size();
+
+		assertEquals(1, cards);
+		assertEquals(1, vouchers);
+	}
+
+	/**
+	 * GIVEN: a stored contract with a payroll
+	 * WHEN: it is loaded in a new persistence context
+	 * THEN: its dates, salary and state are the stored ones
+	 * AND: so are the concepts of its payroll
+	 */
+	@Test
+	void testContractRoundTrip() {
+		Contract loaded = em.find(Contract.class, contract.getId());
+
+		assertEquals(contract.getStartDate(), loaded.getStartDate());
+		assertEquals(contract.getAnnualBaseSalary(),
+				loaded.getAnnualBaseSalary());
+		assertTrue(loaded.isInForce());
+		assertEquals(loaded, loaded.getMechanic().getContractInForce().get());
+		assertEquals(1, loaded.getPayrolls().size());
+		Payroll loadedPayroll = loaded.getPayrolls().iterator().next();
+		assertEquals(payroll.getDate(), loadedPayroll.getDate());
+		assertEquals(payroll.getProductivityEarning(),
+				loadedPayroll.getProductivityEarning());
+		assertEquals(payroll.getNetSalary(), loadedPayroll.getNetSalary());
+	}
+
+	/**
+	 * GIVEN: a stored mechanic with an hour of work invoiced in January
+	 * WHEN: it is loaded in a new persistence context
+	 * THEN: its monthly work is there, and there is none for February
+	 */
+	@Test
+	void testMonthlyWorkRoundTrip() {
+		Mechanic loaded = em.find(Contract.class, contract.getId())
+				.getMechanic();
+
+		MonthlyWork january = loaded.getMonthlyWork(YearMonth.of(2024, 1));
+		assertEquals(60, january.getMinutes());
+		assertEquals(workOrder.getAmount(), january.getBilledAmount(), 0.001);
+		assertEquals(MonthlyWork.NONE,
+				loaded.getMonthlyWork(YearMonth.of(2024, 2)));
+	}
+
+}
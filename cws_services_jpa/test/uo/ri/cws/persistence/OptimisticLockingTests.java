@@ -0,0 +1,297 @@
+package uo.ri.cws.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.RollbackException;
+import uo.ri.cws.domain.Voucher;
+import uo.ri.cws.infrastructure.persistence.jpa.util.Jpa;
+import uo.ri.cws.infrastructure.persistence.jpa.util.OptimisticRetry;
+import uo.ri.util.exception.BusinessChecks;
+import uo.ri.util.exception.BusinessException;
+
+/**
+ * Two clerks charging the same voucher at the same time.
+ *
+ * Scenarios:
+ * - The version starts at zero and every update increments it
+ * - The second of two concurrent updates fails instead of overwriting
+ * - A stale version read by the user is detected by hasVersion
+ * - The retry helper runs again an operation that lost a conflict
+ * - It gives up after the attempts configured
+ * - A business exception is not retried
+ * - Zero attempts are rejected
+ * - The entity manager bound before the retry is bound again after it
+ * - A closed entity manager is not handed out to the thread any longer
+ * - Neither is one of another thread once the factory is closed
+ */
+class OptimisticLockingTests {
+
+	private Voucher voucher;
+
+	@AfterAll
+	static void tearDownFactory() {
+		Jpa.close();
+	}
+
+	@BeforeEach
+	void setUp() {
+		voucher = new Voucher("V001", "regalo", 100.0);
+		EntityManager em = Jpa.createEntityManager();
+		em.getTransaction().begin();
+		em.persist(voucher);
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	@AfterEach
+	void tearDown() {
+		EntityManager em = Jpa.createEntityManager();
+		em.getTransaction().begin();
+		em.createQuery("delete from PaymentMean").executeUpdate();
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	/**
+	 * GIVEN: a stored voucher
+	 * WHEN: it is charged twice, in two transactions
+	 * THEN: its version goes from zero to two
+	 */
+	@Test
+	void testVersionIncrementsOnUpdate() {
+		assertEquals(0L, voucher.getVersion());
+
+		pay(1.0);
+		pay(1.0);
+
+		assertEquals(2L, load().getVersion());
+	}
+
+	/**
+	 * GIVEN: a voucher loaded by two clerks
+	 * WHEN: both charge it and commit, one after the other
+	 * THEN: the second commit fails with an optimistic locking conflict
+	 * AND: only the first charge is stored
+	 */
+	@Test
+	void testSecondConcurrentUpdateFails() {
+		EntityManager first = Jpa.getEntityManagerFactory()
+				.createEntityManager();
+		EntityManager second = Jpa.getEntityManagerFactory()
+				.createEntityManager();
+		first.getTransaction().begin();
+		second.getTransaction().begin();
+		first.find(Voucher.class, voucher.getId()).pay(10.0);
+		second.find(Voucher.class, voucher.getId()).pay(20.0);
+
+		first.getTransaction().commit();
+		RollbackException e = assertThrows(RollbackException.class,
+				() -> second.getTransaction().commit());
+		first.close();
+		second.close();
+
+		assertTrue(e.getCause() instanceof OptimisticLockException);
+		assertEquals(10.0, load().getAccumulated());
+	}
+
+	/**
+	 * GIVEN: the version of a voucher read by a user
+	 * WHEN: another user charges it and the first user sends the old version
+	 * THEN: hasVersion throws a BusinessException
+	 */
+	@Test
+	void testStaleVersionIsDetected() throws BusinessException {
+		long read = load().getVersion();
+		BusinessChecks.hasVersion(read, load().getVersion());
+
+		pay(1.0);
+
+		assertThrows(BusinessException.class,
+				() -> BusinessChecks.hasVersion(read, load().getVersion()));
+	}
+
+	/**
+	 * GIVEN: an operation charging the voucher
+	 * WHEN: on its first attempt another clerk charges it before the commit
+	 * THEN: the operation runs again and both charges are stored
+	 */
+	@Test
+	void testConflictIsRetried() throws BusinessException {
+		OptimisticRetry retry = new OptimisticRetry();
+
+		retry.execute(() -> {
+			Jpa.getManager().find(Voucher.class, voucher.getId()).pay(10.0);
+			if (retry.getAttempts() == 1) {
+				payInAnotherThread(20.0);
+			}
+			return null;
+		});
+
+		assertEquals(2, retry.getAttempts());
+		assertEquals(30.0, load().getAccumulated());
+		assertEquals(70.0, load().getAvailable());
+	}
+
+	/**
+	 * GIVEN: an operation that loses the conflict every time
+	 * WHEN: it is run with three attempts
+	 * THEN: a BusinessException is thrown after the third one
+	 * AND: only the charges of the other clerk are stored
+	 */
+	@Test
+	void testGivesUpAfterMaxAttempts() {
+		OptimisticRetry retry = new OptimisticRetry(3);
+
+		assertThrows(BusinessException.class, () -> retry.execute(() -> {
+			Jpa.getManager().find(Voucher.class, voucher.getId()).pay(10.0);
+			payInAnotherThread(1.0);
+			return null;
+		}));
+
+		assertEquals(3, retry.getAttempts());
+		assertEquals(3.0, load().getAccumulated());
+	}
+
+	/**
+	 * GIVEN: an operation that throws a BusinessException
+	 * WHEN: it is run
+	 * THEN: it is run only once and its changes are rolled back
+	 */
+	@Test
+	void testBusinessExceptionIsNotRetried() {
+		OptimisticRetry retry = new OptimisticRetry(3);
+
+		assertThrows(BusinessException.class, () -> retry.execute(() -> {
+			Jpa.getManager().find(Voucher.class, voucher.getId()).pay(10.0);
+			BusinessChecks.isTrue(false, "Rejected");
+			return null;
+		}));
+
+		assertEquals(1, retry.getAttempts());
+		assertEquals(0.0, load().getAccumulated());
+	}
+
+	/**
+	 * GIVEN: no attempts
+	 * WHEN: the retry helper is created
+	 * THEN: an IllegalArgumentException is thrown
+	 */
+	@Test
+	void testZeroAttemptsThrowsIAE() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new OptimisticRetry(0));
+	}
+
+	/**
+	 * GIVEN: an entity manager bound to the thread
+	 * WHEN: an operation is run with retries
+	 * THEN: it runs on an entity manager of its own
+	 * AND: the first one is bound again afterwards, still open
+	 */
+	@Test
+	void testPreviousBindingIsRestored() throws BusinessException {
+		EntityManager outer = Jpa.createEntityManager();
+		try {
+			EntityManager inner = new OptimisticRetry().execute(
+					Jpa::getManager);
+
+			assertNotSame(outer, inner);
+			assertSame(outer, Jpa.getManager());
+			assertTrue(outer.isOpen());
+		} finally {
+			Jpa.closeEntityManager();
+		}
+		assertNull(Jpa.getManager());
+	}
+
+	/**
+	 * GIVEN: an entity manager bound to the thread
+	 * WHEN: it is closed directly, not with Jpa.closeEntityManager
+	 * THEN: the thread has no entity manager any longer
+	 */
+	@Test
+	void testClosedManagerIsUnbound() {
+		Jpa.createEntityManager().close();
+
+		assertNull(Jpa.getManager());
+	}
+
+	/**
+	 * GIVEN: an entity manager bound to another thread
+	 * WHEN: the factory is closed from this one
+	 * THEN: that thread has no entity manager any longer
+	 */
+	@Test
+	void testOtherThreadIsUnboundOnClose() throws Exception {
+		CountDownLatch bound = new CountDownLatch(1);
+		CountDownLatch closed = new CountDownLatch(1);
+		AtomicReference<EntityManager> seen = new AtomicReference<>();
+		Thread other = new Thread(() -> {
+			Jpa.createEntityManager();
+			bound.countDown();
+			try {
+				closed.await();
+			} catch (InterruptedException e) {
+				return;
+			}
+			seen.set(Jpa.getManager());
+		});
+		other.start();
+
+		bound.await();
+		Jpa.close();
+		closed.countDown();
+		other.join();
+
+		assertNull(seen.get());
+	}
+
+	private void pay(double amount) {
+		EntityManager em = Jpa.getEntityManagerFactory().createEntityManager();
+		em.getTransaction().begin();
+		em.find(Voucher.class, voucher.getId()).pay(amount);
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	/**
+	 * The other clerk has a thread, and an entity manager, of its own
+	 */
+	private void payInAnotherThread(double amount) {
+		Thread clerk = new Thread(() -> pay(amount));
+		clerk.start();
+		try {
+			clerk.join();
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Voucher load() {
+		EntityManager em = Jpa.getEntityManagerFactory().createEntityManager();
+		try {
+			return em.createQuery("select v from Voucher v where v.id = ?1",
+					Voucher.class)
+					.setParameter(1, voucher.getId())
+					.getSingleResult();
+		} finally {
+			em.close();
+		}
+	}
+
+}
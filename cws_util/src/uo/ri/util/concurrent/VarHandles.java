@@ -0,0 +1,46 @@
+package uo.ri.util.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Atomic access to plain long and int fields, e.g. amounts in cents or
+ * stock, without changing the type of the field (it is still a long or an
+ * int for the persistence mapping). Declare the field volatile and the
+ * handle as a constant:
+ *
+ * 	private static final VarHandle AMOUNT = VarHandles.ofLong(
+ * 			MethodHandles.lookup(), MyClass.class, "amount");
+ */
+public class VarHandles {
+
+	private VarHandles() {}
+
+	/**
+	 * @param lookup, of the class declaring the field, so private fields
+	 * 	can be accessed
+	 * @throws IllegalStateException if there is no such long field
+	 */
+	public static VarHandle ofLong(MethodHandles.Lookup lookup, Class<?> type,
+			String field) {
+		try {
+			return lookup.findVarHandle(type, field, long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @see #ofLong(MethodHandles.Lookup, Class, String), for int fields,
+	 * 	e.g. quantities
+	 */
+	public static VarHandle ofInt(MethodHandles.Lookup lookup, Class<?> type,
+			String field) {
+		try {
+			return lookup.findVarHandle(type, field, int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package uo.ri.util.math;
+
+/**
+ * Money amounts represented as a primitive long number of cents.
+ *
+ * All the operations work over primitives, thus no object is allocated
+ * neither for the arithmetic nor for the rounding. Rounding is always
+ * HALF_UP (away from zero on ties), the same as {@link Rounds#toCents(double)}
+ */
+public class Cents {
+
+	public static final long ZERO = 0L;
+
+	private static final int CENTS_PER_UNIT = 100;
+
+	private Cents() {}
+
+	/**
+	 * Converts a decimal amount to cents, rounding HALF_UP to the nearest cent
+	 */
+	public static long of(double value) {
+		double abs = Math.abs(value);
+		long floor = (long) Math.floor(abs * CENTS_PER_UNIT);
+
+		/*
+		 * The product above is inexact (1.005 * 100 == 100.49999999999999),
+		 * so ties are decided comparing the value itself with the nearest
+		 * double to the half cent, as BigDecimal.valueOf(value) would do
+		 */
+		double halfCent = (2 * floor + 1) / (2.0 * CENTS_PER_UNIT);
+		long res = abs >= halfCent ? floor + 1 : floor;
+		return value < 0 ? -res : res;
+	}
+
+	/**
+	 * Converts back an amount of cents into a decimal amount
+	 */
+	public static double toDouble(long cents) {
+		return (double) cents / CENTS_PER_UNIT;
+	}
+
+	/**
+	 * @return cents * factor, rounded HALF_UP to the nearest cent
+	 */
+	public static long multiply(long cents, double factor) {
+		return of(toDouble(cents) * factor);
+	}
+
+	/**
+	 * @return cents * quantity, throws ArithmeticException on overflow
+	 */
+	public static long multiply(long cents, long quantity) {
+		return Math.multiplyExact(cents, quantity);
+	}
+
+	/**
+	 * @return cents * numerator / denominator, computed with integer
+	 * 	arithmetic and rounded HALF_UP to the nearest cent
+	 */
+	public static long ratio(long cents, long numerator, long denominator) {
+		long product = Math.multiplyExact(cents, numerator);
+		long quotient = product / denominator;
+		long remainder = product % denominator;
+
+		if (Math.abs(remainder) * 2 >= Math.abs(denominator)) {
+			quotient += Long.signum(product) * Long.signum(denominator);
+		}
+		return quotient;
+	}
+
+	/**
+	 * @return the percentage of cents, as for a tax rate of 21.0 %. The
+	 * 	percent is taken with two decimal places (basis points), so the
+	 * 	result is computed with integer arithmetic
+	 */
+	public static long percentage(long cents, double percent) {
+		long basisPoints = Math.round(percent * CENTS_PER_UNIT);
+		return ratio(cents, basisPoints, CENTS_PER_UNIT * CENTS_PER_UNIT);
+	}
+
+	/**
+	 * @return the cents formatted as a decimal amount, e.g. "-12.05"
+	 */
+	public static String toString(long cents) {
+		long abs = Math.abs(cents);
+		long fraction = abs % CENTS_PER_UNIT;
+		return (cents < 0 ? "-" : "")
+				+ abs / CENTS_PER_UNIT
+				+ (fraction < 10 ? ".0" : ".")
+				+ fraction;
+	}
+
+}
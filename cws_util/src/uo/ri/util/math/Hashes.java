@@ -0,0 +1,30 @@
+package uo.ri.util.math;
+
+/**
+ * Hash codes for composite keys that spread well in hash tables: every bit
+ * of the parts affects every bit of the result, so keys differing in a
+ * few low bits (e.g. consecutive dates) do not fall in the same buckets
+ */
+public class Hashes {
+
+	public static int combine(int h1, int h2) {
+		return mix(31 * h1 + h2);
+	}
+
+	public static int combine(int h1, int h2, int h3) {
+		return mix(31 * (31 * h1 + h2) + h3);
+	}
+
+	/**
+	 * The finalizer of MurmurHash3
+	 */
+	public static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+}